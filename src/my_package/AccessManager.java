@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -21,6 +22,23 @@ import javax.swing.JOptionPane;
  * @author JackFedash
  */
 public class AccessManager {
+    private final Clock clock;
+
+    /**
+     * Constructs an access manager checking the system time.
+     */
+    public AccessManager() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs an access manager checking the time of a given clock.
+     * @param clock The clock to read the local time from, such as a {@link VirtualClock}
+     */
+    public AccessManager(Clock clock) {
+        this.clock = clock;
+    }
+
     /**
      * Writes a new access time to the JSON file based on user input.
      *
@@ -129,7 +147,7 @@ public class AccessManager {
      * @return true if the current time is within access hours; false otherwise.
      */
     private boolean checkAccess(int startHour, int startMin, int endHour, int endMin) {
-        LocalTime currentTime = LocalTime.now(); // Get the current time
+        LocalTime currentTime = LocalTime.now(clock); // Get the current time
 
         // Define the allowed access times based on parameters
         LocalTime startAccessTime = LocalTime.of(startHour, startMin); // Create the start access time
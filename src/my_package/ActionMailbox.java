@@ -0,0 +1,124 @@
+package my_package;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues the actions taken on a pet so that only one thread changes it at a time.
+ * Any thread may submit an action (the Swing thread, the inventory...). While the pet
+ * is ticking, the tick thread owns it: it runs the queued actions at the start of each
+ * tick, then the tick itself. While nothing ticks the pet, the submitting thread runs
+ * its action straight away. The queue is lock-free, and ticking takes no locks.
+ */
+public class ActionMailbox {
+    private final ConcurrentLinkedQueue<Action> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(); // Held by the one thread changing the pet
+    private final AtomicInteger handedTicks = new AtomicInteger(); // Ticks queued for the thread holding the flag
+    private volatile boolean owned;
+
+    /**
+     * Submits an action on the pet.
+     * @param action The action to run
+     * @return A future completed once the action has run, or completed exceptionally if it threw
+     */
+    public CompletableFuture<Void> submit(Runnable action) {
+        Action queued = new Action(action);
+        queue.offer(queued);
+        if (!owned) drain();
+        return queued.done;
+    }
+
+    /**
+     * Sets whether a tick thread owns the pet. Actions submitted while it is not owned
+     * run on the submitting thread.
+     * @param owned true while the pet is registered with the scheduler
+     */
+    public void setOwned(boolean owned) {
+        this.owned = owned;
+        if (!owned) drain(); // Nothing will tick again to run what is left
+    }
+
+    /**
+     * Checks whether a tick thread owns the pet.
+     * @return true if queued actions wait for the next tick
+     */
+    public boolean isOwned() {
+        return owned;
+    }
+
+    /**
+     * Gets the number of actions waiting to run.
+     * @return The queue length
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Runs the queued actions and then the tick, as the only thread changing the pet.
+     * Called by the tick thread that owns the pet.
+     * If another thread is running actions at that moment, as while the pet is being taken
+     * over or released, the tick is queued behind them and that thread runs it; the tick
+     * thread returns at once instead of waiting for it. An exception thrown by a handed
+     * over tick is printed rather than thrown.
+     * @param tick The tick to run after the actions
+     */
+    public void runTick(Runnable tick) {
+        if (!running.compareAndSet(false, true)) {
+            handedTicks.incrementAndGet();
+            queue.offer(new Action(() -> {
+                handedTicks.decrementAndGet();
+                tick.run();
+            }));
+            drain(); // Runs it here if the other thread let go before seeing it
+            return;
+        }
+        try {
+            runQueued();
+            tick.run();
+        } finally {
+            running.set(false);
+        }
+        // Submitted while the pet was being released, or a tick handed over while this one ran
+        if (!owned || handedTicks.get() > 0) drain();
+    }
+
+    /**
+     * Runs every queued action, unless another thread is already doing so.
+     */
+    private void drain() {
+        // Whoever holds the flag runs everything queued, including actions offered meanwhile.
+        // The queue is checked again after letting go, so nothing offered just before is left behind
+        while (!queue.isEmpty() && running.compareAndSet(false, true)) {
+            try {
+                runQueued();
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+
+    private void runQueued() {
+        Action action;
+        while ((action = queue.poll()) != null) {
+            try {
+                action.body.run();
+                action.done.complete(null);
+            } catch (RuntimeException e) {
+                System.out.println(e);
+                action.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Action {
+        private final Runnable body;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Action(Runnable body) {
+            this.body = body;
+        }
+    }
+}
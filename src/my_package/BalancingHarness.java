@@ -0,0 +1,425 @@
+package my_package;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates large numbers of pet lifetimes to see how the active {@link TickRules} and the
+ * species stats play out, for balancing them.
+ * Every pet starts at full stats and is ticked until it dies or reaches a tick limit,
+ * while a simulated player cares for it following a {@link Policy}. The lifetimes are run
+ * in batches of {@value #BATCH_SIZE} rows of a {@link PetStatTable} on every core; dead
+ * pets are swapped out of the batch so only living pets are ticked.
+ * Each batch has its own seeded random stream, so a run gives the same results whatever
+ * the number of threads.
+ * Run with {@code java -cp <classes> my_package.BalancingHarness [lifetimes] [policy] [maxTicks] [seed]}.
+ */
+public class BalancingHarness implements AutoCloseable {
+    /** Default tick limit of a lifetime: at one tick per second, just under three hours */
+    public static final int DEFAULT_MAX_TICKS = 10_000;
+    /** Number of lifetimes simulated together in one table */
+    public static final int BATCH_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int maxTicks;
+
+    /**
+     * Constructs a harness using every core and the default tick limit.
+     */
+    public BalancingHarness() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Constructs a harness.
+     * @param parallelism The number of worker threads
+     * @param maxTicks The number of ticks after which a living pet counts as a survivor
+     */
+    public BalancingHarness(int parallelism, int maxTicks) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        if (maxTicks < 1) throw new IllegalArgumentException("Tick limit must be at least 1: " + maxTicks);
+        this.maxTicks = maxTicks;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pet-balancing-" + thread.getPoolIndex());
+            thread.setDaemon(true); // Never keep the application alive on its own
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Simulates lifetimes of every registered species.
+     * @param policy How the simulated player cares for the pets
+     * @param lifetimesPerSpecies The number of lifetimes to simulate for each species
+     * @param seed The seed of every random roll
+     * @return The results of each species, in registry order
+     */
+    public Map<Species, Result> run(Policy policy, int lifetimesPerSpecies, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Callable<Result>> batches = new ArrayList<>();
+        for (int species = 1; species < Species.count(); species++) {
+            for (int first = 0; first < lifetimesPerSpecies; first += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, lifetimesPerSpecies - first);
+                int index = species;
+                SplittableRandom batchRandom = random.split(); // Split in order, so seeds never depend on scheduling
+                batches.add(() -> runBatch(Species.byIndex(index), count, policy, batchRandom));
+            }
+        }
+
+        Map<Species, Result> results = new LinkedHashMap<>();
+        try {
+            for (Future<Result> batch : pool.invokeAll(batches)) {
+                Result result = batch.get();
+                results.computeIfAbsent(result.species, s -> new Result(s, maxTicks)).merge(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Balancing run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Balancing batch failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Gets the tick limit of a lifetime.
+     * @return The number of ticks after which a living pet counts as a survivor
+     */
+    public int getMaxTicks() {
+        return maxTicks;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Simulates one batch of lifetimes of a species in a table of its own.
+     */
+    private Result runBatch(Species species, int count, Policy policy, SplittableRandom random) {
+        TickRules rules = TickRules.getActive();
+        PetStatTable table = new PetStatTable(count);
+        for (int i = 0; i < count; i++) {
+            table.addRow(species.getName());
+        }
+        // The tick of each pet's next visit from the player; rolling the gap between visits
+        // costs one random number per visit instead of one per pet and tick
+        int[] nextVisit = new int[count];
+        for (int row = 0; row < count; row++) {
+            nextVisit[row] = policy.nextVisit(0, random);
+        }
+        Result result = new Result(species, maxTicks);
+        int live = count;
+        for (int tick = 1; tick <= maxTicks && live > 0; tick++) {
+            for (int row = 0; row < live; row++) {
+                if (nextVisit[row] == tick) {
+                    policy.act(rules, table, row, random);
+                    nextVisit[row] = policy.nextVisit(tick, random);
+                }
+                if (table.cooldown[row] > 0) table.cooldown[row]--; // As in Pet.runTick
+            }
+            table.tickVectorized(0, live);
+            for (int row = 0; row < live; ) {
+                if (table.state[row] == PetStatTable.DEAD) {
+                    result.record(tick, table.score[row]);
+                    table.moveRow(--live, row); // Keep the living pets at the front
+                    nextVisit[row] = nextVisit[live];
+                } else {
+                    row++;
+                }
+            }
+        }
+        for (int row = 0; row < live; row++) {
+            result.recordSurvivor(table.score[row]);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the harness from the command line and prints each species' results.
+     * @param args Optional lifetime count across all species, policy name, tick limit and seed
+     */
+    public static void main(String[] args) {
+        int lifetimes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Policy policy = args.length > 1 ? Policy.forName(args[1]) : Policy.CASUAL;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_TICKS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int speciesCount = Species.count() - 1;
+
+        try (BalancingHarness harness = new BalancingHarness(Runtime.getRuntime().availableProcessors(), maxTicks)) {
+            long start = System.nanoTime();
+            Map<Species, Result> results = harness.run(policy, (lifetimes + speciesCount - 1) / speciesCount, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Policy %s, %d lifetimes of up to %d ticks in %.1f s on %d threads%n",
+                    policy.getName(), lifetimes, maxTicks, seconds, harness.pool.getParallelism());
+            for (Result result : results.values()) {
+                System.out.println(result);
+            }
+        }
+    }
+
+    /**
+     * How the simulated player cares for a pet.
+     * Each tick, the player looks at the pet with a given chance. When they do, they feed it
+     * if its fullness is low, give it a gift if its happiness is low, and otherwise take a
+     * random action; actions the pet's state does not allow, or that come during a
+     * cooldown, are skipped as in the game. Food and gifts are never short.
+     */
+    public static final class Policy {
+        /** A player who never looks after the pet */
+        public static final Policy IDLE = new Policy("idle", 0, 0, 0, 0, 0);
+        /** A player who checks in now and then with small snacks */
+        public static final Policy CASUAL = new Policy("casual", 0.02, 20, 6, 10, 6);
+        /** A player who looks after the pet often with the best items */
+        public static final Policy ATTENTIVE = new Policy("attentive", 0.1, 50, 12, 30, 12);
+        // The PetState button of each TickRules action
+        private static final int[] ACTION_BITS = {PetState.PLAY, PetState.EXERCISE, PetState.VET, PetState.SLEEP};
+
+        private final String name;
+        private final double actionChance;
+        private final int feedBelow;
+        private final int foodRating;
+        private final int giftBelow;
+        private final int giftRating;
+
+        /**
+         * Constructs a policy.
+         * @param name The name shown in reports
+         * @param actionChance The chance each tick that the player looks at the pet, 0 to 1
+         * @param feedBelow The fullness under which the player feeds the pet, 0 to never feed
+         * @param foodRating The fullness each feeding adds, as a {@link Food} rating
+         * @param giftBelow The happiness under which the player gives a gift, 0 to never give one
+         * @param giftRating The happiness each gift adds, as a {@link Gift} rating
+         */
+        public Policy(String name, double actionChance, int feedBelow, int foodRating, int giftBelow, int giftRating) {
+            if (actionChance < 0 || actionChance > 1) throw new IllegalArgumentException("Chance must be between 0 and 1: " + actionChance);
+            this.name = name;
+            this.actionChance = actionChance;
+            this.feedBelow = feedBelow;
+            this.foodRating = foodRating;
+            this.giftBelow = giftBelow;
+            this.giftRating = giftRating;
+        }
+
+        /**
+         * Looks up a preset policy by name.
+         * @param name idle, casual or attentive
+         * @return The policy
+         * @throws IllegalArgumentException if no preset has that name
+         */
+        public static Policy forName(String name) {
+            for (Policy policy : new Policy[] {IDLE, CASUAL, ATTENTIVE}) {
+                if (policy.name.equals(name)) return policy;
+            }
+            throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+
+        /**
+         * Gets the name of the policy.
+         * @return The policy name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Rolls when the player next looks at a pet. The gaps between visits follow the
+         * geometric distribution, the same as rolling the chance on every tick.
+         * @return The tick of the next visit, or Integer.MAX_VALUE for never
+         */
+        private int nextVisit(int tick, SplittableRandom random) {
+            if (actionChance == 0) return Integer.MAX_VALUE;
+            if (actionChance == 1) return tick + 1;
+            double gap = Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - actionChance));
+            return gap >= Integer.MAX_VALUE - tick - 1 ? Integer.MAX_VALUE : tick + 1 + (int) gap;
+        }
+
+        /**
+         * Takes the player's turn on one pet, before its tick.
+         */
+        private void act(TickRules rules, PetStatTable table, int row, SplittableRandom random) {
+            PetState state = PetState.fromCode(table.state[row]);
+            if (table.fullness[row] < feedBelow && state.isEnabled(PetState.FEED)) {
+                table.fullness[row] += foodRating; // As in InventoryManager.giveFood
+            } else if (table.happiness[row] < giftBelow && state.isEnabled(PetState.GIFT)) {
+                table.happiness[row] += giftRating; // As in InventoryManager.giveGift
+            } else {
+                int action = random.nextInt(TickRules.ACTION_COUNT);
+                if (table.cooldown[row] == 0 && state.isEnabled(ACTION_BITS[action])) {
+                    rules.apply(action, table, row);
+                    table.cooldown[row] = rules.getCooldown(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * The lifetimes of one species: when the pets died, and the scores they reached.
+     */
+    public static final class Result {
+        private final Species species;
+        private final long[] deaths; // Pets that died on each tick
+        private long[] scores = new long[256]; // Pets that ended with each score
+        private long lifetimes;
+        private long survivors;
+
+        private Result(Species species, int maxTicks) {
+            this.species = species;
+            this.deaths = new long[maxTicks + 1];
+        }
+
+        private void record(int tick, int score) {
+            deaths[tick]++;
+            recordScore(score);
+        }
+
+        private void recordSurvivor(int score) {
+            survivors++;
+            recordScore(score);
+        }
+
+        private void recordScore(int score) {
+            if (score >= scores.length) scores = Arrays.copyOf(scores, Math.max(score + 1, scores.length * 2));
+            scores[score]++;
+            lifetimes++;
+        }
+
+        private void merge(Result other) {
+            for (int tick = 0; tick < deaths.length; tick++) {
+                deaths[tick] += other.deaths[tick];
+            }
+            if (other.scores.length > scores.length) scores = Arrays.copyOf(scores, other.scores.length);
+            for (int score = 0; score < other.scores.length; score++) {
+                scores[score] += other.scores[score];
+            }
+            lifetimes += other.lifetimes;
+            survivors += other.survivors;
+        }
+
+        /**
+         * Gets the species the lifetimes are of.
+         * @return The species
+         */
+        public Species getSpecies() {
+            return species;
+        }
+
+        /**
+         * Gets the number of lifetimes simulated.
+         * @return The lifetime count
+         */
+        public long getLifetimes() {
+            return lifetimes;
+        }
+
+        /**
+         * Gets the number of pets still alive at the tick limit.
+         * @return The survivor count
+         */
+        public long getSurvivors() {
+            return survivors;
+        }
+
+        /**
+         * Gets the survival curve at a tick.
+         * @param tick The tick, 0 to the tick limit
+         * @return The share of pets still alive after that tick, 0 to 1
+         */
+        public double getSurvival(int tick) {
+            long dead = 0;
+            for (int t = 0; t <= tick; t++) {
+                dead += deaths[t];
+            }
+            return lifetimes == 0 ? 0 : 1 - (double) dead / lifetimes;
+        }
+
+        /**
+         * Gets a percentile of the time to death.
+         * @param percentile The percentile, 0 to 100
+         * @return The tick by which that share of pets had died, or -1 if fewer pets died
+         */
+        public int getDeathTickPercentile(double percentile) {
+            long target = (long) Math.ceil(percentile / 100 * lifetimes);
+            long dead = 0;
+            for (int tick = 0; tick < deaths.length; tick++) {
+                dead += deaths[tick];
+                if (dead >= target && dead > 0) return tick;
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the mean lifetime, counting survivors as living until the tick limit.
+         * @return The mean lifetime in ticks
+         */
+        public double getMeanLifetime() {
+            double total = (double) survivors * (deaths.length - 1);
+            for (int tick = 0; tick < deaths.length; tick++) {
+                total += (double) tick * deaths[tick];
+            }
+            return lifetimes == 0 ? 0 : total / lifetimes;
+        }
+
+        /**
+         * Gets a percentile of the final scores, at death or at the tick limit.
+         * @param percentile The percentile, 0 to 100
+         * @return The score that share of pets reached at most
+         */
+        public int getScorePercentile(double percentile) {
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * lifetimes));
+            long seen = 0;
+            for (int score = 0; score < scores.length; score++) {
+                seen += scores[score];
+                if (seen >= target) return score;
+            }
+            return scores.length - 1;
+        }
+
+        /**
+         * Gets the mean final score, at death or at the tick limit.
+         * @return The mean score
+         */
+        public double getMeanScore() {
+            double total = 0;
+            for (int score = 0; score < scores.length; score++) {
+                total += (double) score * scores[score];
+            }
+            return lifetimes == 0 ? 0 : total / lifetimes;
+        }
+
+        /**
+         * Formats the results as a short report with the survival curve in ten steps.
+         * @return The report
+         */
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%s: %d lifetimes, %.1f%% survived%n", species.getName(), lifetimes,
+                    100.0 * survivors / Math.max(1, lifetimes)));
+            report.append(String.format("  death tick p10 %d, p50 %d, p90 %d, mean lifetime %.0f%n",
+                    getDeathTickPercentile(10), getDeathTickPercentile(50), getDeathTickPercentile(90), getMeanLifetime()));
+            report.append(String.format("  score p10 %d, p50 %d, p90 %d, mean %.1f%n",
+                    getScorePercentile(10), getScorePercentile(50), getScorePercentile(90), getMeanScore()));
+            report.append("  survival");
+            int maxTicks = deaths.length - 1;
+            for (int step = 1; step <= 10; step++) {
+                int tick = (int) ((long) maxTicks * step / 10);
+                report.append(String.format(" %d:%.3f", tick, getSurvival(tick)));
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package my_package;
+
+import java.util.Arrays;
+
+/**
+ * Stores large populations of pets in about 12 bytes each.
+ * The four stats, the state, the species, the cooldown and the tick phase of a pet are
+ * packed into one long, and the score is kept alongside in an int array:
+ * <pre>
+ *  bits  0-7   health       bits 32-35  state
+ *  bits  8-15  happiness    bits 36-43  species index
+ *  bits 16-23  fullness     bits 44-55  cooldown
+ *  bits 24-31  sleep        bits 56-63  tick phase
+ * </pre>
+ * The tick phase is the pet's tick count modulo the {@link TickRules#getCycle() cycle} of
+ * the active rules, which is all the rules read of it, so a pet copied out and back keeps
+ * its place in the every-5-ticks decay. Rules whose cycle exceeds {@link #MAX_PHASE} + 1
+ * ticks cannot be stored.
+ * Names are not stored; pets read back from the store are unnamed.
+ * The static helpers encode and decode a single packed long.
+ */
+public class CompactPetStore {
+    /** Largest stat value that fits in a packed long */
+    public static final int MAX_STAT = 0xFF;
+    /** Largest cooldown that fits in a packed long */
+    public static final int MAX_COOLDOWN = 0xFFF;
+    /** Largest tick phase that fits in a packed long */
+    public static final int MAX_PHASE = 0xFF;
+    private static final int MAX_STATE = 0xF;
+    private static final int MAX_SPECIES = 0xFF;
+
+    private long[] packed;
+    private int[] scores;
+    private int size;
+
+    /**
+     * Constructs an empty store.
+     * @param capacity The number of pets to allocate room for; the store grows when full
+     */
+    public CompactPetStore(int capacity) {
+        packed = new long[Math.max(1, capacity)];
+        scores = new int[packed.length];
+    }
+
+    /**
+     * Packs a pet's stats into a long, at tick phase 0.
+     * @param health The health, 0 to {@link #MAX_STAT}
+     * @param happiness The happiness, 0 to {@link #MAX_STAT}
+     * @param fullness The fullness, 0 to {@link #MAX_STAT}
+     * @param sleep The sleep, 0 to {@link #MAX_STAT}
+     * @param state The state code from {@link PetStatTable}
+     * @param species The species index
+     * @param cooldown The cooldown, 0 to {@link #MAX_COOLDOWN}
+     * @return The packed stats
+     * @throws IllegalArgumentException if a value does not fit in its bits
+     */
+    public static long encode(int health, int happiness, int fullness, int sleep, int state, int species, int cooldown) {
+        return encode(health, happiness, fullness, sleep, state, species, cooldown, 0);
+    }
+
+    /**
+     * Packs a pet's stats into a long.
+     * @param health The health, 0 to {@link #MAX_STAT}
+     * @param happiness The happiness, 0 to {@link #MAX_STAT}
+     * @param fullness The fullness, 0 to {@link #MAX_STAT}
+     * @param sleep The sleep, 0 to {@link #MAX_STAT}
+     * @param state The state code from {@link PetStatTable}
+     * @param species The species index
+     * @param cooldown The cooldown, 0 to {@link #MAX_COOLDOWN}
+     * @param phase The tick count modulo the rules' cycle, 0 to {@link #MAX_PHASE}
+     * @return The packed stats
+     * @throws IllegalArgumentException if a value does not fit in its bits
+     */
+    public static long encode(int health, int happiness, int fullness, int sleep, int state, int species, int cooldown,
+            int phase) {
+        return (long) checked(health, MAX_STAT, "health")
+                | (long) checked(happiness, MAX_STAT, "happiness") << 8
+                | (long) checked(fullness, MAX_STAT, "fullness") << 16
+                | (long) checked(sleep, MAX_STAT, "sleep") << 24
+                | (long) checked(state, MAX_STATE, "state") << 32
+                | (long) checked(species, MAX_SPECIES, "species") << 36
+                | (long) checked(cooldown, MAX_COOLDOWN, "cooldown") << 44
+                | (long) checked(phase, MAX_PHASE, "phase") << 56;
+    }
+
+    /**
+     * Gets the health from packed stats.
+     * @param packed The packed stats
+     * @return The health
+     */
+    public static int health(long packed) {
+        return (int) packed & MAX_STAT;
+    }
+
+    /**
+     * Gets the happiness from packed stats.
+     * @param packed The packed stats
+     * @return The happiness
+     */
+    public static int happiness(long packed) {
+        return (int) (packed >>> 8) & MAX_STAT;
+    }
+
+    /**
+     * Gets the fullness from packed stats.
+     * @param packed The packed stats
+     * @return The fullness
+     */
+    public static int fullness(long packed) {
+        return (int) (packed >>> 16) & MAX_STAT;
+    }
+
+    /**
+     * Gets the sleep from packed stats.
+     * @param packed The packed stats
+     * @return The sleep
+     */
+    public static int sleep(long packed) {
+        return (int) (packed >>> 24) & MAX_STAT;
+    }
+
+    /**
+     * Gets the state code from packed stats.
+     * @param packed The packed stats
+     * @return The state code from {@link PetStatTable}
+     */
+    public static int state(long packed) {
+        return (int) (packed >>> 32) & MAX_STATE;
+    }
+
+    /**
+     * Gets the species index from packed stats.
+     * @param packed The packed stats
+     * @return The species index
+     */
+    public static int species(long packed) {
+        return (int) (packed >>> 36) & MAX_SPECIES;
+    }
+
+    /**
+     * Gets the cooldown from packed stats.
+     * @param packed The packed stats
+     * @return The cooldown
+     */
+    public static int cooldown(long packed) {
+        return (int) (packed >>> 44) & MAX_COOLDOWN;
+    }
+
+    /**
+     * Gets the tick phase from packed stats.
+     * @param packed The packed stats
+     * @return The tick count modulo the rules' cycle
+     */
+    public static int phase(long packed) {
+        return (int) (packed >>> 56);
+    }
+
+    /**
+     * Adds a pet to the store. Its stats must be within their limits, as after
+     * {@link Pet#statLimiter()}.
+     * @param pet The pet to add
+     * @return The index of the pet in the store
+     */
+    public int add(Pet pet) {
+        if (size == packed.length) grow(size * 2);
+        int index = size++;
+        set(index, pet);
+        return index;
+    }
+
+    /**
+     * Replaces the pet at an index of the store. Stats outside 0 to {@link #MAX_STAT}, such
+     * as the negative health of a pet that just died from the sleep penalty, are stored at
+     * the nearest limit, as {@link Pet#statLimiter()} would.
+     * @param index The index to replace
+     * @param pet The pet to store there
+     */
+    public void set(int index, Pet pet) {
+        checkIndex(index);
+        PetSnapshot snapshot = pet.snapshot();
+        packed[index] = encode(clamp(snapshot.getHealth()), clamp(snapshot.getHappiness()), clamp(snapshot.getFullness()),
+                clamp(snapshot.getSleep()), snapshot.getPetState().ordinal(), pet.getSpecies().getIndex(), snapshot.getCooldown(),
+                phaseOf(pet.getTickCount()));
+        scores[index] = snapshot.getScore();
+    }
+
+    /**
+     * Reads a pet back from the store as a new, unnamed Pet.
+     * @param index The index of the pet
+     * @return A pet holding the stored stats
+     */
+    public Pet get(int index) {
+        checkIndex(index);
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow(Species.byIndex(species(packed[index])).getName());
+        copyTo(index, table, row);
+        return new Pet(null, table, row);
+    }
+
+    /**
+     * Copies a stored pet into a row of a stat table, for example to simulate it.
+     * @param index The index of the pet
+     * @param table The table to copy into
+     * @param row The row to overwrite
+     */
+    public void copyTo(int index, PetStatTable table, int row) {
+        checkIndex(index);
+        long p = packed[index];
+        table.type[row] = species(p);
+        table.health[row] = health(p);
+        table.happiness[row] = happiness(p);
+        table.fullness[row] = fullness(p);
+        table.sleep[row] = sleep(p);
+        table.state[row] = state(p);
+        table.cooldown[row] = cooldown(p);
+        table.ticks[row] = phase(p);
+        table.score[row] = scores[index];
+    }
+
+    /**
+     * Stores a row of a stat table at an index of the store. Stats outside 0 to
+     * {@link #MAX_STAT} are stored at the nearest limit.
+     * @param table The table to read
+     * @param row The row to store
+     * @param index The index to overwrite
+     */
+    public void copyFrom(PetStatTable table, int row, int index) {
+        checkIndex(index);
+        packed[index] = encode(clamp(table.health[row]), clamp(table.happiness[row]), clamp(table.fullness[row]),
+                clamp(table.sleep[row]), table.state[row], table.type[row], table.cooldown[row], phaseOf(table.ticks[row]));
+        scores[index] = table.score[row];
+    }
+
+    /**
+     * Gets the packed stats of a stored pet.
+     * @param index The index of the pet
+     * @return The packed stats
+     */
+    public long getPacked(int index) {
+        checkIndex(index);
+        return packed[index];
+    }
+
+    /**
+     * Gets the score of a stored pet.
+     * @param index The index of the pet
+     * @return The score
+     */
+    public int getScore(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    /**
+     * Gets the number of pets in the store.
+     * @return The pet count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the memory held by the store's arrays, including unused capacity.
+     * @return The size of the arrays in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) packed.length * Long.BYTES + (long) scores.length * Integer.BYTES;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+    }
+
+    /**
+     * Reduces a tick count to its phase in the active rules' cycle.
+     */
+    private static int phaseOf(int ticks) {
+        return Math.floorMod(ticks, TickRules.getActive().getCycle());
+    }
+
+    private static int clamp(int stat) {
+        return Math.max(0, Math.min(stat, MAX_STAT));
+    }
+
+    private static int checked(int value, int max, String field) {
+        if (value < 0 || value > max) throw new IllegalArgumentException(field + " " + value + " does not fit in 0.." + max);
+        return value;
+    }
+
+    private void grow(int capacity) {
+        packed = Arrays.copyOf(packed, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+}
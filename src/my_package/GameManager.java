@@ -1,8 +1,9 @@
 package my_package;
 import my_package.Pet;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JOptionPane;
 
 /**
@@ -12,109 +13,354 @@ import javax.swing.JOptionPane;
  */
 public class GameManager {
    Pet pet;
-   private Timer timer;
-   private final int DECREASE_INTERVAL_MS = 1000; // Decrease every 5 second
+   private final Clock clock;
+   private SimulationScheduler.Registration registration;
+   private final AtomicInteger pendingActions = new AtomicInteger(); // Bit per TickRules action waiting for the next tick
+   private final Runnable petTick = this::runPetTick;
+   static final int DECREASE_INTERVAL_MS = 1000; // Decrease every 5 second
+   /** Slowest simulation speed */
+   public static final double MIN_SPEED = 0.5;
+   /** Fastest simulation speed */
+   public static final double MAX_SPEED = 1000;
+   static final long MIN_WAKE_MS = 50; // Faster speeds run several ticks per wake-up instead of waking more often
+   private double speed = 1;
+   private long wakePeriodMs = DECREASE_INTERVAL_MS;
+   private double owedMillis; // Simulation time credited but not ticked yet; under one tick after a wake-up
+   private volatile int generation; // Wake-ups of older registrations, still queued when cancelled, are ignored
+   private long lastWakeMillis;
+   private boolean paused;
+   private long resumeDelayMs; // Part of the current wake-up period left when paused
    
    /**
     * Constructs a new GameManager with the specified pet.
     * @param pet The pet instance to manage
     */
    public GameManager(Pet pet){
+       this(pet, Clock.systemUTC());
+   }
+
+   /**
+    * Constructs a new GameManager reading the time from a given clock.
+    * @param pet The pet instance to manage
+    * @param clock The clock stamping the pet's simulated time, such as a {@link VirtualClock}
+    */
+   public GameManager(Pet pet, Clock clock){
        this.pet = pet;
+       this.clock = clock;
    }
 
    /**
     * Puts the pet to sleep, restoring its sleep to maximum and increasing its score.
+    * @return A future completed once the action has run on the pet's tick thread
     */
-   public void sleepPet(){
-    pet.setSleep(pet.getMaxSleep());
-    pet.setScore(pet.getScore()+1);
+   public CompletableFuture<Void> sleepPet(){
+       return pet.submit(() -> TickRules.getActive().apply(TickRules.SLEEP_ACTION, pet));
    }
 
    /**
     * Takes the pet to the vet, restoring its health to maximum.
     * This action decreases the pet's score as a penalty.
+    * @return A future completed once the action has run on the pet's tick thread
     */
-   public void vetPet(){
-       pet.setHealth(pet.getMaxHealth());
-       pet.setScore(pet.getScore()-10);
-       pet.statLimiter();
+   public CompletableFuture<Void> vetPet(){
+       return pet.submit(() -> TickRules.getActive().apply(TickRules.VET, pet));
    }
 
    /**
     * Allows the pet to play, increasing happiness but decreasing sleep and fullness.
     * This action increases the pet's score.
+    * @return A future completed once the action has run on the pet's tick thread
     */
-   public void playPet(){
-       pet.setHappiness(pet.getHappiness() + 5);
-       pet.setSleep(pet.getSleep() - 2);
-       pet.setFullness(pet.getFullness() - 2);
-       pet.statLimiter();
-       pet.setScore(pet.getScore()+1);
+   public CompletableFuture<Void> playPet(){
+       return pet.submit(() -> TickRules.getActive().apply(TickRules.PLAY, pet));
    }
 
    /**
     * Makes the pet exercise, increasing health but decreasing sleep and fullness.
     * This action increases the pet's score.
+    * @return A future completed once the action has run on the pet's tick thread
     */
-   public void exercisePet(){
-       pet.setHealth(pet.getHealth() + 4);
-       pet.setSleep(pet.getSleep() - 2);
-       pet.setFullness(pet.getFullness() - 2);
-       pet.statLimiter();
-       pet.setScore(pet.getScore()+1);
+   public CompletableFuture<Void> exercisePet(){
+       return pet.submit(() -> TickRules.getActive().apply(TickRules.EXERCISE, pet));
    }
    
+   /**
+    * Requests an action from player input, such as a key press or button click.
+    * Repeats of an action already waiting for the next tick are merged into it, and
+    * requests are ignored while the pet's cooldown from its last action is running.
+    * Holding a key down therefore costs one action per cooldown, not one per key repeat.
+    * The cooldowns are set per action in the rules file and count down with each tick.
+    * @param action The action index, such as {@link TickRules#PLAY}
+    * @return true if the request was queued, false if it was merged or ignored
+    */
+   public boolean requestAction(int action) {
+       int bit = 1 << action;
+       if (pet.getCooldown() > 0) return false;
+       if ((pendingActions.getAndAccumulate(bit, (pending, added) -> pending | added) & bit) != 0) return false;
+       pet.submit(() -> {
+           pendingActions.accumulateAndGet(~bit, (pending, kept) -> pending & kept);
+           if (pet.getCooldown() > 0) return; // Another action started the cooldown first
+           TickRules rules = TickRules.getActive();
+           rules.apply(action, pet);
+           pet.setCooldown(rules.getCooldown(action));
+       });
+       return true;
+   }
+
    /**
     * Starts the periodic gameplay loop that updates pet stats and states.
-    * This method initializes a timer that runs every second to:
-    * - Update pet stats (sleep, happiness, fullness)
-    * - Handle special state effects (asleep, hungry, angry)
-    * - Manage state transitions based on pet conditions
-    * - Update the pet's score
+    * This method registers the pet with the shared simulation scheduler, which runs
+    * {@link #tick()} every second, scaled by the speed, on its fixed thread pool.
+    * A pet in a {@link TransitionQueue} is not registered on its own: the queue is started
+    * instead, if it is not running yet, at this manager's speed, and wakes the pet only when
+    * its state is due to change. The queue is shared by all its pets, so it keeps the speed
+    * of the manager that started it.
     */
-   public void periodicGameplay() {
-        timer=new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            private int tickCount = 0;
-            @Override
-            public void run() {
-                // Tick counter to do certain funcions more/less often
-                tickCount++;
-                // Code to complete pet state requirements
-                if("asleep".equals(pet.getState())){
-                    pet.setSleep(pet.getSleep()+1);
-                }
-                if("hungry".equals(pet.getState()) && tickCount%5==0){
-                    pet.setHappiness(pet.getHappiness() - 2); // Happiness rate of decline is doubled
-                    pet.setHealth(pet.getHealth() - 2);
-                }
-                if (tickCount%5==0){
-                    pet.setScore(pet.getScore()+5);
-                    if(!"asleep".equals(pet.getState()))
-                        pet.setSleep(pet.getSleep() - 4);
-                    pet.setHappiness(pet.getHappiness() - 2);
-                    pet.setFullness(pet.getFullness() - 1);
-                }
-                pet.statLimiter();
-                // If pet does not have a state set as default
-                // If pet has a state check if it is still in that state
-                if ("asleep".equals(pet.getState()) && pet.getSleep()==pet.getMaxSleep())
-                        pet.setState("default");
-                if ("hungry".equals(pet.getState()) && pet.getFullness()>0)
-                        pet.setState("default");
-                if ("angry".equals(pet.getState()) && pet.getHappiness()>(pet.getMaxHappiness()/2))
-                    pet.setState("default");
-                pet.setState();
+   public synchronized void periodicGameplay() {
+        stopPeriodicGameplay(); // Never register the same pet twice
+        TransitionQueue queue = pet.getTransitionQueue();
+        if (queue != null) {
+            queue.start(tickMillis());
+            return;
+        }
+        pet.submit(() -> { // After any wake-up still finishing its ticks
+            pet.stopLazyEvaluation();
+            pet.resetTicks();
+        });
+        owedMillis = 0;
+        lastWakeMillis = clock.millis() - wakePeriodMs; // The first wake-up, straight away, ends a whole period
+        schedule(0);
+        pet.getMailbox().setOwned(true); // Actions now wait for the tick thread
+    }
+
+    /**
+     * Pauses the gameplay loop. Simulation time stops: the pet keeps its decay phase, the
+     * partial tick owed and the part of the current wake-up period that had not elapsed,
+     * and {@link #resume()} carries on from exactly there. Only the pet's registration with
+     * the shared scheduler is cancelled; no thread is stopped or created. A wake-up already
+     * running its ticks finishes them, as they were owed before the pause.
+     * Actions submitted while paused wait for the first tick after resuming.
+     * Does nothing unless the gameplay loop is running.
+     * @throws IllegalStateException if the pet is in a transition queue, which runs all its
+     *         pets together; stop the queue instead with {@link TransitionQueue#stop()}
+     */
+    public synchronized void pause() {
+        rejectQueued("paused on its own");
+        if (registration == null) return;
+        registration.cancel();
+        registration = null;
+        generation++;
+        long elapsed = clock.millis() - lastWakeMillis;
+        resumeDelayMs = Math.max(0, Math.min(wakePeriodMs, wakePeriodMs - elapsed));
+        paused = true;
+    }
+
+    /**
+     * Resumes the gameplay loop where {@link #pause()} stopped it.
+     * Does nothing unless the loop is paused, which a pet in a transition queue never is.
+     */
+    public synchronized void resume() {
+        if (!paused) return;
+        paused = false;
+        long delay = Math.min(resumeDelayMs, wakePeriodMs); // The speed may have changed meanwhile
+        lastWakeMillis = clock.millis() - (wakePeriodMs - delay); // The part before the pause counts as elapsed
+        schedule(delay);
+    }
+
+    /**
+     * Checks whether the gameplay loop is paused.
+     * @return true between {@link #pause()} and {@link #resume()}
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Gets the part of the wake-up period that was left when the loop was paused.
+     * @return The delay before the first wake-up after resuming, in milliseconds
+     */
+    synchronized long getResumeDelayMs() {
+        return resumeDelayMs;
+    }
+
+    /**
+     * Registers the next run of wake-ups with the shared scheduler.
+     * @param delayMs The time before the first wake-up in milliseconds
+     */
+    private void schedule(long delayMs) {
+        int scheduled = ++generation;
+        registration = SimulationScheduler.getInstance().register(periods -> wake(scheduled, periods), delayMs, wakePeriodMs);
+    }
+
+    /**
+     * Sets how fast simulation time runs compared to real time. At 10x, for example, the
+     * pet ticks ten times a second. Above {@value #MIN_WAKE_MS} ms per tick the scheduler
+     * still wakes the pet at most every {@value #MIN_WAKE_MS} ms, and each wake-up runs
+     * all the ticks owed since the last one, so no tick is ever skipped. Listeners still
+     * hear about every tick.
+     * The change applies at once, also while the gameplay loop is running: the part of the
+     * current wake-up period that has elapsed carries over, as across {@link #pause()} and
+     * {@link #resume()}, so the next wake-up comes after the rest of the period at the new
+     * speed and the simulation time before the change is credited at the old speed.
+     * A pet in a transition queue runs at its queue's speed: set the speed before
+     * {@link #periodicGameplay()} starts the queue.
+     * @param speed The speed multiplier, {@link #MIN_SPEED} to {@link #MAX_SPEED}
+     * @throws IllegalStateException if the pet's transition queue is already running
+     */
+    public synchronized void setSpeed(double speed) {
+        if (!(speed >= MIN_SPEED && speed <= MAX_SPEED)) {
+            throw new IllegalArgumentException("Speed must be between " + MIN_SPEED + " and " + MAX_SPEED + ": " + speed);
+        }
+        TransitionQueue queue = pet.getTransitionQueue();
+        if (queue != null && queue.isRunning()) rejectQueued("sped up on its own while its queue runs");
+        double oldSpeed = this.speed;
+        long oldPeriodMs = this.wakePeriodMs;
+        this.speed = speed;
+        this.wakePeriodMs = Math.max(MIN_WAKE_MS, Math.round(DECREASE_INTERVAL_MS / speed));
+        if (registration != null) {
+            // Same shared threads, new period, picking up from the same point of the period
+            long now = clock.millis();
+            double elapsed = Math.max(0, Math.min(1, (now - lastWakeMillis) / (double) oldPeriodMs));
+            long delay = Math.round(wakePeriodMs * (1 - elapsed));
+            long counted = wakePeriodMs - delay; // Part of the new period taken as already elapsed
+            // The next wake-up credits a whole new period; settle the part before the change at the old speed
+            owedMillis += elapsed * oldPeriodMs * oldSpeed - counted * speed;
+            lastWakeMillis = now - counted;
+            registration.cancel();
+            schedule(delay);
+        }
+    }
+
+    /**
+     * Gets how fast simulation time runs compared to real time.
+     * @return The speed multiplier, 1 for real time
+     */
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Gets the time between two wake-ups of the gameplay loop at the current speed.
+     * @return The wake-up period in milliseconds
+     */
+    synchronized long getWakePeriodMs() {
+        return wakePeriodMs;
+    }
+
+    /**
+     * Runs on each wake-up of the gameplay loop: credits one wake-up period of simulation
+     * time at the current speed, and runs every whole tick owed in one go.
+     * The scheduler runs at a fixed rate, so late wake-ups are made up as its
+     * {@link SimulationScheduler.CatchUp} policy says: run back to back, folded into one
+     * multi-tick step, or skipped.
+     */
+    void wake() {
+        wake(generation, 1);
+    }
+
+    /**
+     * Runs a wake-up covering one or more periods, as folded by the scheduler's catch-up policy.
+     * The ticks owed are worked out under the manager's lock, but run after releasing it:
+     * the pet's listeners run with the ticks and may take their time, and must never hold
+     * up {@link #pause()}, {@link #setSpeed(double)} or {@link #stopPeriodicGameplay()}.
+     */
+    private void wake(int scheduled, int periods) {
+        int count;
+        synchronized (this) {
+            if (scheduled != generation) return; // Cancelled while waiting for the lock
+            lastWakeMillis = clock.millis();
+            owedMillis += (double) periods * wakePeriodMs * speed;
+            count = (int) (owedMillis / DECREASE_INTERVAL_MS);
+            if (count == 0) return;
+            owedMillis -= (double) count * DECREASE_INTERVAL_MS;
+        }
+        tick(count);
+    }
+
+    /**
+     * Runs one gameplay tick:
+     * - Update pet stats (sleep, happiness, fullness)
+     * - Handle special state effects (asleep, hungry, angry)
+     * - Manage state transitions based on pet conditions
+     * - Update the pet's score
+     * The rules are the active {@link TickRules}, loaded from the rules file.
+     * Actions submitted since the last tick run first, on the same thread.
+     */
+    void tick() {
+        pet.getMailbox().runTick(petTick);
+    }
+
+    /**
+     * Runs several gameplay ticks in a row, as one turn of the tick thread. Actions
+     * submitted since the last tick run before the first of them.
+     * @param count The number of ticks to run
+     */
+    void tick(int count) {
+        if (count == 1) {
+            tick();
+            return;
+        }
+        pet.getMailbox().runTick(() -> {
+            for (int i = 0; i < count; i++) {
+                runPetTick();
             }
-        }, 0, DECREASE_INTERVAL_MS);
+        });
+    }
+
+    private void runPetTick() {
+        pet.beginBatch(); // Snapshots see the tick and its time together
+        pet.runTick();
+        pet.setLastSimulated(clock.millis()); // Saved so loading can fast-forward
+        pet.endBatch();
+    }
+
+    /**
+     * Keeps the pet's simulation going in the background without ticking it.
+     * The pet is unregistered from the scheduler and switched to lazy evaluation, so its
+     * stats are worked out from the elapsed time whenever they are read.
+     * Calling {@link #periodicGameplay()} brings the pet back to the foreground.
+     */
+    public synchronized void backgroundGameplay() {
+        stopPeriodicGameplay();
+        if (pet.getTransitionQueue() != null) return; // The queue already simulates the pet without ticking it
+        long tickMillis = tickMillis();
+        pet.submit(() -> pet.startLazyEvaluation(clock::millis, tickMillis)); // After any wake-up still finishing its ticks
+    }
+
+    /**
+     * Gets the time one tick takes at the current speed, for pets simulated without the
+     * wake-up loop: lazily or by a transition queue.
+     * @return The tick length in milliseconds, at least 1
+     */
+    private long tickMillis() {
+        return Math.max(1, Math.round(DECREASE_INTERVAL_MS / speed));
+    }
+
+    /**
+     * Throws if the pet is in a transition queue, whose pets are paced together.
+     * @param what What was asked of the pet, for the message
+     */
+    private void rejectQueued(String what) {
+        if (pet.getTransitionQueue() != null) {
+            throw new IllegalStateException("A pet in a transition queue cannot be " + what + ": " + pet.getName());
+        }
     }
 
     /**
-     * Stops the periodic gameplay loop by canceling the timer.
+     * Stops the periodic gameplay loop by unregistering the pet from the scheduler.
      * This should be called when the game is being closed or paused.
+     * A wake-up already running its ticks finishes them without holding up this call;
+     * change the pet through {@link Pet#submit(Runnable)} to run after them.
+     * The transition queue of a queued pet keeps running for all its pets; stop it with
+     * {@link TransitionQueue#stop()}.
      */
-    public void stopPeriodicGameplay(){
-        timer.cancel();
+    public synchronized void stopPeriodicGameplay(){
+        paused = false;
+        if (registration != null) {
+            registration.cancel();
+            registration = null;
+            generation++;
+        }
+        pet.getMailbox().setOwned(false); // Actions run straight away again
     }
 }
@@ -0,0 +1,200 @@
+package my_package;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Runs pets without a window, a wall clock or any other outside input, so that the same
+ * seed always gives bit-identical results.
+ * Time comes from a {@link VirtualClock} that moves one tick at a time, so a simulated week
+ * takes as long as the CPU needs to run it. Randomness comes from one seeded
+ * {@link SplittableRandom}, split into a stream per pet; adding a pet never changes what
+ * the others roll. Each tick, a simulated player may request a random action on each pet,
+ * and pets earn random rewards at the same scores as in the game.
+ * Nothing is saved: the kernel is meant for benchmarks, balancing and regression tests.
+ */
+public class HeadlessSimulation {
+    private final VirtualClock clock;
+    private final SplittableRandom random;
+    private final long tickMillis;
+    private final List<SimulatedPet> pets = new ArrayList<>();
+    private double actionChance;
+    private long ticks;
+
+    /**
+     * Constructs a simulation with the game's tick interval.
+     * @param seed The seed of every random roll
+     * @param startMillis The time the virtual clock starts at, in milliseconds since the epoch
+     */
+    public HeadlessSimulation(long seed, long startMillis) {
+        this(seed, startMillis, GameManager.DECREASE_INTERVAL_MS);
+    }
+
+    /**
+     * Constructs a simulation.
+     * @param seed The seed of every random roll
+     * @param startMillis The time the virtual clock starts at, in milliseconds since the epoch
+     * @param tickMillis The virtual time between two ticks in milliseconds
+     */
+    public HeadlessSimulation(long seed, long startMillis, long tickMillis) {
+        if (tickMillis < 1) throw new IllegalArgumentException("Tick interval must be at least 1 ms: " + tickMillis);
+        this.clock = new VirtualClock(startMillis, ZoneOffset.UTC);
+        this.random = new SplittableRandom(seed);
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Adds a new pet to the simulation.
+     * @param name The name of the pet
+     * @param type The species name (cat, fox, owl...)
+     * @return The index of the pet in the simulation
+     */
+    public int addPet(String name, String type) {
+        Pet pet = new Pet(name, type);
+        pet.resetTicks();
+        pets.add(new SimulatedPet(pet, new GameManager(pet, clock), random.split()));
+        return pets.size() - 1;
+    }
+
+    /**
+     * Sets how often the simulated player acts. Each tick, each pet gets a request for a
+     * random action with this chance; requests during a cooldown are ignored, as in the game.
+     * @param chance The chance per pet and tick, 0 for no player
+     */
+    public void setActionChance(double chance) {
+        if (chance < 0 || chance > 1) throw new IllegalArgumentException("Chance must be between 0 and 1: " + chance);
+        this.actionChance = chance;
+    }
+
+    /**
+     * Runs one tick: moves the clock, takes the player's actions and ticks every pet.
+     */
+    public void tick() {
+        clock.advance(tickMillis);
+        for (SimulatedPet simulated : pets) {
+            simulated.tick(actionChance);
+        }
+        ticks++;
+    }
+
+    /**
+     * Runs the ticks that fit in a span of virtual time.
+     * @param duration The virtual time to simulate
+     */
+    public void run(Duration duration) {
+        long count = duration.toMillis() / tickMillis;
+        for (long i = 0; i < count; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Gets the virtual clock, for example to build an {@link AccessManager} on it.
+     * @return The simulation's clock
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Gets the number of ticks run so far.
+     * @return The tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of pets in the simulation.
+     * @return The pet count
+     */
+    public int size() {
+        return pets.size();
+    }
+
+    /**
+     * Gets a pet of the simulation.
+     * @param index The index of the pet
+     * @return The pet
+     */
+    public Pet getPet(int index) {
+        return pets.get(index).pet;
+    }
+
+    /**
+     * Gets the game manager of a pet, to request actions on it between ticks.
+     * @param index The index of the pet
+     * @return The pet's game manager
+     */
+    public GameManager getGameManager(int index) {
+        return pets.get(index).gameManager;
+    }
+
+    /**
+     * Gets the number of rewards a pet has earned, of each kind.
+     * @param index The index of the pet
+     * @return The reward counts, indexed as rolled by {@link InventoryManager#rollReward}
+     */
+    public int[] getRewards(int index) {
+        return pets.get(index).rewards.clone();
+    }
+
+    /**
+     * Hashes the full state of the simulation, to check that two runs are identical.
+     * @return A hash of the clock, and every pet's stats, state, cooldown and rewards
+     */
+    public long fingerprint() {
+        long hash = clock.millis();
+        for (SimulatedPet simulated : pets) {
+            Pet pet = simulated.pet;
+            int[] values = {pet.getHealth(), pet.getHappiness(), pet.getFullness(), pet.getSleep(),
+                    pet.getScore(), pet.getPetState().ordinal(), pet.getCooldown()};
+            for (int value : values) {
+                hash = hash * 31 + value;
+            }
+            for (int count : simulated.rewards) {
+                hash = hash * 31 + count;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * A pet, its manager and its own stream of random rolls.
+     */
+    private static final class SimulatedPet {
+        private final Pet pet;
+        private final GameManager gameManager;
+        private final SplittableRandom random;
+        private final int[] rewards = new int[6];
+        private int lastScore;
+
+        private SimulatedPet(Pet pet, GameManager gameManager, SplittableRandom random) {
+            this.pet = pet;
+            this.gameManager = gameManager;
+            this.random = random;
+            this.lastScore = pet.getScore();
+        }
+
+        private void tick(double actionChance) {
+            // Always roll both numbers, so the stream stays in step whatever the chance
+            double roll = random.nextDouble();
+            int action = random.nextInt(TickRules.ACTION_COUNT);
+            if (roll < actionChance && gameManager.requestAction(action)) checkReward();
+            gameManager.tick();
+            checkReward();
+        }
+
+        private void checkReward() {
+            int score = pet.getScore();
+            // The game rewards the player whenever a score change lands on a multiple of the interval
+            if (score != lastScore && score % InventoryManager.REWARD_INTERVAL == 0) {
+                rewards[InventoryManager.rollReward(random)]++;
+            }
+            lastScore = score;
+        }
+    }
+}
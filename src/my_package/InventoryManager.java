@@ -3,6 +3,10 @@ package my_package;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Manages the inventory system for a virtual pet, handling both food and gift items.
@@ -10,12 +14,30 @@ import java.util.ArrayList;
  * It includes persistent storage using JSON files for both food and gift inventories.
  */
 public class InventoryManager {
+    /** The player gets a random item every time the score reaches a multiple of this */
+    public static final int REWARD_INTERVAL = 25;
     private Pet pet;
     private Food[] foodItems = new Food[6]; // Holds food items
     private Gift[] giftItems = new Gift[6]; // Holds gift items
     private static final String FOOD_FILE = "src/my_package/assets/data/foodInventory.json";
     private static final String GIFT_FILE = "src/my_package/assets/data/giftInventory.json";
     private final ObjectMapper mapper = new ObjectMapper(); // Jackson ObjectMapper
+    // Writes the inventory files off the scheduler and the EDT; one thread keeps the writes in order
+    private static final ExecutorService SAVER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "inventory-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Copies waiting for the queued save, or null when that file is unchanged; guarded by this
+    private Food[] foodToSave;
+    private Gift[] giftToSave;
+    private int foodVersion; // Bumped on every copy taken to save; guarded by this
+    private int giftVersion;
+    private boolean savePending; // A save is queued on SAVER; guarded by this
+    // Versions of the copies on disk, so a queued save never overwrites a newer one
+    private final Object fileLock = new Object();
+    private int foodWritten;
+    private int giftWritten;
 
     /**
      * Constructs a new InventoryManager for the specified pet.
@@ -33,7 +55,7 @@ public class InventoryManager {
      * @param food The food item to add to the inventory
      * @return true if the food was successfully added, false if no empty slots are available
      */
-    public boolean addFood(Food food) {
+    public synchronized boolean addFood(Food food) {
         for (int i = 0; i < foodItems.length; i++) {
             if (foodItems[i] == null) { // Check for empty slot
                 foodItems[i] = food; // Add food to the empty slot
@@ -44,11 +66,36 @@ public class InventoryManager {
         return false; // No empty slot available
     }
 
+    /**
+     * Rolls a random reward: a food or a gift with equal odds, of a random type.
+     * @param random The random source; a seeded one gives the same rewards on every run
+     * @return The reward: 0 to 2 for the food of that index, 3 to 5 for the gift of index minus 3
+     */
+    public static int rollReward(SplittableRandom random) {
+        int kind = random.nextInt(2); // 0 for food, 1 for gift
+        return kind * 3 + random.nextInt(3);
+    }
+
+    /**
+     * Rolls a random reward and adds it to the inventory if there is room for it.
+     * @param random The random source; a seeded one gives the same rewards on every run
+     * @return The type of the item received, or null if its inventory was full
+     */
+    public String addReward(SplittableRandom random) {
+        int reward = rollReward(random);
+        if (reward < 3) {
+            Food food = new Food(reward);
+            return addFood(food) ? food.getType() : null;
+        }
+        Gift gift = new Gift(reward - 3);
+        return addGift(gift) ? gift.getType() : null;
+    }
+
     /**
      * Removes a food item from the specified index in the inventory.
      * @param index The index of the food item to remove (0-5)
      */
-    public void removeFood(int index) {
+    public synchronized void removeFood(int index) {
         foodItems[index] = null; // Make the slot empty
         saveFoodInventory(); // Save immediately after removing
     }
@@ -58,7 +105,7 @@ public class InventoryManager {
      * @param gift The gift item to add to the inventory
      * @return true if the gift was successfully added, false if no empty slots are available
      */
-    public boolean addGift(Gift gift) {
+    public synchronized boolean addGift(Gift gift) {
         for (int i = 0; i < giftItems.length; i++) {
             if (giftItems[i] == null) { // Check for empty slot
                 giftItems[i] = gift; // Add gift to the empty slot
@@ -73,7 +120,7 @@ public class InventoryManager {
      * Removes a gift item from the specified index in the inventory.
      * @param index The index of the gift item to remove (0-5)
      */
-    public void removeGift(int index) {
+    public synchronized void removeGift(int index) {
         giftItems[index] = null; // Make the slot empty
         saveGiftInventory(); // Save immediately after removing
     }
@@ -82,28 +129,48 @@ public class InventoryManager {
      * Gives food to the pet from the specified inventory slot and updates the pet's fullness.
      * The food item is removed from the inventory after being given.
      * @param index The index of the food item to give (0-5)
+     * @return A future completed once the pet has eaten
      */
-    public void giveFood(int index) {
-        Food food = foodItems[index];
-        if (food != null) {
-            pet.setFullness(pet.getFullness() + food.getRating()); // Update pet's fullness based on food rating
+    public CompletableFuture<Void> giveFood(int index) {
+        Food food;
+        synchronized (this) {
+            food = foodItems[index];
+            if (food == null) return CompletableFuture.completedFuture(null);
             foodItems[index] = null; // Remove food from inventory
-            saveFoodInventory(); // Save immediately after removing
+            foodToSave = foodItems.clone();
+            foodVersion++;
+            saveLater();
         }
+        // Update pet's fullness based on food rating, on the thread that owns the pet
+        return pet.submit(() -> {
+            pet.setFullness(pet.getFullness() + food.getRating());
+            PetEventLog log = pet.getEventLog();
+            if (log != null) log.feed(food.getRating());
+        });
     }
 
     /**
      * Gives a gift to the pet from the specified inventory slot and updates the pet's happiness.
      * The gift item is removed from the inventory after being given.
      * @param index The index of the gift item to give (0-5)
+     * @return A future completed once the pet has received the gift
      */
-    public void giveGift(int index) {
-        Gift gift = giftItems[index];
-        if (gift != null) {
-            pet.setHappiness(pet.getHappiness() + gift.getRating()); // Update pet's happiness based on gift rating
+    public CompletableFuture<Void> giveGift(int index) {
+        Gift gift;
+        synchronized (this) {
+            gift = giftItems[index];
+            if (gift == null) return CompletableFuture.completedFuture(null);
             giftItems[index] = null; // Remove gift from inventory
-            saveGiftInventory(); // Save immediately after removing
+            giftToSave = giftItems.clone();
+            giftVersion++;
+            saveLater();
         }
+        // Update pet's happiness based on gift rating, on the thread that owns the pet
+        return pet.submit(() -> {
+            pet.setHappiness(pet.getHappiness() + gift.getRating());
+            PetEventLog log = pet.getEventLog();
+            if (log != null) log.gift(gift.getRating());
+        });
     }
 
     /**
@@ -111,7 +178,7 @@ public class InventoryManager {
      * @param index The index to check (0-5)
      * @return true if the slot is empty, false otherwise
      */
-    public boolean isFoodSlotEmpty(int index) {
+    public synchronized boolean isFoodSlotEmpty(int index) {
         return foodItems[index] == null; // Check if the item at the index is null
     }
 
@@ -120,7 +187,7 @@ public class InventoryManager {
      * @param index The index to check (0-5)
      * @return true if the slot is empty, false otherwise
      */
-    public boolean isGiftSlotEmpty(int index) {
+    public synchronized boolean isGiftSlotEmpty(int index) {
         return giftItems[index] == null; // Check if the item at the index is null
     }
     
@@ -129,7 +196,7 @@ public class InventoryManager {
      * @param index The index of the food item (0-5)
      * @return The type of the food item at the specified index
      */
-    public String getFoodTypeAtIndex(int index) {
+    public synchronized String getFoodTypeAtIndex(int index) {
         return foodItems[index].getType(); // Assuming Food has
     }
 
@@ -138,7 +205,7 @@ public class InventoryManager {
      * @param index The index of the gift item (0-5)
      * @return The type of the gift item at the specified index
      */
-    public String getGiftTypeAtIndex(int index) {
+    public synchronized String getGiftTypeAtIndex(int index) {
         return giftItems[index].getType(); // Assuming Gift has a getType() method
     } 
             
@@ -168,15 +235,51 @@ public class InventoryManager {
         }
     }
 
+    /**
+     * Queues one save of the changed inventories on the saver thread, so the blocking write
+     * runs neither on the EDT nor on the pets' scheduler. The save writes the latest copies
+     * taken under the lock, so a burst of feeding rewrites each file at most once and the
+     * saver never reads the live arrays. Must be called while holding this object's lock.
+     */
+    private void saveLater() {
+        if (savePending) return;
+        savePending = true;
+        SAVER.execute(() -> {
+            Food[] food;
+            Gift[] gifts;
+            int foodAt;
+            int giftAt;
+            synchronized (this) {
+                savePending = false;
+                food = foodToSave;
+                gifts = giftToSave;
+                foodAt = foodVersion;
+                giftAt = giftVersion;
+                foodToSave = null;
+                giftToSave = null;
+            }
+            if (food != null) writeFood(food, foodAt);
+            if (gifts != null) writeGifts(gifts, giftAt);
+        });
+    }
+
     /**
      * Saves the current food inventory to the JSON file.
      * If there's an error saving the file, it will be printed to the error stream.
      */
-    public void saveFoodInventory(){
-        try{
-            mapper.writeValue(new File(FOOD_FILE), foodItems);
-        }catch(Exception e){
-            System.err.println(e);
+    public synchronized void saveFoodInventory(){
+        writeFood(foodItems.clone(), ++foodVersion);
+    }
+
+    private void writeFood(Food[] items, int version) {
+        synchronized (fileLock) {
+            if (version <= foodWritten) return; // A newer copy is already on disk
+            foodWritten = version;
+            try{
+                mapper.writeValue(new File(FOOD_FILE), items);
+            }catch(Exception e){
+                System.err.println(e);
+            }
         }
     }
 
@@ -184,11 +287,19 @@ public class InventoryManager {
      * Saves the current gift inventory to the JSON file.
      * If there's an error saving the file, it will be printed to the console.
      */
-    private void saveGiftInventory() {
-        try {
-            mapper.writeValue(new File(GIFT_FILE), giftItems);
-        } catch (IOException e) {
-            e.printStackTrace();
+    private synchronized void saveGiftInventory() {
+        writeGifts(giftItems.clone(), ++giftVersion);
+    }
+
+    private void writeGifts(Gift[] items, int version) {
+        synchronized (fileLock) {
+            if (version <= giftWritten) return; // A newer copy is already on disk
+            giftWritten = version;
+            try {
+                mapper.writeValue(new File(GIFT_FILE), items);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package my_package;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations, such as how late ticks run, in a fixed set of buckets so that
+ * percentiles can be read at any time while other threads keep recording.
+ * Buckets are log-linear: every power of two is split into 8 equal buckets, so a
+ * percentile is reported to within 12.5% of the true value, from nanoseconds to days,
+ * with a fixed 4 KB of counters. Recording takes no locks and allocates nothing.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3; // 8 buckets per power of two
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_COUNT; // Values below this have a bucket each
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     * @param nanos The duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        total.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     * @return The count
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * Gets the longest duration recorded.
+     * @return The maximum in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the durations recorded.
+     * @return The mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Gets a percentile of the durations recorded.
+     * @param percentile The percentile, 0 to 100
+     * @return The upper end of the bucket holding the percentile, in nanoseconds, never more
+     *         than the maximum; 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(upperBound(i), max.get());
+        }
+        return 0;
+    }
+
+    /**
+     * Clears every count.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Summarizes the histogram in milliseconds.
+     * @return The count, mean, median, 99th and 99.9th percentiles and maximum
+     */
+    @Override
+    public String toString() {
+        return String.format("count %d, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                getCount(), getMean() / 1e6, getPercentile(50) / 1e6, getPercentile(99) / 1e6,
+                getPercentile(99.9) / 1e6, getMax() / 1e6);
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int exponent = (bucket - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        int sub = (bucket - LINEAR) % SUB_COUNT;
+        long lower = (long) (SUB_COUNT + sub) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -1,25 +1,50 @@
 package my_package;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
 
 /**
  * Represents a virtual pet with various attributes like health, happiness, and fullness.
+ * The stats live in one row of a {@link PetStatTable}; a pet created on its own gets a
+ * private single-row table.
+ * Whenever a tick, action or batch of changes completes, the stats are also copied into a
+ * set of fields guarded by a sequence counter. {@link #snapshot()} reads that copy without
+ * blocking the tick thread, retrying if a tick copied new stats while it was reading, so
+ * other threads never see a mix of stats from before and after a tick. Reading a snapshot
+ * never changes the pet.
  * @author Oizedon
  */
 public class Pet {
     private String type;
-    private final int[][] stats={ {50, 50, 50, 50}, {50, 75, 100, 75}, {75, 100, 75, 50}, {100, 50, 75, 100} };
+    private Species species; // Shared max stats of the pet's type
     private String name;
-    private int health;
-    private int happiness;
-    private int fullness;
-    private int sleep;
-    private int cooldown;
-    private String state;
-    private int score;
-    private PropertyChangeSupport changes = new PropertyChangeSupport(this);
+    private String id = UUID.randomUUID().toString(); // Kept in the save file; names the pet's event log
+    private final PetStatTable table;
+    private final int row;
+    private final ActionMailbox mailbox = new ActionMailbox(); // Serializes actions with the tick thread
+    private volatile Subscription[] listeners = new Subscription[0]; // Copied on write, so ticks never lock
+    private int batchDepth; // Changes are published when the outermost batch ends
+    // Values last published to the listeners, compared with the row to find what changed
+    private int publishedHealth, publishedHappiness, publishedFullness, publishedSleep, publishedScore, publishedState;
+    // Stats as of the last completed change, written under the sequence counter
+    private final StampedLock sequence = new StampedLock();
+    private int recordedHealth, recordedHappiness, recordedFullness, recordedSleep, recordedScore, recordedState,
+            recordedCooldown, recordedTicks;
+    private long recordedLastSimulated, recordedSyncedAt;
+    private volatile LongSupplier lazyClock; // Set while the pet is evaluated lazily
+    private long lazyTickMillis;
+    private volatile long lastSimulated; // Time in milliseconds the stats were last simulated up to, 0 if unknown
+    private final Object catchUpLock = new Object(); // Readers catching up a lazy pet take turns
+    private final Object rowLock = new Object(); // Held while changing the row, unless a transition queue owns it
+    private TransitionQueue transitionQueue; // Set while the pet is simulated event by event
+    private PetEventLog eventLog; // Set while the pet's changes are logged
+    private volatile PetHistory history; // Set while every tick is recorded; each version is immutable
 
     /**
      * Constructs a new Pet with the specified attributes.
@@ -28,43 +53,47 @@ public class Pet {
      */
     public Pet(String name, String type) {
         this.type = type;
-        
         this.name = name;
-        this.health = stats[typeToInt(this.type)][0];
-        this.happiness = stats[typeToInt(this.type)][1];
-        this.fullness = stats[typeToInt(this.type)][2];
-        this.sleep = stats[typeToInt(this.type)][3];
-        this.cooldown = 0;
-        this.state = "default";
-        this.score=0;
+        this.table = new PetStatTable(1);
+        this.row = table.addRow(type);
+        this.species = table.getSpecies(row);
+        record();
     }
     
     /**
      * Default constructor for Jackson 
      */
     public Pet() {
-        // Default values
-        this.name = null;
-        this.type = null;
-        this.health = stats[typeToInt(this.type)][0];
-        this.happiness = stats[typeToInt(this.type)][1];
-        this.fullness = stats[typeToInt(this.type)][2];
-        this.sleep = stats[typeToInt(this.type)][3];
-        this.cooldown = 0;
-        this.state = "default";
-        this.score=0;
+        this(null, null);
     }
+
+    /**
+     * Constructs a Pet that is a view over an existing row of a stat table.
+     * @param name The name of the pet
+     * @param table The table holding the pet's stats
+     * @param row The row of the pet in the table
+     */
+    public Pet(String name, PetStatTable table, int row) {
+        this.type = table.getType(row);
+        this.name = name;
+        this.table = table;
+        this.row = row;
+        this.species = table.getSpecies(row);
+        record();
+    }
+
     /**
      * Revives the pet, sets all stats to max.
      * 
      */
     public void revivePet(){
-        this.health = stats[typeToInt(this.type)][0];
-        this.happiness = stats[typeToInt(this.type)][1];
-        this.fullness = stats[typeToInt(this.type)][2];
-        this.sleep = stats[typeToInt(this.type)][3];
-        this.cooldown = 0;
-        this.state = "default";
+        synchronized (rowLock()) {
+            catchUp();
+            table.reset(row);
+            rescheduled();
+        }
+        if (eventLog != null) eventLog.revive();
+        publish();
     }
     
     /**
@@ -80,7 +109,8 @@ public class Pet {
      * @return The pet's health value
      */
     public int getHealth() {
-        return health;
+        catchUp();
+        return table.health[row];
     }
     
     /**
@@ -88,7 +118,8 @@ public class Pet {
      * @return The pet's happiness value
      */
     public int getHappiness() {
-        return happiness;
+        catchUp();
+        return table.happiness[row];
     }
     
     /**
@@ -96,7 +127,8 @@ public class Pet {
      * @return The pet's fullness value
      */
     public int getFullness() {
-        return fullness;
+        catchUp();
+        return table.fullness[row];
     }
     
     /**
@@ -104,15 +136,18 @@ public class Pet {
      * @return The pet's sleep value
      */
     public int getSleep() {
-        return sleep;
+        catchUp();
+        return table.sleep[row];
     }
     
     /**
-     * Gets the cooldown value of the pet.
+     * Gets the cooldown value of the pet: the number of ticks before it accepts another
+     * action requested through {@link GameManager#requestAction(int)}.
      * @return The pet's cooldown value
      */
     public int getCooldown() {
-        return cooldown;
+        catchUp();
+        return table.cooldown[row];
     }
     
     /**
@@ -120,7 +155,27 @@ public class Pet {
      * @return The pet's current state
      */
     public String getState() {
-        return state;
+        return getPetState().getName();
+    }
+
+    /**
+     * Gets the current state of the pet as a state machine value.
+     * @return The pet's current state
+     */
+    @JsonIgnore
+    public PetState getPetState() {
+        catchUp();
+        return PetState.fromCode(table.state[row]);
+    }
+
+    /**
+     * Gets the resource path of the pet's sprite for its current state and type.
+     * @param frame The animation frame, 0 or 1
+     * @return The sprite path, the same String instance every time
+     */
+    @JsonIgnore
+    public String getSpritePath(int frame) {
+        return getPetState().getSpritePath(species.getIndex(), frame);
     }
     /**
      * Gets the current type of the pet.
@@ -134,7 +189,26 @@ public class Pet {
      * @return This saves score
      */
     public int getScore(){
-        return score;
+        catchUp();
+        return table.score[row];
+    }
+
+    /**
+     * Gets the stable id of the pet. Unlike the name it is unique, and it stays the same
+     * whichever save slot the pet is in.
+     * @return The pet's id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the pet, as read from its save file. Pets saved before they had an id
+     * keep the one they were given when loaded.
+     * @param id The id, or null to keep the current one
+     */
+    public void setId(String id) {
+        if (id != null) this.id = id;
     }
 
     /**
@@ -150,15 +224,19 @@ public class Pet {
      */
     public void setType(String type){
         this.type = type;
+        synchronized (rowLock()) {
+            table.setType(row, type);
+            this.species = table.getSpecies(row);
+            rescheduled();
+        }
+        publish();
     }
     /**
      * Sets the health value of the pet.
      * @param health The new health value to set
      */
     public void setHealth(int health) {
-        int oldValue = this.health;
-        this.health = health;
-        changes.firePropertyChange("health", oldValue, health);
+        write(table.health, health);
     }
     
     /**
@@ -166,9 +244,7 @@ public class Pet {
      * @param happiness The new happiness value to set
      */
     public void setHappiness(int happiness) {
-        int oldValue = this.happiness;
-        this.happiness = happiness;
-        changes.firePropertyChange("happiness", oldValue, happiness);
+        write(table.happiness, happiness);
     }
     
     /**
@@ -176,9 +252,7 @@ public class Pet {
      * @param fullness The new fullness value to set
      */
     public void setFullness(int fullness) {
-        int oldValue = this.fullness;
-        this.fullness = fullness;
-        changes.firePropertyChange("fullness", oldValue, fullness);
+        write(table.fullness, fullness);
     }
     
     /**
@@ -186,9 +260,7 @@ public class Pet {
      * @param sleep The new sleep value to set
      */
     public void setSleep(int sleep) {
-        int oldValue = this.sleep;
-        this.sleep = sleep;
-        changes.firePropertyChange("sleep", oldValue, sleep);
+        write(table.sleep, sleep);
     }
     
     /**
@@ -196,9 +268,7 @@ public class Pet {
      * @param score integer score value
      */
     public void setScore(int score) {
-        int oldValue=this.score;
-        this.score = score;
-        changes.firePropertyChange("score", oldValue, score);
+        write(table.score, score);
     }
     
     /**
@@ -206,9 +276,16 @@ public class Pet {
      * @param state The new state to set
      */
     public void setState(String state) {
-        String oldValue = this.state;
-        this.state = state;
-        changes.firePropertyChange("state", oldValue, state);
+        setPetState(PetState.fromName(state));
+    }
+
+    /**
+     * Sets the state of the pet as a state machine value.
+     * The change event carries the state names, as saved in the pet files.
+     * @param state The new state to set
+     */
+    public void setPetState(PetState state) {
+        write(table.state, state.ordinal());
     }
     
     /**
@@ -216,32 +293,507 @@ public class Pet {
      * @param cooldown The new cool down value to set
      */
     public void setCooldown(int cooldown) {
-        this.cooldown = cooldown;
+        if (eventLog != null) eventLog.cooldown(cooldown);
+        write(table.cooldown, cooldown); // After the ticks owed, which count the old cooldown down
     }
     
     /**
-     * Sets the state of the pet based on stats. 
+     * Sets the state of the pet based on stats, following the {@link PetState} transition table.
      * 
      */
     public void setState() {
-        if ("default".equals(this.getState())){
-            if (this.sleep<1){
-                this.setState("asleep");
-                this.health=this.health-15;
+        beginBatch(); // The sleep penalty is reported with the state change
+        PetState state = this.getPetState();
+        PetState next = state;
+        if (this.getSleep()<1) next = state.next(PetState.Trigger.EXHAUSTED);
+        else if (this.getFullness()<1) next = state.next(PetState.Trigger.STARVED);
+        else if (this.getHappiness()<1) next = state.next(PetState.Trigger.UPSET);
+        if (next != state) {
+            this.setPetState(next);
+            if (next == PetState.ASLEEP) this.setHealth(this.getHealth()-15);
+        }
+        if (this.getHealth()<1) this.setPetState(this.getPetState().next(PetState.Trigger.DIED));
+        endBatch();
+    }
+
+    /**
+     * Runs one tick of the active {@link TickRules} on the pet's row and notifies the
+     * listeners once with everything the tick changed.
+     */
+    void runTick() {
+        catchUp();
+        if (table.cooldown[row] > 0) table.cooldown[row]--; // Actions are accepted again at 0
+        TickRules.getActive().tick(table, row, row + 1);
+        if (eventLog != null) eventLog.ticks(1);
+        PetHistory recording = history; // Read once, as stopHistory() may clear it meanwhile
+        if (recording != null) history = recording.append(historyFields());
+        publish();
+    }
+
+    /**
+     * Submits an action on the pet. Actions never run at the same time as a tick: while the
+     * pet is ticking they wait for the start of the next tick. The actions of a pet in a
+     * transition queue go through the queue's mailbox instead, and wait for its next wake-up
+     * while it runs.
+     * @param action The action to run
+     * @return A future completed once the action has run
+     */
+    public CompletableFuture<Void> submit(Runnable action) {
+        TransitionQueue queue = transitionQueue;
+        return (queue != null ? queue.getMailbox() : mailbox).submit(action);
+    }
+
+    /**
+     * Gets the queue of actions waiting to run on the pet.
+     * @return The pet's mailbox
+     */
+    @JsonIgnore
+    public ActionMailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Starts a batch of changes. Listeners are not notified until the matching
+     * {@link #endBatch()}, and then only once.
+     */
+    void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes and notifies the listeners of everything it changed.
+     */
+    void endBatch() {
+        batchDepth--;
+        publish();
+    }
+
+    /**
+     * Records the stats for {@link #snapshot()} and notifies the listeners of the stats that
+     * changed since they were last notified.
+     * Nothing is allocated: the changes are found by comparing the row with the values
+     * last published, and passed on as a bitmask and primitive values.
+     */
+    private void publish() {
+        if (batchDepth > 0) return;
+        record();
+        if (listeners.length == 0) return;
+        int dirty = 0;
+        if (table.health[row] != publishedHealth) dirty |= PetChangeListener.HEALTH;
+        if (table.happiness[row] != publishedHappiness) dirty |= PetChangeListener.HAPPINESS;
+        if (table.fullness[row] != publishedFullness) dirty |= PetChangeListener.FULLNESS;
+        if (table.sleep[row] != publishedSleep) dirty |= PetChangeListener.SLEEP;
+        if (table.score[row] != publishedScore) dirty |= PetChangeListener.SCORE;
+        if (table.state[row] != publishedState) dirty |= PetChangeListener.STATE;
+        if (dirty == 0) return;
+        markPublished();
+        PetState state = PetState.fromCode(publishedState);
+        for (Subscription subscription : listeners) {
+            PetChangeListener listener = subscription.listener();
+            if (listener == null) {
+                subscription.close(); // The weakly held listener was garbage collected
+                continue;
+            }
+            listener.petChanged(dirty, publishedHealth, publishedHappiness, publishedFullness,
+                    publishedSleep, publishedScore, state);
+        }
+    }
+
+    /**
+     * Copies the stats to the fields read by {@link #snapshot()}. Every change of the pet
+     * ends here, on whichever thread made it: the tick thread, the thread running an action,
+     * or the thread calling a setter or loading the pet. The write lock keeps two of them
+     * from interleaving their copies; readers never take it.
+     */
+    private void record() {
+        long syncedAt = transitionQueue != null ? transitionQueue.getSyncedAt(row) : 0;
+        long stamp = sequence.writeLock();
+        recordedHealth = table.health[row];
+        recordedHappiness = table.happiness[row];
+        recordedFullness = table.fullness[row];
+        recordedSleep = table.sleep[row];
+        recordedScore = table.score[row];
+        recordedState = table.state[row];
+        recordedCooldown = table.cooldown[row];
+        recordedTicks = table.ticks[row];
+        recordedLastSimulated = lastSimulated;
+        recordedSyncedAt = syncedAt;
+        sequence.unlockWrite(stamp);
+    }
+
+    /**
+     * Takes a consistent copy of the pet's stats as of the last completed tick, action or
+     * batch of changes. It can be called from any thread: it never blocks the thread
+     * ticking the pet, and retries instead if a tick finished while it was copying.
+     * Nothing ticks a lazy pet or a pet in a transition queue, so for those the ticks
+     * elapsed since the copy are worked out on a scratch row; the pet itself is left as it is.
+     * @return The snapshot
+     */
+    public PetSnapshot snapshot() {
+        while (true) {
+            long stamp = sequence.tryOptimisticRead();
+            if (stamp == 0) {
+                Thread.onSpinWait(); // A change is being recorded
+                continue;
             }
-            else if (this.fullness<1) this.setState("hungry");
-            else if (this.happiness<1) this.setState("angry");
-            else this.setState("default");
+            int health = recordedHealth;
+            int happiness = recordedHappiness;
+            int fullness = recordedFullness;
+            int sleep = recordedSleep;
+            int score = recordedScore;
+            int state = recordedState;
+            int cooldown = recordedCooldown;
+            int ticks = recordedTicks;
+            long simulated = recordedLastSimulated;
+            long syncedAt = recordedSyncedAt;
+            if (sequence.validate(stamp)) {
+                long behind = 0;
+                LongSupplier clock = lazyClock;
+                TransitionQueue queue = transitionQueue;
+                if (clock != null && simulated > 0) {
+                    behind = Math.max(0, (clock.getAsLong() - simulated) / lazyTickMillis);
+                    simulated += behind * lazyTickMillis;
+                } else if (queue != null) {
+                    behind = queue.getNow() - syncedAt;
+                }
+                if (behind <= 0) {
+                    return new PetSnapshot(id, name, type, health, happiness, fullness, sleep, score, cooldown,
+                            PetState.fromCode(state), simulated);
+                }
+                PetStatTable scratch = new PetStatTable(1);
+                int r = scratch.addRow(type);
+                scratch.health[r] = health;
+                scratch.happiness[r] = happiness;
+                scratch.fullness[r] = fullness;
+                scratch.sleep[r] = sleep;
+                scratch.score[r] = score;
+                scratch.state[r] = state;
+                scratch.ticks[r] = ticks;
+                scratch.cooldown[r] = cooldown;
+                scratch.advance(r, behind);
+                return new PetSnapshot(id, name, type, scratch.health[r], scratch.happiness[r], scratch.fullness[r],
+                        scratch.sleep[r], scratch.score[r], scratch.cooldown[r], PetState.fromCode(scratch.state[r]),
+                        simulated);
+            }
+        }
+    }
+
+    private void markPublished() {
+        publishedHealth = table.health[row];
+        publishedHappiness = table.happiness[row];
+        publishedFullness = table.fullness[row];
+        publishedSleep = table.sleep[row];
+        publishedScore = table.score[row];
+        publishedState = table.state[row];
+    }
+
+    /**
+     * Switches the pet to lazy evaluation. Nothing ticks the pet anymore; instead, every
+     * read works out the stats for the ticks elapsed since the last read in one step,
+     * using {@link PetStatTable#advance(int, long)}.
+     * @param clock The clock giving the current time in milliseconds
+     * @param tickMillis The time between two ticks in milliseconds
+     */
+    public void startLazyEvaluation(LongSupplier clock, long tickMillis) {
+        catchUp();
+        this.lazyTickMillis = tickMillis;
+        this.lastSimulated = clock.getAsLong();
+        this.lazyClock = clock;
+        publish(); // Snapshots count the elapsed ticks from the recorded time
+    }
+
+    /**
+     * Brings the stats up to date and switches the pet back to being ticked.
+     */
+    public void stopLazyEvaluation() {
+        catchUp();
+        lazyClock = null;
+        publish();
+    }
+
+    /**
+     * Checks whether the pet is evaluated lazily.
+     * @return true if the stats are computed when read
+     */
+    @JsonIgnore
+    public boolean isLazy() {
+        return lazyClock != null;
+    }
+
+    /**
+     * Applies the whole ticks elapsed since the last update when the pet is lazy or
+     * simulated event by event.
+     */
+    private void catchUp() {
+        LongSupplier clock = lazyClock; // Read once, as another thread may stop lazy evaluation
+        if (clock != null) advanceTo(clock.getAsLong(), lazyTickMillis);
+        if (transitionQueue != null) transitionQueue.sync(row);
+    }
+
+    /**
+     * Sets one stat of the pet's row after bringing the row up to date.
+     * @param column The table column of the stat
+     * @param value The new value
+     */
+    private void write(int[] column, int value) {
+        synchronized (rowLock()) {
+            catchUp();
+            column[row] = value;
+            rescheduled();
         }
-        if (this.health<1) this.setState("dead");
+        publish();
     }
 
     /**
-     * Updates the current stats
+     * Gets the lock to hold while changing the row. For a pet in a transition queue it is
+     * the queue's own lock, so a wake-up on the scheduler never syncs the row between the
+     * catch-up, the change and the reschedule.
+     * @return The queue, or a lock of the pet's own
+     */
+    private Object rowLock() {
+        TransitionQueue queue = transitionQueue;
+        return queue != null ? queue : rowLock;
+    }
+
+    /**
+     * Queues the pet's next state change again after its stats were changed, when the pet
+     * is simulated event by event.
+     */
+    private void rescheduled() {
+        if (transitionQueue != null) transitionQueue.reschedule(row);
+    }
+
+    /**
+     * Hands the pet's simulation over to a transition queue managing its row.
+     * @param queue The queue that brings the pet up to date and wakes it on state changes
+     */
+    void attachTo(TransitionQueue queue) {
+        this.transitionQueue = queue;
+    }
+
+    /**
+     * Gets the transition queue simulating the pet.
+     * @return The queue, or null if the pet is ticked or evaluated lazily
+     */
+    TransitionQueue getTransitionQueue() {
+        return transitionQueue;
+    }
+
+    /**
+     * Fast-forwards the pet through the time elapsed since it was last simulated, for
+     * example while its save file was closed. The ticks are applied in one step with
+     * {@link PetStatTable#advance(int, long)}, however long the pet was away.
+     * Pets that were never simulated are left unchanged.
+     * @param now The current time in milliseconds
+     * @param tickMillis The time between two ticks in milliseconds
+     */
+    public void fastForward(long now, long tickMillis) {
+        if (lastSimulated > 0) {
+            advanceTo(now, tickMillis);
+            publish();
+        }
+    }
+
+    /**
+     * Applies the whole ticks between the last simulated time and the given time.
+     * The part of a tick that has not elapsed yet is kept for the next update.
+     * Any thread reading a lazy pet may call this, so the elapsed ticks are worked out and
+     * applied under a lock: two readers never apply the same ticks twice, and a reader that
+     * read the clock earlier finds nothing left to apply.
+     */
+    private void advanceTo(long now, long tickMillis) {
+        synchronized (catchUpLock) {
+            long elapsedTicks = (now - lastSimulated) / tickMillis;
+            if (elapsedTicks > 0) {
+                table.advance(row, elapsedTicks);
+                if (eventLog != null) eventLog.advanced(elapsedTicks);
+                lastSimulated += elapsedTicks * tickMillis;
+            }
+        }
+    }
+
+    /**
+     * Gets the time the pet's stats were last simulated up to.
+     * @return The time in milliseconds since the epoch, 0 if unknown
+     */
+    public long getLastSimulated() {
+        return lastSimulated;
+    }
+
+    /**
+     * Sets the time the pet's stats were last simulated up to.
+     * @param lastSimulated The time in milliseconds since the epoch
+     */
+    public void setLastSimulated(long lastSimulated) {
+        this.lastSimulated = lastSimulated;
+        publish();
+    }
+
+    /**
+     * Gets the number of ticks since the tick count was last restarted. The decay phase is
+     * this count modulo 5.
+     * @return The tick count
+     */
+    int getTickCount() {
+        return table.ticks[row];
+    }
+
+    /**
+     * Restarts the pet's tick count, and so its every-5-ticks decay phase.
+     */
+    void resetTicks() {
+        table.ticks[row] = 0;
+        if (eventLog != null) eventLog.resetTicks();
+    }
+
+    /**
+     * Starts logging the pet's ticks and actions to an event log, beginning with a
+     * snapshot of its stats. Call it before the pet starts ticking.
+     * Stats changed straight through the setters are not logged; the game's actions,
+     * food and gifts are.
+     * @param log The log to append to, or null to stop logging
+     */
+    public void setEventLog(PetEventLog log) {
+        catchUp();
+        this.eventLog = log;
+        if (log != null) log.attach(table, row);
+    }
+
+    /**
+     * Starts recording the pet's stats at every tick, beginning with its stats now.
+     * Call it before the pet starts ticking.
+     */
+    public void startHistory() {
+        catchUp();
+        history = PetHistory.empty(name, type).append(historyFields());
+    }
+
+    /**
+     * Stops recording the pet's stats and drops the history.
+     */
+    public void stopHistory() {
+        history = null;
+    }
+
+    /**
+     * Gets the stats recorded at every tick since {@link #startHistory()}. The history is
+     * immutable, so it can be read on any thread, for as long as needed, while the pet
+     * keeps ticking; call this again for the ticks since.
+     * @return The history, or null if the pet's stats are not recorded
+     */
+    @JsonIgnore
+    public PetHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Rolls the pet back to a tick of its history: its stats, state, cooldown and decay
+     * phase become those of that tick, and the later ticks are dropped from the history.
+     * While the pet is ticking, run this through {@link #submit(Runnable)}.
+     * @param tick The tick to go back to, 0 for the first one recorded
+     * @throws IllegalStateException if the pet's stats are not recorded
+     * @throws IndexOutOfBoundsException if the tick is not in the history
+     */
+    public void rollBack(int tick) {
+        PetHistory current = history;
+        if (current == null) throw new IllegalStateException("The pet's history is not recorded");
+        int[] fields = new int[PetHistory.FIELDS];
+        current.read(tick, fields);
+        beginBatch(); // Snapshots and listeners see the whole restore at once
+        synchronized (rowLock()) {
+            catchUp();
+            table.health[row] = fields[0];
+            table.happiness[row] = fields[1];
+            table.fullness[row] = fields[2];
+            table.sleep[row] = fields[3];
+            table.score[row] = fields[4];
+            table.state[row] = fields[5];
+            table.cooldown[row] = fields[6];
+            table.ticks[row] = fields[7];
+            history = current.truncate(tick + 1);
+            if (eventLog != null) eventLog.attach(table, row); // The log goes on from a snapshot of the rolled-back stats
+            rescheduled();
+        }
+        endBatch();
+    }
+
+    private int[] historyFields() {
+        return new int[] {table.health[row], table.happiness[row], table.fullness[row], table.sleep[row],
+                table.score[row], table.state[row], table.cooldown[row], table.ticks[row]};
+    }
+
+    /**
+     * Gets the event log the pet's changes are appended to.
+     * @return The log, or null if the pet is not logged
+     */
+    @JsonIgnore
+    public PetEventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Adds a listener notified once per tick or action with the stats that changed.
+     * The pet keeps the listener until the returned subscription is closed.
      * @param listener The listener used to get the change
+     * @return The subscription, to close when the listener is no longer needed
+     */
+    public Subscription addChangeListener(PetChangeListener listener) {
+        return subscribe(new Subscription(listener, null));
+    }
+
+    /**
+     * Adds a listener that the pet only holds weakly. Once nothing else refers to the
+     * listener it is garbage collected and dropped, even if the subscription is never closed.
+     * @param listener The listener used to get the change; the caller must keep a reference to it
+     * @return The subscription, to close when the listener is no longer needed
      */
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        changes.addPropertyChangeListener(listener);
+    public Subscription addWeakChangeListener(PetChangeListener listener) {
+        return subscribe(new Subscription(null, new WeakReference<>(listener)));
+    }
+
+    /**
+     * Gets the number of listeners still notified of changes, leaving out weakly held
+     * listeners that have been garbage collected.
+     * @return The live listener count
+     */
+    @JsonIgnore
+    public int getListenerCount() {
+        int count = 0;
+        for (Subscription subscription : listeners) {
+            if (subscription.listener() != null) count++;
+        }
+        return count;
+    }
+
+    private synchronized Subscription subscribe(Subscription subscription) {
+        catchUp();
+        if (listeners.length == 0) markPublished(); // Only later changes are reported
+        Subscription[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[copy.length - 1] = subscription;
+        listeners = copy;
+        return subscription;
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] copy = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, copy.length - i);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the species of the pet, which holds its max stats.
+     * @return The shared species instance
+     */
+    @JsonIgnore
+    public Species getSpecies() {
+        return species;
     }
 
     /**
@@ -250,7 +802,7 @@ public class Pet {
      */
     @JsonIgnore
     public int getMaxHealth() {
-        return stats[typeToInt(this.type)][0];
+        return species.getMaxHealth();
     }
     /**
      * Gets the max happiness of the pet.
@@ -258,7 +810,7 @@ public class Pet {
      */
     @JsonIgnore
     public int getMaxHappiness() {
-        return stats[typeToInt(this.type)][1];
+        return species.getMaxHappiness();
     }
     /**
      * Gets the max fullness of the pet.
@@ -266,7 +818,7 @@ public class Pet {
      */
     @JsonIgnore
     public int getMaxFullness() {
-        return stats[typeToInt(this.type)][2];
+        return species.getMaxFullness();
     }
     /**
      * Gets the max sleep of the pet.
@@ -274,37 +826,91 @@ public class Pet {
      */
     @JsonIgnore
     public int getMaxSleep() {
-        return stats[typeToInt(this.type)][3];
+        return species.getMaxSleep();
     }
     /**
      * Used after adding to stat to make sure it is within the correct limit
      * if too high, limit at max. If too low limit at 0.
      */ 
     public void statLimiter() {
-        if (this.health>stats[typeToInt(this.type)][0]) this.health=stats[typeToInt(this.type)][0];
-        if (this.happiness>stats[typeToInt(this.type)][1]) this.health=stats[typeToInt(this.type)][1];
-        if (this.fullness>stats[typeToInt(this.type)][2]) this.health=stats[typeToInt(this.type)][2];
-        if (this.sleep>stats[typeToInt(this.type)][3]) this.health=stats[typeToInt(this.type)][3];
-        if (this.health<0) this.health=0;
-        if (this.happiness<0) this.happiness=0;
-        if (this.fullness<0) this.fullness=0;
-        if (this.sleep<0) this.sleep=0;
-        if (this.score<0) this.score=0;
+        synchronized (rowLock()) {
+            catchUp();
+            table.limit(row);
+            rescheduled();
+        }
+        publish();
     }
-    
-    
+
     /**
-     * Used after adding to stat to make sure it is within the correct limit
-     * if too high, limit at max. If too low limit at 0.
-     * @param type the type of pet (cat, owl...)
-     * @return return the array index for the correlated pet
-     */ 
-    private int typeToInt(String type){
-        if(type==null) return 0;
-        else if (type.equals("cat")) return 1;
-        else if (type.equals("fox")) return 2;
-        else if (type.equals("owl")) return 3;
-        
-        return 0;
+     * Gets a stat by its {@link TickRules} index.
+     * @param stat The stat index, such as {@link TickRules#HEALTH}
+     * @return The value of the stat
+     */
+    int getStat(int stat) {
+        switch (stat) {
+            case TickRules.HEALTH: return getHealth();
+            case TickRules.HAPPINESS: return getHappiness();
+            case TickRules.FULLNESS: return getFullness();
+            case TickRules.SLEEP: return getSleep();
+            default: return getScore();
+        }
+    }
+
+    /**
+     * Sets a stat by its {@link TickRules} index.
+     * @param stat The stat index, such as {@link TickRules#HEALTH}
+     * @param value The new value of the stat
+     */
+    void setStat(int stat, int value) {
+        switch (stat) {
+            case TickRules.HEALTH: setHealth(value); break;
+            case TickRules.HAPPINESS: setHappiness(value); break;
+            case TickRules.FULLNESS: setFullness(value); break;
+            case TickRules.SLEEP: setSleep(value); break;
+            default: setScore(value); break;
+        }
+    }
+
+    /**
+     * Gets the max value of a stat by its {@link TickRules} index.
+     * @param stat The stat index, such as {@link TickRules#HEALTH}
+     * @return The max value, or Integer.MAX_VALUE for the score
+     */
+    int getMaxStat(int stat) {
+        return stat == TickRules.SCORE ? Integer.MAX_VALUE : species.getMaxStat(stat);
+    }
+
+    /**
+     * A listener's subscription to a pet's changes. Closing it removes the listener.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final PetChangeListener strong;
+        private final WeakReference<PetChangeListener> weak;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(PetChangeListener strong, WeakReference<PetChangeListener> weak) {
+            this.strong = strong;
+            this.weak = weak;
+        }
+
+        /**
+         * Removes the listener from the pet. Closing twice has no effect.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) unsubscribe(this);
+        }
+
+        /**
+         * Checks whether this subscription has been closed.
+         * @return true if the listener is no longer notified
+         */
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        private PetChangeListener listener() {
+            return weak == null ? strong : weak.get();
+        }
     }
 }
@@ -0,0 +1,34 @@
+package my_package;
+
+/**
+ * Receives the changes to a pet's stats, at most once per tick or player action.
+ * The changed stats are given as a bitmask and the new values as primitives, so
+ * notifying a listener allocates nothing.
+ */
+@FunctionalInterface
+public interface PetChangeListener {
+    /** Dirty bit set when the health changed */
+    int HEALTH = 1;
+    /** Dirty bit set when the happiness changed */
+    int HAPPINESS = 1 << 1;
+    /** Dirty bit set when the fullness changed */
+    int FULLNESS = 1 << 2;
+    /** Dirty bit set when the sleep changed */
+    int SLEEP = 1 << 3;
+    /** Dirty bit set when the score changed */
+    int SCORE = 1 << 4;
+    /** Dirty bit set when the state changed */
+    int STATE = 1 << 5;
+
+    /**
+     * Called after one or more stats of the pet changed.
+     * @param dirty The bitmask of changed stats, such as {@link #HEALTH}
+     * @param health The new health
+     * @param happiness The new happiness
+     * @param fullness The new fullness
+     * @param sleep The new sleep
+     * @param score The new score
+     * @param state The new state
+     */
+    void petChanged(int dirty, int health, int happiness, int fullness, int sleep, int score, PetState state);
+}
@@ -0,0 +1,452 @@
+package my_package;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary log of everything that happens to one pet: runs of ticks, player
+ * actions, food and gifts. Every record is a single 8-byte word, with the record type in
+ * the top byte, and consecutive ticks are merged into one record, so an hour of play takes
+ * a few kilobytes. Records are buffered and written to the file at least every
+ * {@value #FLUSH_INTERVAL_MS} ms, so a crash loses only the last few seconds of play.
+ * Every {@value #SNAPSHOT_INTERVAL} records, and whenever
+ * {@link #checkpoint()} is called, a snapshot of the pet's stats is written into the log.
+ * {@link #recover(File, String)} rebuilds a pet from the latest snapshot and replays only
+ * the records after it; runs of ticks are replayed in one step with
+ * {@link PetStatTable#advance(int, long)}, so replay runs at millions of records per second.
+ * Each snapshot also records the {@link TickRules#getHash() hash} of the rules the pet ran
+ * with, and replay refuses a log written with other rules than the active ones, as it would
+ * give other stats than the game did.
+ * A record cut short by a crash is dropped when the log is opened again.
+ */
+public final class PetEventLog implements AutoCloseable {
+    /** Folder holding the log of each pet */
+    static final String LOG_DIR = "src/my_package/assets/data/logs";
+    /** Records written between two automatic snapshots */
+    static final int SNAPSHOT_INTERVAL = 4096;
+    /** Longest time in milliseconds records stay in the buffer before being written */
+    static final long FLUSH_INTERVAL_MS = 5000;
+
+    private static final long MAGIC = 0x5045544C4F473032L; // "PETLOG02", with the rules hash in snapshots
+    private static final int TYPE_SHIFT = 56;
+    private static final long PAYLOAD = (1L << TYPE_SHIFT) - 1;
+    // Record types
+    private static final int TICKS = 1; // Ticks run by the game loop
+    private static final int ADVANCE = 2; // Ticks worked out in one step, lazily or on load
+    private static final int ACTION = 3; // TickRules action index
+    private static final int COOLDOWN = 4;
+    private static final int FEED = 5; // Fullness added
+    private static final int GIFT = 6; // Happiness added
+    private static final int RESET_TICKS = 7;
+    private static final int REVIVE = 8;
+    private static final int SNAPSHOT = 9; // Type code, followed by SNAPSHOT_WORDS words of stats and rules hash
+    private static final int SNAPSHOT_WORDS = 5;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private PetStatTable table; // The attached pet's row
+    private int row;
+    private long pendingTicks; // Ticks not written yet, merged into one record
+    private int sinceSnapshot;
+    private boolean snapshotRequested;
+    private long flushIntervalNanos = FLUSH_INTERVAL_MS * 1_000_000;
+    private long lastFlush = System.nanoTime();
+
+    private PetEventLog(File file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a log for appending, creating it if needed. A record left incomplete by a crash
+     * is cut off.
+     * @param file The log file
+     * @return The open log
+     * @throws IOException if the file cannot be opened or is not a pet log
+     */
+    public static PetEventLog open(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < Long.BYTES) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, MAGIC));
+            } else {
+                LongBuffer records = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).asLongBuffer();
+                checkMagic(records, file);
+                channel.truncate((long) validEnd(records) * Long.BYTES);
+            }
+            channel.position(channel.size());
+            return new PetEventLog(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the log of a pet in the log folder and attaches it to the pet. The file is
+     * named after the pet's {@link Pet#getId() id}, so pets sharing a name, in any save
+     * slot, never share a log.
+     * @param pet The pet to log, before it starts ticking
+     * @return The open log
+     * @throws IOException if the file cannot be opened or is not a pet log
+     */
+    public static PetEventLog openFor(Pet pet) throws IOException {
+        return openFor(pet, new File(LOG_DIR));
+    }
+
+    /**
+     * Opens the log of a pet in a folder and attaches it to the pet.
+     * @param pet The pet to log, before it starts ticking
+     * @param dir The folder holding the logs
+     * @return The open log
+     * @throws IOException if the file cannot be opened or is not a pet log
+     */
+    static PetEventLog openFor(Pet pet, File dir) throws IOException {
+        String name = String.valueOf(pet.getName()).replaceAll("[^A-Za-z0-9_-]", "_");
+        PetEventLog log = open(new File(dir, name + "-" + pet.getId() + ".log"));
+        pet.setEventLog(log);
+        return log;
+    }
+
+    /**
+     * Starts logging a pet's row, beginning with a snapshot of its stats.
+     * @param table The table holding the pet
+     * @param row The row of the pet
+     */
+    synchronized void attach(PetStatTable table, int row) {
+        this.table = table;
+        this.row = row;
+        writeSnapshot();
+    }
+
+    /**
+     * Logs ticks run by the game loop. Consecutive ticks are written as one record.
+     * @param count The number of ticks
+     */
+    synchronized void ticks(long count) {
+        pendingTicks += count;
+        if (snapshotRequested) writeSnapshot();
+        flushIfDue();
+    }
+
+    /**
+     * Logs ticks worked out in one step while the pet was evaluated lazily.
+     * @param count The number of ticks
+     */
+    synchronized void advanced(long count) {
+        append(ADVANCE, count);
+    }
+
+    /**
+     * Logs a player action applied with {@link TickRules#apply(int, Pet)}.
+     * @param action The action index, such as {@link TickRules#PLAY}
+     */
+    synchronized void action(int action) {
+        append(ACTION, action);
+    }
+
+    /**
+     * Logs a new cooldown value.
+     * @param cooldown The cooldown in ticks
+     */
+    synchronized void cooldown(int cooldown) {
+        append(COOLDOWN, cooldown);
+    }
+
+    /**
+     * Logs food given to the pet.
+     * @param rating The fullness added
+     */
+    synchronized void feed(int rating) {
+        append(FEED, rating);
+    }
+
+    /**
+     * Logs a gift given to the pet.
+     * @param rating The happiness added
+     */
+    synchronized void gift(int rating) {
+        append(GIFT, rating);
+    }
+
+    /**
+     * Logs a restart of the pet's tick count.
+     */
+    synchronized void resetTicks() {
+        append(RESET_TICKS, 0);
+    }
+
+    /**
+     * Logs the pet being revived with full stats.
+     */
+    synchronized void revive() {
+        append(REVIVE, 0);
+    }
+
+    /**
+     * Asks for a snapshot with the next record, and writes everything logged so far to the
+     * file. It can be called from any thread; the snapshot itself is taken by the thread
+     * changing the pet, so it always matches the records before it.
+     */
+    public synchronized void checkpoint() {
+        snapshotRequested = true;
+        flush();
+    }
+
+    /**
+     * Sets the longest time records stay in the buffer before being written to the file.
+     * @param millis The time in milliseconds, 0 to write every record straight away
+     */
+    synchronized void setFlushInterval(long millis) {
+        flushIntervalNanos = millis * 1_000_000;
+    }
+
+    /**
+     * Writes everything logged so far to the file.
+     */
+    public synchronized void flush() {
+        lastFlush = System.nanoTime();
+        try {
+            writePendingTicks();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            System.err.println(e);
+            buffer.clear(); // Keep logging rather than fill up
+        }
+    }
+
+    /**
+     * Writes everything logged so far and closes the file.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+    }
+
+    /**
+     * Gets the file the log is written to.
+     * @return The log file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Rebuilds a pet from a log: its latest snapshot, then every record after it.
+     * @param file The log file
+     * @param name The name to give the pet
+     * @return The recovered pet
+     * @throws IOException if the file cannot be read, is not a pet log, holds no snapshot or
+     *         was written with other rules than the active ones
+     */
+    public static Pet recover(File file, String name) throws IOException {
+        LongBuffer records = read(file);
+        int end = validEnd(records);
+        int snapshot = lastSnapshot(records, end);
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow(PetStatTable.typeName((int) (records.get(snapshot) & PAYLOAD)));
+        try {
+            replay(records, snapshot, end, table, row);
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage() + ": " + file, e);
+        }
+        return new Pet(name, table, row);
+    }
+
+    /**
+     * Replays the records of a log from one position onto a table row.
+     * @param records The log's words, starting with the header
+     * @param from The position of the first record to replay
+     * @param to The position after the last record
+     * @param table The table to change
+     * @param row The row to change
+     * @return The number of records replayed
+     * @throws IllegalStateException if a snapshot was written with other rules than the active ones
+     */
+    static long replay(LongBuffer records, int from, int to, PetStatTable table, int row) {
+        TickRules rules = TickRules.getActive();
+        long count = 0;
+        int position = from;
+        while (position < to) {
+            long record = records.get(position++);
+            long payload = record & PAYLOAD;
+            switch ((int) (record >>> TYPE_SHIFT)) {
+                case TICKS:
+                case ADVANCE:
+                    table.advance(row, payload); // Counts the cooldown down as the ticks did
+                    break;
+                case ACTION:
+                    rules.apply((int) payload, table, row);
+                    break;
+                case COOLDOWN:
+                    table.cooldown[row] = (int) payload;
+                    break;
+                case FEED:
+                    table.fullness[row] += (int) payload;
+                    break;
+                case GIFT:
+                    table.happiness[row] += (int) payload;
+                    break;
+                case RESET_TICKS:
+                    table.ticks[row] = 0;
+                    break;
+                case REVIVE:
+                    table.reset(row);
+                    break;
+                default:
+                    table.setType(row, PetStatTable.typeName((int) payload));
+                    long word = records.get(position++);
+                    table.health[row] = (int) (word >>> 32);
+                    table.happiness[row] = (int) word;
+                    word = records.get(position++);
+                    table.fullness[row] = (int) (word >>> 32);
+                    table.sleep[row] = (int) word;
+                    word = records.get(position++);
+                    table.score[row] = (int) (word >>> 32);
+                    table.state[row] = (int) word;
+                    word = records.get(position++);
+                    table.cooldown[row] = (int) (word >>> 32);
+                    table.ticks[row] = (int) word;
+                    if ((int) records.get(position++) != rules.getHash()) {
+                        throw new IllegalStateException("Pet log written with other rules than the active ones");
+                    }
+                    break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Recovers a pet from a log and prints how long the replay took and the pet's stats,
+     * for audits and debugging.
+     * Run with {@code java -cp <classes> my_package.PetEventLog <log file>}.
+     * @param args The log file
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        File file = new File(args[0]);
+        LongBuffer records = read(file);
+        int end = validEnd(records);
+        int snapshot = lastSnapshot(records, end);
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow(PetStatTable.typeName((int) (records.get(snapshot) & PAYLOAD)));
+        long start = System.nanoTime();
+        long count = replay(records, snapshot, end, table, row);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%d records after the latest snapshot, replayed in %.3f ms (%.1f million per second)%n",
+                count, seconds * 1000, count / seconds / 1_000_000);
+        System.out.printf("%s: health %d, happiness %d, fullness %d, sleep %d, score %d, %s%n",
+                table.getType(row), table.getHealth(row), table.getHappiness(row), table.getFullness(row),
+                table.getSleep(row), table.getScore(row), table.getState(row));
+    }
+
+    private void append(int type, long payload) {
+        writePendingTicks();
+        write(type, payload);
+        if (snapshotRequested || sinceSnapshot >= SNAPSHOT_INTERVAL) writeSnapshot();
+        flushIfDue();
+    }
+
+    /**
+     * Writes the buffer to the file once the flush interval has passed since the last write,
+     * bounding what a crash can lose.
+     */
+    private void flushIfDue() {
+        if (System.nanoTime() - lastFlush >= flushIntervalNanos) flush();
+    }
+
+    private void writePendingTicks() {
+        long ticks = pendingTicks;
+        if (ticks > 0) {
+            pendingTicks = 0; // Cleared first, as writing can flush
+            write(TICKS, ticks);
+        }
+    }
+
+    private void writeSnapshot() {
+        writePendingTicks();
+        snapshotRequested = false;
+        if (table == null) return; // Nothing attached yet
+        write(SNAPSHOT, table.type[row]);
+        putWord(table.health[row], table.happiness[row]);
+        putWord(table.fullness[row], table.sleep[row]);
+        putWord(table.score[row], table.state[row]);
+        putWord(table.cooldown[row], table.ticks[row]);
+        putWord(TickRules.getActive().getHash());
+        sinceSnapshot = 0;
+    }
+
+    private void write(int type, long payload) {
+        putWord(((long) type << TYPE_SHIFT) | (payload & PAYLOAD));
+        sinceSnapshot++;
+    }
+
+    private void putWord(int high, int low) {
+        putWord(((long) high << 32) | (low & 0xFFFFFFFFL));
+    }
+
+    private void putWord(long word) {
+        if (!buffer.hasRemaining()) flush();
+        buffer.putLong(word);
+    }
+
+    private static LongBuffer read(File file) throws IOException {
+        LongBuffer records = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).asLongBuffer();
+        checkMagic(records, file);
+        return records;
+    }
+
+    private static void checkMagic(LongBuffer records, File file) throws IOException {
+        if (records.limit() == 0 || records.get(0) != MAGIC) throw new IOException("Not a pet log: " + file);
+    }
+
+    /**
+     * Finds the end of the last whole record, leaving out a snapshot cut short.
+     */
+    private static int validEnd(LongBuffer records) {
+        int position = 1;
+        int limit = records.limit();
+        while (position < limit) {
+            int length = (int) (records.get(position) >>> TYPE_SHIFT) == SNAPSHOT ? 1 + SNAPSHOT_WORDS : 1;
+            if (position + length > limit) break;
+            position += length;
+        }
+        return position;
+    }
+
+    private static int lastSnapshot(LongBuffer records, int end) throws IOException {
+        int last = -1;
+        int position = 1;
+        while (position < end) {
+            if ((int) (records.get(position) >>> TYPE_SHIFT) == SNAPSHOT) {
+                last = position;
+                position += 1 + SNAPSHOT_WORDS;
+            } else {
+                position++;
+            }
+        }
+        if (last < 0) throw new IOException("No snapshot in pet log");
+        return last;
+    }
+}
@@ -0,0 +1,299 @@
+package my_package;
+
+import java.util.Arrays;
+
+/**
+ * The stats of a pet at every tick of a session, as an immutable, persistent list.
+ * Appending or truncating returns a new history and leaves this one unchanged, sharing
+ * everything but one path of the tree with it, so a screen can keep scrubbing through the
+ * version it holds while the pet keeps ticking, and rolling back costs no copy.
+ * Ticks are stored in a 32-way tree of leaves of {@value #LEAF_SIZE} ticks each. A leaf
+ * holds its first tick in full and then only what changed from one tick to the next, as a
+ * bitmask and small variable-length numbers: most ticks change one or two stats by a
+ * few points, so a tick takes 1 to 3 bytes, and a 24-hour session about 200 KB.
+ * Reading any tick walks down the tree and decodes at most one leaf, in O(log n).
+ */
+public final class PetHistory {
+    /** Ticks per leaf */
+    static final int LEAF_SIZE = 32;
+    private static final int BITS = 5; // log2 of the branching factor
+    private static final int MASK = LEAF_SIZE - 1;
+    // Fields of a tick, in the order they are stored
+    private static final int HEALTH = 0, HAPPINESS = 1, FULLNESS = 2, SLEEP = 3, SCORE = 4, STATE = 5, COOLDOWN = 6;
+    private static final int TICKS = 7; // Tick count, expected to go up by one every tick
+    static final int FIELDS = 8;
+    private static final byte[] EMPTY_LEAF = new byte[0];
+
+    private final String name;
+    private final String type;
+    private final int size;
+    private final int shift; // Bits of the index used above the leaves
+    private final Object[] root; // Full leaves; inner nodes are Object[], leaves byte[]
+    private final byte[] tail; // The last, unfinished leaf, outside the tree
+    private final int[] last; // Fields of the last tick, to encode the next one against
+
+    private PetHistory(String name, String type, int size, int shift, Object[] root, byte[] tail, int[] last) {
+        this.name = name;
+        this.type = type;
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+        this.last = last;
+    }
+
+    /**
+     * Creates an empty history for a pet.
+     * @param name The name of the pet
+     * @param type The type of pet (owl, cat...)
+     * @return The empty history
+     */
+    public static PetHistory empty(String name, String type) {
+        return new PetHistory(name, type, 0, BITS, new Object[0], EMPTY_LEAF, null);
+    }
+
+    /**
+     * Gets the number of ticks in the history.
+     * @return The tick count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the stats of the pet at a tick.
+     * @param index The tick, 0 for the first one recorded
+     * @return The stats at that tick
+     * @throws IndexOutOfBoundsException if the tick is not in the history
+     */
+    public PetSnapshot get(int index) {
+        int[] fields = new int[FIELDS];
+        read(index, fields);
+        return new PetSnapshot(name, type, fields[HEALTH], fields[HAPPINESS], fields[FULLNESS], fields[SLEEP],
+                fields[SCORE], fields[COOLDOWN], PetState.fromCode(fields[STATE]), 0);
+    }
+
+    /**
+     * Adds a tick at the end of the history.
+     * @param fields The stats of the tick, in the order of {@link #read(int, int[])}
+     * @return The new history; this one is unchanged
+     */
+    PetHistory append(int[] fields) {
+        int[] next = fields.clone();
+        if (size - tailOffset() < LEAF_SIZE) {
+            return new PetHistory(name, type, size + 1, shift, root, encode(tail, last, next), next);
+        }
+        // The tail is full: it becomes a leaf of the tree, and a new tail starts
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[] {root, newPath(shift, tail)}; // The tree is full: add a level
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PetHistory(name, type, size + 1, newShift, newRoot, encode(EMPTY_LEAF, null, next), next);
+    }
+
+    /**
+     * Keeps only the first ticks of the history, to roll the pet back.
+     * @param newSize The number of ticks to keep
+     * @return The shorter history; this one is unchanged
+     * @throws IndexOutOfBoundsException if the history has fewer ticks
+     */
+    public PetHistory truncate(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("Cannot keep " + newSize + " of " + size + " ticks");
+        if (newSize == size) return this;
+        if (newSize == 0) return empty(name, type);
+        int[] newLast = new int[FIELDS];
+        read(newSize - 1, newLast);
+        int newTailOffset = (newSize - 1) & ~MASK;
+        byte[] leaf = newTailOffset >= tailOffset() ? tail : leafFor(newSize - 1);
+        byte[] newTail = Arrays.copyOf(leaf, endOfEntry(leaf, (newSize - 1) & MASK));
+        if (newTailOffset == 0) return new PetHistory(name, type, newSize, BITS, new Object[0], newTail, newLast);
+        Object[] newRoot = slice(shift, root, newTailOffset - 1);
+        int newShift = shift;
+        while (newShift > BITS && newRoot.length == 1) {
+            newRoot = (Object[]) newRoot[0]; // Drop levels left with a single child
+            newShift -= BITS;
+        }
+        return new PetHistory(name, type, newSize, newShift, newRoot, newTail, newLast);
+    }
+
+    /**
+     * Works out roughly how much memory the history takes, counting what it shares with
+     * other versions.
+     * @return The approximate size in bytes
+     */
+    public long estimateBytes() {
+        return 48 + 16 + tail.length + 16 + FIELDS * 4 + nodeBytes(root);
+    }
+
+    /**
+     * Reads the stats of the pet at a tick.
+     * @param index The tick, 0 for the first one recorded
+     * @param fields Filled with the health, happiness, fullness, sleep, score, state code,
+     *               cooldown and tick count
+     */
+    void read(int index, int[] fields) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Tick " + index + " of " + size);
+        byte[] leaf = index >= tailOffset() ? tail : leafFor(index);
+        decode(leaf, index & MASK, fields);
+    }
+
+    private int tailOffset() {
+        return size == 0 ? 0 : (size - 1) & ~MASK;
+    }
+
+    private byte[] leafFor(int index) {
+        Object[] node = root;
+        for (int level = shift; level > BITS; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (byte[]) node[(index >>> BITS) & MASK];
+    }
+
+    private static Object[] pushTail(int level, Object[] parent, byte[] leaf) {
+        int childIndex = parent.length;
+        if (level > BITS && childIndex > 0) {
+            // Fill the last child before starting a new one
+            Object[] last = (Object[]) parent[childIndex - 1];
+            if (!isFull(last, level - BITS)) {
+                Object[] copy = parent.clone();
+                copy[childIndex - 1] = pushTail(level - BITS, last, leaf);
+                return copy;
+            }
+        }
+        Object[] copy = Arrays.copyOf(parent, childIndex + 1);
+        copy[childIndex] = level == BITS ? leaf : newPath(level - BITS, leaf);
+        return copy;
+    }
+
+    private static boolean isFull(Object[] node, int level) {
+        while (true) {
+            if (node.length < LEAF_SIZE) return false;
+            if (level == BITS) return true;
+            node = (Object[]) node[LEAF_SIZE - 1];
+            level -= BITS;
+        }
+    }
+
+    private static Object[] newPath(int level, byte[] leaf) {
+        Object[] node = new Object[] {leaf};
+        for (int l = BITS; l < level; l += BITS) {
+            node = new Object[] {node};
+        }
+        return node;
+    }
+
+    /**
+     * Copies the path to the last index kept, cutting off everything to its right.
+     */
+    private static Object[] slice(int level, Object[] node, int lastIndex) {
+        int child = (lastIndex >>> level) & MASK;
+        Object[] copy = Arrays.copyOf(node, child + 1);
+        if (level > BITS) copy[child] = slice(level - BITS, (Object[]) node[child], lastIndex);
+        return copy;
+    }
+
+    private static long nodeBytes(Object node) {
+        if (node instanceof byte[]) return 16 + ((byte[]) node).length;
+        Object[] children = (Object[]) node;
+        long bytes = 16 + 4L * children.length;
+        for (Object child : children) {
+            bytes += nodeBytes(child);
+        }
+        return bytes;
+    }
+
+    /**
+     * Adds a tick to a leaf: in full if it is the first, otherwise a bitmask of the fields
+     * that changed followed by their changes.
+     */
+    private static byte[] encode(byte[] leaf, int[] previous, int[] fields) {
+        byte[] out = Arrays.copyOf(leaf, leaf.length + 1 + FIELDS * 5);
+        int position = leaf.length;
+        if (previous == null || leaf.length == 0) {
+            for (int field = 0; field < FIELDS; field++) {
+                position = putVarint(out, position, fields[field]);
+            }
+            return Arrays.copyOf(out, position);
+        }
+        int maskPosition = position++;
+        int mask = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            int delta = fields[field] - expected(previous, field);
+            if (delta != 0) {
+                mask |= 1 << field;
+                position = putVarint(out, position, delta);
+            }
+        }
+        out[maskPosition] = (byte) mask;
+        return Arrays.copyOf(out, position);
+    }
+
+    /**
+     * Decodes the ticks of a leaf up to the one wanted.
+     */
+    private static void decode(byte[] leaf, int entry, int[] fields) {
+        int[] position = {0};
+        for (int field = 0; field < FIELDS; field++) {
+            fields[field] = getVarint(leaf, position);
+        }
+        for (int e = 1; e <= entry; e++) {
+            int mask = leaf[position[0]++] & 0xFF;
+            int ticks = fields[TICKS];
+            fields[TICKS] = ticks + 1;
+            for (int field = 0; field < FIELDS; field++) {
+                if ((mask & (1 << field)) != 0) fields[field] += getVarint(leaf, position);
+            }
+        }
+    }
+
+    /**
+     * Finds where an entry of a leaf ends, to cut the leaf after it.
+     */
+    private static int endOfEntry(byte[] leaf, int entry) {
+        int[] position = {0};
+        for (int field = 0; field < FIELDS; field++) {
+            getVarint(leaf, position);
+        }
+        for (int e = 1; e <= entry; e++) {
+            int mask = leaf[position[0]++] & 0xFF;
+            for (int field = 0; field < FIELDS; field++) {
+                if ((mask & (1 << field)) != 0) getVarint(leaf, position);
+            }
+        }
+        return position[0];
+    }
+
+    private static int expected(int[] previous, int field) {
+        return field == TICKS ? previous[TICKS] + 1 : previous[field];
+    }
+
+    /**
+     * Writes a number in as few bytes as its size needs, 7 bits per byte, with the sign
+     * moved to the lowest bit so small negative changes stay short.
+     */
+    private static int putVarint(byte[] out, int position, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out[position++] = (byte) zigzag;
+        return position;
+    }
+
+    private static int getVarint(byte[] in, int[] position) {
+        int zigzag = 0;
+        int bits = 0;
+        byte b;
+        do {
+            b = in[position[0]++];
+            zigzag |= (b & 0x7F) << bits;
+            bits += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -3,6 +3,7 @@ package my_package;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 import java.io.IOException;
+import java.time.Clock;
 
 
 /**
@@ -13,18 +14,29 @@ public class PetManager {
     private Pet[] pets = new Pet[3];
     private final String PETS_FILE = "src/my_package/assets/data/Pets.json";
     private ObjectMapper mapper;
+    private final Clock clock; // Source of the current time for fast-forwarding
 
     /**
      * Constructs a new PetManager and initializes the pets collection.
      * Creates an ObjectMapper instance and loads existing pets from JSON file.
      */
     public PetManager() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a new PetManager whose pets are fast-forwarded by the given clock.
+     * @param clock The clock giving the current time
+     */
+    public PetManager(Clock clock) {
+        this.clock = clock;
         mapper = new ObjectMapper();
         loadPets();
     }
 
     /**
      * Loads pets from the JSON file into the pets array.
+     * Each pet is fast-forwarded through the time that passed since it was saved.
      * If the file doesn't exist or there's an error, initializes an empty pets array.
      */
     private void loadPets() {
@@ -34,6 +46,17 @@ public class PetManager {
         }catch(Exception e){
             System.out.println(e);
         }
+        for (Pet pet : pets) {
+            fastForward(pet);
+        }
+    }
+
+    /**
+     * Brings a saved pet up to date with the time that passed since it was last simulated.
+     * @param pet The pet to fast-forward, may be null
+     */
+    private void fastForward(Pet pet) {
+        if (pet != null) pet.fastForward(clock.millis(), GameManager.DECREASE_INTERVAL_MS);
     }
 
     /**
@@ -51,10 +74,26 @@ public class PetManager {
         return null;
     }
 
+    /**
+     * Retrieves the pet in a save slot as it is, without simulating it.
+     * @param index The save slot (0-2)
+     * @return The pet in the slot, or null if the slot is empty
+     */
     public Pet getPetbyIndex(int index){
         return pets[index];
     }
 
+    /**
+     * Opens the pet in a save slot to play with, fast-forwarded through the time that
+     * passed since it was last simulated. Call it before the pet starts ticking.
+     * @param index The save slot (0-2)
+     * @return The pet in the slot, or null if the slot is empty
+     */
+    public Pet openPet(int index){
+        fastForward(pets[index]);
+        return pets[index];
+    }
+
     /**
      * Adds a new pet to the first available empty slot in the collection.
      * @param pet The pet to add to the collection
@@ -74,9 +113,20 @@ public class PetManager {
         savePets();
     }
 
+    /**
+     * Saves the pets to the JSON file. Each pet is written from a {@link Pet#snapshot()},
+     * so a tick running at the same time cannot tear its stats. Pets with an event log
+     * also get a snapshot in their log.
+     */
     public void savePets(){
+        PetSnapshot[] snapshots = new PetSnapshot[pets.length];
+        for (int i = 0; i < pets.length; i++) {
+            if (pets[i] == null) continue;
+            snapshots[i] = pets[i].snapshot();
+            if (pets[i].getEventLog() != null) pets[i].getEventLog().checkpoint();
+        }
         try{
-        mapper.writeValue(new File(PETS_FILE), pets);
+        mapper.writeValue(new File(PETS_FILE), snapshots);
         }catch(Exception e){
             System.err.println(e);
         }
@@ -0,0 +1,169 @@
+package my_package;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * An immutable copy of a pet's stats, all taken at the same tick or action, from
+ * {@link Pet#snapshot()}. It is what the pet files are written from, so a save never mixes
+ * stats from before and after a tick; its JSON has the same properties as a {@link Pet}
+ * and is read back as one.
+ */
+@JsonPropertyOrder({"id", "type", "name", "health", "happiness", "fullness", "sleep", "cooldown", "state", "score", "lastSimulated"})
+public final class PetSnapshot {
+    private final String id;
+    private final String name;
+    private final String type;
+    private final int health;
+    private final int happiness;
+    private final int fullness;
+    private final int sleep;
+    private final int score;
+    private final int cooldown;
+    private final PetState state;
+    private final long lastSimulated;
+
+    /**
+     * Constructs a snapshot from values read together.
+     * @param name The name of the pet
+     * @param type The type of pet (owl, cat...)
+     * @param health The health value
+     * @param happiness The happiness value
+     * @param fullness The fullness value
+     * @param sleep The sleep value
+     * @param score The score
+     * @param cooldown The cooldown value
+     * @param state The state
+     * @param lastSimulated The time in milliseconds the stats were simulated up to, 0 if unknown
+     */
+    PetSnapshot(String name, String type, int health, int happiness, int fullness, int sleep, int score,
+            int cooldown, PetState state, long lastSimulated) {
+        this(null, name, type, health, happiness, fullness, sleep, score, cooldown, state, lastSimulated);
+    }
+
+    /**
+     * Constructs a snapshot of a pet with an id, from values read together.
+     * @param id The stable id of the pet, or null if unknown
+     * @param name The name of the pet
+     * @param type The type of pet (owl, cat...)
+     * @param health The health value
+     * @param happiness The happiness value
+     * @param fullness The fullness value
+     * @param sleep The sleep value
+     * @param score The score
+     * @param cooldown The cooldown value
+     * @param state The state
+     * @param lastSimulated The time in milliseconds the stats were simulated up to, 0 if unknown
+     */
+    PetSnapshot(String id, String name, String type, int health, int happiness, int fullness, int sleep, int score,
+            int cooldown, PetState state, long lastSimulated) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.health = health;
+        this.happiness = happiness;
+        this.fullness = fullness;
+        this.sleep = sleep;
+        this.score = score;
+        this.cooldown = cooldown;
+        this.state = state;
+        this.lastSimulated = lastSimulated;
+    }
+
+    /**
+     * Gets the stable id of the pet, which names its event log.
+     * @return The pet's id, or null if unknown
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the pet.
+     * @return The pet's name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the pet.
+     * @return The pet's type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the health value of the pet.
+     * @return The pet's health value
+     */
+    public int getHealth() {
+        return health;
+    }
+
+    /**
+     * Gets the happiness value of the pet.
+     * @return The pet's happiness value
+     */
+    public int getHappiness() {
+        return happiness;
+    }
+
+    /**
+     * Gets the fullness value of the pet.
+     * @return The pet's fullness value
+     */
+    public int getFullness() {
+        return fullness;
+    }
+
+    /**
+     * Gets the sleep value of the pet.
+     * @return The pet's sleep value
+     */
+    public int getSleep() {
+        return sleep;
+    }
+
+    /**
+     * Gets the score of the pet.
+     * @return The pet's score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the cooldown value of the pet.
+     * @return The pet's cooldown value
+     */
+    public int getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Gets the state of the pet, as saved in the pet files.
+     * @return The name of the pet's state
+     */
+    public String getState() {
+        return state.getName();
+    }
+
+    /**
+     * Gets the state of the pet as a state machine value.
+     * @return The pet's state
+     */
+    @JsonIgnore
+    public PetState getPetState() {
+        return state;
+    }
+
+    /**
+     * Gets the time the pet's stats were simulated up to.
+     * @return The time in milliseconds since the epoch, 0 if unknown
+     */
+    public long getLastSimulated() {
+        return lastSimulated;
+    }
+}
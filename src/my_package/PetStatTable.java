@@ -0,0 +1,544 @@
+package my_package;
+
+import java.util.Arrays;
+
+/**
+ * Stores the stats of many pets in parallel primitive arrays, one row per pet.
+ * The batch {@link #tick(int, int)} kernel applies the gameplay rules to a whole range
+ * of rows in one loop, without setters or change events.
+ * A {@link Pet} is a view over one row of a table.
+ */
+public class PetStatTable {
+    // State codes are the ordinals of PetState, kept as int constants for the kernels' switches
+    /** State code of a pet with no special state */
+    static final int DEFAULT = 0;
+    /** State code of a sleeping pet */
+    static final int ASLEEP = 1;
+    /** State code of a hungry pet */
+    static final int HUNGRY = 2;
+    /** State code of an angry pet */
+    static final int ANGRY = 3;
+    /** State code of a dead pet */
+    static final int DEAD = 4;
+
+    // Max {health, happiness, fullness, sleep} for each type, indexed like the Species registry
+    private static final int[][] STATS = stats();
+    // The same max stats split by column, so vector lanes can gather them by type
+    static final int[] MAX_HEALTH = column(0);
+    static final int[] MAX_HAPPINESS = column(1);
+    static final int[] MAX_FULLNESS = column(2);
+    static final int[] MAX_SLEEP = column(3);
+
+    // The vector kernel can only be loaded when the incubating module was added at startup
+    private static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** Number of ticks between two stat decays */
+    static final int DECAY_PERIOD = 5;
+
+    int[] health;
+    int[] happiness;
+    int[] fullness;
+    int[] sleep;
+    int[] score;
+    int[] state;
+    int[] type;
+    int[] cooldown;
+    int[] ticks;
+    int[][] columns; // health, happiness, fullness, sleep and score, indexed by TickRules stat
+    private int size;
+
+    /**
+     * Constructs an empty table.
+     * @param capacity The number of rows to allocate up front
+     */
+    public PetStatTable(int capacity) {
+        capacity = Math.max(1, capacity);
+        health = new int[capacity];
+        happiness = new int[capacity];
+        fullness = new int[capacity];
+        sleep = new int[capacity];
+        score = new int[capacity];
+        state = new int[capacity];
+        type = new int[capacity];
+        cooldown = new int[capacity];
+        ticks = new int[capacity];
+        columns = new int[][] {health, happiness, fullness, sleep, score};
+    }
+
+    /**
+     * Adds a row for a new pet of the given type with all stats at their max.
+     * @param typeName The type of pet (owl, cat...)
+     * @return The index of the new row
+     */
+    public int addRow(String typeName) {
+        if (size == health.length) grow(size * 2);
+        int row = size++;
+        setType(row, typeName);
+        reset(row);
+        return row;
+    }
+
+    /**
+     * Adds a row holding a copy of the given pet's stats.
+     * @param pet The pet to copy
+     * @return The index of the new row
+     */
+    public int addRow(Pet pet) {
+        int row = addRow(pet.getType());
+        health[row] = pet.getHealth();
+        happiness[row] = pet.getHappiness();
+        fullness[row] = pet.getFullness();
+        sleep[row] = pet.getSleep();
+        score[row] = pet.getScore();
+        state[row] = stateCode(pet.getState());
+        cooldown[row] = pet.getCooldown();
+        return row;
+    }
+
+    /**
+     * Gets the number of rows in the table.
+     * @return The row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets every stat of a row to its max and the state to default.
+     * The score is kept.
+     * @param row The row to reset
+     */
+    void reset(int row) {
+        int[] max = STATS[type[row]];
+        health[row] = max[0];
+        happiness[row] = max[1];
+        fullness[row] = max[2];
+        sleep[row] = max[3];
+        cooldown[row] = 0;
+        state[row] = DEFAULT;
+    }
+
+    /**
+     * Runs one gameplay tick for every row in the range.
+     * Each row keeps its own tick count, so the every-5-ticks decay phase is per pet.
+     * @param from The first row to tick (inclusive)
+     * @param to The last row to tick (exclusive)
+     */
+    public void tick(int from, int to) {
+        for (int i = from; i < to; i++) {
+            int[] max = STATS[type[i]];
+            int t = ++ticks[i];
+            boolean decay = t % DECAY_PERIOD == 0;
+            int st = state[i];
+            int h = health[i];
+            int hp = happiness[i];
+            int f = fullness[i];
+            int s = sleep[i];
+            int sc = score[i];
+
+            // Pet state requirements
+            if (st == ASLEEP) s++;
+            if (st == HUNGRY && decay) {
+                hp -= 2; // Happiness rate of decline is doubled
+                h -= 2;
+            }
+            if (decay) {
+                sc += 5;
+                if (st != ASLEEP) s -= 4;
+                hp -= 2;
+                f -= 1;
+            }
+
+            // Same limits as Pet.statLimiter
+            h = Math.max(0, Math.min(h, max[0]));
+            hp = Math.max(0, Math.min(hp, max[1]));
+            f = Math.max(0, Math.min(f, max[2]));
+            s = Math.max(0, Math.min(s, max[3]));
+            sc = Math.max(0, sc);
+
+            // Leave a special state once its condition is met, then same rules as Pet.setState()
+            if (st == ASLEEP && s == max[3]) st = DEFAULT;
+            if (st == HUNGRY && f > 0) st = DEFAULT;
+            if (st == ANGRY && hp > max[1] / 2) st = DEFAULT;
+            if (st == DEFAULT) {
+                if (s < 1) {
+                    st = ASLEEP;
+                    h -= 15;
+                } else if (f < 1) st = HUNGRY;
+                else if (hp < 1) st = ANGRY;
+            }
+            if (h < 1) st = DEAD;
+
+            health[i] = h;
+            happiness[i] = hp;
+            fullness[i] = f;
+            sleep[i] = s;
+            score[i] = sc;
+            state[i] = st;
+        }
+    }
+
+    /**
+     * Runs one gameplay tick for every row in the range using the SIMD kernel when the
+     * jdk.incubator.vector module is available, and the scalar kernel otherwise.
+     * Both paths give the same results.
+     * @param from The first row to tick (inclusive)
+     * @param to The last row to tick (exclusive)
+     */
+    public void tickVectorized(int from, int to) {
+        TickRules rules = TickRules.getActive();
+        if (!rules.isBuiltIn()) rules.tick(this, from, to); // The SIMD kernel only knows the built-in rules
+        else if (VECTOR_AVAILABLE) VectorTickKernel.tick(this, from, to);
+        else tick(from, to);
+    }
+
+    /**
+     * Counts down the action cooldown of every row in the range by one tick, as
+     * {@link Pet} does before each of its ticks.
+     * @param from The first row (inclusive)
+     * @param to The last row (exclusive)
+     */
+    void countDownCooldowns(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (cooldown[i] > 0) cooldown[i]--;
+        }
+    }
+
+    /**
+     * Checks whether {@link #tickVectorized(int, int)} uses the SIMD kernel.
+     * @return true if the jdk.incubator.vector module is available
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Advances a row by the given number of ticks, with the same result as calling
+     * {@link #tick(int, int)} that many times. Between two state changes every stat moves
+     * linearly, so the row jumps straight from one state change to the next and only the
+     * ticks where the state changes are simulated one by one. The cost does not depend on
+     * the number of ticks.
+     * The action cooldown counts down by one per tick, as {@link Pet} does before each of
+     * its ticks, so a pet brought up to date this way can act again.
+     * @param row The row to advance
+     * @param count The number of ticks to advance by
+     */
+    public void advance(int row, long count) {
+        if (count <= 0) return;
+        cooldown[row] = (int) Math.max(0, cooldown[row] - count); // Nothing else reads it during the ticks
+        TickRules rules = TickRules.getActive();
+        if (!rules.isBuiltIn()) {
+            // The closed form only holds for the built-in rules; interpret custom ones tick by tick
+            for (long i = 0; i < count; i++) {
+                rules.tick(this, row, row + 1);
+            }
+            return;
+        }
+        // One real tick first brings every stat within its limits
+        tick(row, row + 1);
+        count--;
+        while (count > 0) {
+            long next = ticksUntilStateChange(row);
+            if (next > count) {
+                jump(row, count);
+                return;
+            }
+            jump(row, next - 1);
+            tick(row, row + 1);
+            count -= next;
+        }
+    }
+
+    /**
+     * Gets a lower bound on the number of ticks until the state of a row next changes.
+     * The bound is exact when the row's stats are within their limits, which is always the
+     * case after a tick. It is 1 when the row may change state on the very next tick.
+     * @param row The row to check
+     * @return The number of ticks, counting the tick that changes the state,
+     *         or Long.MAX_VALUE if the state never changes on its own
+     */
+    public long ticksUntilStateChange(int row) {
+        if (!TickRules.getActive().isBuiltIn()) return 1; // Custom rules may change state on any tick
+        int[] max = STATS[type[row]];
+        int h = health[row];
+        int hp = happiness[row];
+        int f = fullness[row];
+        int s = sleep[row];
+        if (h > max[0] || hp > max[1] || f > max[2] || s > max[3] || hp < 0 || f < 0 || s < 0) return 1;
+        // Ticks until the next decay, from 1 to DECAY_PERIOD
+        long firstDecay = DECAY_PERIOD - Math.floorMod((long) ticks[row], DECAY_PERIOD);
+        switch (state[row]) {
+            case DEFAULT: {
+                if (h < 1 || s < 1 || f < 1 || hp < 1) return 1;
+                // Decays until sleep, fullness or happiness drops below 1
+                long decays = Math.min(Math.min((s + 3) / 4, f), (hp + 1) / 2);
+                return firstDecay + DECAY_PERIOD * (decays - 1);
+            }
+            case ASLEEP:
+                if (h < 1) return 1;
+                return Math.max(1, max[3] - s); // Sleep regenerates by 1 every tick
+            case HUNGRY: {
+                if (h < 1 || f > 0) return 1;
+                long decays = (h + 1) / 2; // Health drops by 2 on every decay until the pet dies
+                return firstDecay + DECAY_PERIOD * (decays - 1);
+            }
+            case ANGRY:
+                if (h < 1 || hp > max[1] / 2) return 1;
+                return Long.MAX_VALUE; // Happiness only drops, and health does not change
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Applies the given number of ticks to a row in one step. Only valid when the row's
+     * stats are within their limits and its state does not change during those ticks.
+     */
+    private void jump(int row, long count) {
+        if (count <= 0) return;
+        int[] max = STATS[type[row]];
+        long tc = ticks[row];
+        long decays = Math.floorDiv(tc + count, DECAY_PERIOD) - Math.floorDiv(tc, DECAY_PERIOD);
+        int st = state[row];
+        long hungerLoss = st == HUNGRY ? 2 * decays : 0;
+
+        health[row] = (int) Math.max(0, Math.min(health[row] - hungerLoss, max[0]));
+        happiness[row] = (int) Math.max(0, happiness[row] - 2 * decays - hungerLoss);
+        fullness[row] = (int) Math.max(0, fullness[row] - decays);
+        if (st == ASLEEP) sleep[row] = (int) Math.min(max[3], sleep[row] + count);
+        else sleep[row] = (int) Math.max(0, sleep[row] - 4 * decays);
+        score[row] = (int) Math.min(Integer.MAX_VALUE, score[row] + 5 * decays);
+        ticks[row] = (int) (tc + count);
+    }
+
+    /**
+     * Copies a row over another, for example to fill the gap left by a removed pet.
+     * @param from The row to copy
+     * @param to The row to overwrite
+     */
+    void moveRow(int from, int to) {
+        for (int[] column : columns) {
+            column[to] = column[from];
+        }
+        state[to] = state[from];
+        type[to] = type[from];
+        cooldown[to] = cooldown[from];
+        ticks[to] = ticks[from];
+    }
+
+    /**
+     * Limits every stat of a row to the range 0 to its max, and the score to at least 0.
+     * @param row The row to limit
+     */
+    void limit(int row) {
+        int[] max = STATS[type[row]];
+        health[row] = Math.max(0, Math.min(health[row], max[0]));
+        happiness[row] = Math.max(0, Math.min(happiness[row], max[1]));
+        fullness[row] = Math.max(0, Math.min(fullness[row], max[2]));
+        sleep[row] = Math.max(0, Math.min(sleep[row], max[3]));
+        score[row] = Math.max(0, score[row]);
+    }
+
+    /**
+     * Gets the health of a row.
+     * @param row The row to read
+     * @return The health value
+     */
+    public int getHealth(int row) {
+        return health[row];
+    }
+
+    /**
+     * Gets the happiness of a row.
+     * @param row The row to read
+     * @return The happiness value
+     */
+    public int getHappiness(int row) {
+        return happiness[row];
+    }
+
+    /**
+     * Gets the fullness of a row.
+     * @param row The row to read
+     * @return The fullness value
+     */
+    public int getFullness(int row) {
+        return fullness[row];
+    }
+
+    /**
+     * Gets the sleep of a row.
+     * @param row The row to read
+     * @return The sleep value
+     */
+    public int getSleep(int row) {
+        return sleep[row];
+    }
+
+    /**
+     * Gets the score of a row.
+     * @param row The row to read
+     * @return The score value
+     */
+    public int getScore(int row) {
+        return score[row];
+    }
+
+    /**
+     * Gets the state of a row.
+     * @param row The row to read
+     * @return The state name (default, asleep...)
+     */
+    public String getState(int row) {
+        return PetState.fromCode(state[row]).getName();
+    }
+
+    /**
+     * Gets the type of a row.
+     * @param row The row to read
+     * @return The type name (cat, owl...)
+     */
+    public String getType(int row) {
+        return Species.byIndex(type[row]).getName();
+    }
+
+    /**
+     * Gets the species of a row.
+     * @param row The row to read
+     * @return The shared species instance
+     */
+    public Species getSpecies(int row) {
+        return Species.byIndex(type[row]);
+    }
+
+    /**
+     * Sets the type of a row. Unknown types use the default max stats.
+     * @param row The row to change
+     * @param typeName The type of pet (owl, cat...)
+     */
+    public void setType(int row, String typeName) {
+        type[row] = typeCode(typeName);
+    }
+
+    /**
+     * Gets the max health of a row.
+     * @param row The row to read
+     * @return The max health for the row's type
+     */
+    public int getMaxHealth(int row) {
+        return STATS[type[row]][0];
+    }
+
+    /**
+     * Gets the max happiness of a row.
+     * @param row The row to read
+     * @return The max happiness for the row's type
+     */
+    public int getMaxHappiness(int row) {
+        return STATS[type[row]][1];
+    }
+
+    /**
+     * Gets the max fullness of a row.
+     * @param row The row to read
+     * @return The max fullness for the row's type
+     */
+    public int getMaxFullness(int row) {
+        return STATS[type[row]][2];
+    }
+
+    /**
+     * Gets the max sleep of a row.
+     * @param row The row to read
+     * @return The max sleep for the row's type
+     */
+    public int getMaxSleep(int row) {
+        return STATS[type[row]][3];
+    }
+
+    /**
+     * Gets the number of pet types, including the default type at index 0.
+     * @return The type count
+     */
+    static int typeCount() {
+        return STATS.length;
+    }
+
+    /**
+     * Gets a max stat of a pet type.
+     * @param typeIndex The type index
+     * @param stat The stat, 0 to 3 for health, happiness, fullness and sleep
+     * @return The max value of the stat for that type
+     */
+    static int maxStat(int typeIndex, int stat) {
+        return STATS[typeIndex][stat];
+    }
+
+    /**
+     * Converts a state name to its code.
+     * @param name The state name (default, asleep...)
+     * @return The state code, default for unknown names
+     */
+    static int stateCode(String name) {
+        return PetState.fromName(name).ordinal();
+    }
+
+    /**
+     * Converts a state code to its name.
+     * @param code The state code
+     * @return The state name
+     */
+    static String stateName(int code) {
+        return PetState.fromCode(code).getName();
+    }
+
+    /**
+     * Converts a type index to its name.
+     * @param code The type index
+     * @return The type name (cat, owl...), null for the default type
+     */
+    static String typeName(int code) {
+        return Species.byIndex(code).getName();
+    }
+
+    /**
+     * Converts a type name to its index in the max stats table.
+     * @param name The type of pet (owl, cat...)
+     * @return The type index, 0 for null or unknown types
+     */
+    static int typeCode(String name) {
+        return Species.forName(name).getIndex();
+    }
+
+    private static int[][] stats() {
+        int[][] stats = new int[Species.count()][];
+        for (int i = 0; i < stats.length; i++) {
+            Species species = Species.byIndex(i);
+            stats[i] = new int[] {species.getMaxHealth(), species.getMaxHappiness(),
+                    species.getMaxFullness(), species.getMaxSleep()};
+        }
+        return stats;
+    }
+
+    private static int[] column(int stat) {
+        int[] column = new int[STATS.length];
+        for (int i = 0; i < STATS.length; i++) {
+            column[i] = STATS[i][stat];
+        }
+        return column;
+    }
+
+    private void grow(int capacity) {
+        health = Arrays.copyOf(health, capacity);
+        happiness = Arrays.copyOf(happiness, capacity);
+        fullness = Arrays.copyOf(fullness, capacity);
+        sleep = Arrays.copyOf(sleep, capacity);
+        score = Arrays.copyOf(score, capacity);
+        state = Arrays.copyOf(state, capacity);
+        type = Arrays.copyOf(type, capacity);
+        cooldown = Arrays.copyOf(cooldown, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        columns = new int[][] {health, happiness, fullness, sleep, score};
+    }
+}
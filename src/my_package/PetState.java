@@ -0,0 +1,163 @@
+package my_package;
+
+/**
+ * The states a pet can be in, as a finite state machine.
+ * Everything the game needs to know about a state is worked out once, up front: the
+ * transition table, the actions the player may take (as a bitmask of buttons) and the
+ * sprite paths for every pet type. Ticking and redrawing a pet therefore never compare
+ * or build strings. The ordinal of each state is its code in {@link PetStatTable}.
+ */
+public enum PetState {
+    DEFAULT("default", PetState.ALL_ACTIONS),
+    ASLEEP("asleep", PetState.SAVE),
+    HUNGRY("hungry", PetState.ALL_ACTIONS),
+    ANGRY("angry", PetState.GIFT | PetState.PLAY | PetState.EXERCISE | PetState.SAVE),
+    DEAD("dead", 0);
+
+    /** Action bit of the feed button */
+    public static final int FEED = 1;
+    /** Action bit of the vet button */
+    public static final int VET = 1 << 1;
+    /** Action bit of the gift button */
+    public static final int GIFT = 1 << 2;
+    /** Action bit of the play button */
+    public static final int PLAY = 1 << 3;
+    /** Action bit of the exercise button */
+    public static final int EXERCISE = 1 << 4;
+    /** Action bit of the sleep button */
+    public static final int SLEEP = 1 << 5;
+    /** Action bit of the save button */
+    public static final int SAVE = 1 << 6;
+    /** Every action bit */
+    public static final int ALL_ACTIONS = FEED | VET | GIFT | PLAY | EXERCISE | SLEEP | SAVE;
+
+    /**
+     * The conditions that can move a pet from one state to another.
+     */
+    public enum Trigger {
+        /** Sleep dropped below 1 */
+        EXHAUSTED,
+        /** Fullness dropped below 1 */
+        STARVED,
+        /** Happiness dropped below 1 */
+        UPSET,
+        /** Health dropped below 1 */
+        DIED,
+        /** Sleep was restored to its max */
+        RESTED,
+        /** Fullness rose above 0 */
+        FED,
+        /** Happiness rose above half its max */
+        CALMED
+    }
+
+    private static final PetState[] VALUES = values();
+    private static final PetState[][] TRANSITIONS = transitions();
+    private static final int FRAMES = 2;
+    private static final String[][][] SPRITES = sprites(); // [type][state][frame]
+
+    private final String name;
+    private final int enabledActions;
+
+    PetState(String name, int enabledActions) {
+        this.name = name;
+        this.enabledActions = enabledActions;
+    }
+
+    /**
+     * Gets the name of the state, as saved in the pet files.
+     * @return The state name (default, asleep...)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the actions the player may take in this state.
+     * @return A bitmask of action bits such as {@link #FEED}
+     */
+    public int getEnabledActions() {
+        return enabledActions;
+    }
+
+    /**
+     * Checks whether the player may take an action in this state.
+     * @param action The action bit, such as {@link #FEED}
+     * @return true if the action is enabled
+     */
+    public boolean isEnabled(int action) {
+        return (enabledActions & action) != 0;
+    }
+
+    /**
+     * Looks up the state a trigger leads to from this state.
+     * @param trigger The condition that was met
+     * @return The next state, or this state if the trigger does not apply here
+     */
+    public PetState next(Trigger trigger) {
+        return TRANSITIONS[ordinal()][trigger.ordinal()];
+    }
+
+    /**
+     * Gets the resource path of a sprite for this state. The paths are built once, so
+     * the same String instance is returned every time.
+     * @param typeIndex The type index from {@link PetStatTable}
+     * @param frame The animation frame, 0 or 1; dead pets only have frame 0
+     * @return The sprite path
+     */
+    public String getSpritePath(int typeIndex, int frame) {
+        return SPRITES[typeIndex][ordinal()][frame];
+    }
+
+    /**
+     * Converts a state code from {@link PetStatTable} to its state.
+     * @param code The state code
+     * @return The state
+     */
+    public static PetState fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * Converts a state name to its state.
+     * @param name The state name (default, asleep...)
+     * @return The state, DEFAULT for unknown names
+     */
+    public static PetState fromName(String name) {
+        for (PetState state : VALUES) {
+            if (state.name.equals(name)) return state;
+        }
+        return DEFAULT;
+    }
+
+    private static PetState[][] transitions() {
+        Trigger[] triggers = Trigger.values();
+        PetState[][] table = new PetState[VALUES.length][triggers.length];
+        for (PetState from : VALUES) {
+            for (Trigger trigger : triggers) {
+                table[from.ordinal()][trigger.ordinal()] = from; // No change unless listed below
+            }
+            if (from != DEAD) table[from.ordinal()][Trigger.DIED.ordinal()] = DEAD;
+        }
+        table[DEFAULT.ordinal()][Trigger.EXHAUSTED.ordinal()] = ASLEEP;
+        table[DEFAULT.ordinal()][Trigger.STARVED.ordinal()] = HUNGRY;
+        table[DEFAULT.ordinal()][Trigger.UPSET.ordinal()] = ANGRY;
+        table[ASLEEP.ordinal()][Trigger.RESTED.ordinal()] = DEFAULT;
+        table[HUNGRY.ordinal()][Trigger.FED.ordinal()] = DEFAULT;
+        table[ANGRY.ordinal()][Trigger.CALMED.ordinal()] = DEFAULT;
+        return table;
+    }
+
+    private static String[][][] sprites() {
+        String[][][] sprites = new String[PetStatTable.typeCount()][VALUES.length][FRAMES];
+        for (int type = 0; type < sprites.length; type++) {
+            for (PetState state : VALUES) {
+                String base = "/my_package/assets/sprites/" + PetStatTable.typeName(type) + "_" + state.name;
+                sprites[type][state.ordinal()][0] = (base + ".png").intern();
+                // Dead pets have a single frame
+                sprites[type][state.ordinal()][1] = state == DEAD ? sprites[type][state.ordinal()][0] : (base + "2.png").intern();
+            }
+        }
+        return sprites;
+    }
+}
@@ -57,6 +57,14 @@ public class Player {
     public void setScore(int s){
         score = s;
     }
+
+    /**
+     * Gets the player's pet collection.
+     * @return The PetManager containing the player's pets
+     */
+    public PetManager getPetList(){
+        return PetList;
+    }
     
 
 
@@ -0,0 +1,121 @@
+package my_package;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One headless play session: a player's pet, driven by its own thread.
+ * The session thread owns the pet's {@link ActionMailbox}, so actions submitted from any
+ * thread run on it at the start of the next tick. Between ticks the thread sleeps; on a
+ * virtual thread that only parks it, so one session costs little more than its pet.
+ * Saving also runs on the session's thread. Sessions do not save unless given a save action:
+ * {@link PetManager#savePets()} and the inventory write shared files, so concurrent sessions
+ * saving there would overwrite each other. Give each session an action writing to its own path.
+ * Run sessions with a {@link SessionExecutor}.
+ */
+public class PlayerSession implements Runnable {
+    private final Player player;
+    private final Pet pet;
+    private final GameManager gameManager;
+    private final long tickNanos;
+    private Runnable saveAction;
+    private int saveEveryTicks;
+    private volatile boolean stopped;
+    private volatile long ticks;
+
+    /**
+     * Constructs a session for a player's pet.
+     * @param player The player playing the session
+     * @param pet The pet to simulate
+     * @param tickMillis The time between ticks in milliseconds
+     */
+    public PlayerSession(Player player, Pet pet, long tickMillis) {
+        this.player = player;
+        this.pet = pet;
+        this.gameManager = new GameManager(pet);
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.saveAction = null; // Nothing is saved until setSaveAction is called
+    }
+
+    /**
+     * Sets how the session saves, and how often besides when it ends.
+     * @param saveAction The save to run on the session's thread, writing only this session's files, or null to not save
+     * @param everyTicks The number of ticks between saves, or 0 to only save at the end
+     */
+    public void setSaveAction(Runnable saveAction, int everyTicks) {
+        this.saveAction = saveAction;
+        this.saveEveryTicks = everyTicks;
+    }
+
+    /**
+     * Runs the session until it is stopped: ticks the pet at a fixed rate, saving as set.
+     */
+    @Override
+    public void run() {
+        pet.stopLazyEvaluation();
+        pet.resetTicks();
+        pet.getMailbox().setOwned(true);
+        try {
+            long next = System.nanoTime();
+            while (!stopped) {
+                gameManager.tick();
+                ticks++;
+                if (saveEveryTicks > 0 && ticks % saveEveryTicks == 0) save();
+                next += tickNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(this, wait);
+                if (Thread.interrupted()) break;
+            }
+        } finally {
+            pet.getMailbox().setOwned(false);
+            save();
+        }
+    }
+
+    /**
+     * Asks the session to end after its current tick.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Gets the game manager of the session, to request actions on its pet.
+     * @return The session's game manager
+     */
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
+    /**
+     * Gets the player of the session.
+     * @return The player, or null for a session without one
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the pet of the session.
+     * @return The simulated pet
+     */
+    public Pet getPet() {
+        return pet;
+    }
+
+    /**
+     * Gets the number of ticks the session has run.
+     * @return The tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    private void save() {
+        if (saveAction == null) return;
+        try {
+            saveAction.run();
+        } catch (RuntimeException e) {
+            System.err.println(e);
+        }
+    }
+}
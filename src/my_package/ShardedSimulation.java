@@ -0,0 +1,130 @@
+package my_package;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Ticks a large population of pets on several cores at once.
+ * The rows of a {@link PetStatTable} are split into shards of consecutive rows, small
+ * enough for each shard's columns to stay in a core's cache. Every tick forks one task
+ * per group of shards on a {@link ForkJoinPool}; idle workers steal shards from busy ones,
+ * and the tick only returns once every shard is done, so ticks never overlap.
+ * As in {@link Pet}, each pet's action cooldown counts down before each of its ticks.
+ */
+public class ShardedSimulation implements AutoCloseable {
+    /** Default number of rows per shard: 4096 rows make 16 KB per stat column */
+    public static final int DEFAULT_SHARD_SIZE = 4096;
+
+    private final PetStatTable table;
+    private final int shardSize;
+    private final ForkJoinPool pool;
+    private long ticks;
+
+    /**
+     * Constructs a sharded simulation with the default shard size.
+     * @param table The pets to simulate
+     * @param parallelism The number of worker threads
+     */
+    public ShardedSimulation(PetStatTable table, int parallelism) {
+        this(table, parallelism, DEFAULT_SHARD_SIZE);
+    }
+
+    /**
+     * Constructs a sharded simulation.
+     * @param table The pets to simulate
+     * @param parallelism The number of worker threads
+     * @param shardSize The number of rows per shard
+     */
+    public ShardedSimulation(PetStatTable table, int parallelism, int shardSize) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        if (shardSize < 1) throw new IllegalArgumentException("Shard size must be at least 1: " + shardSize);
+        this.table = table;
+        this.shardSize = shardSize;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pet-shard-" + thread.getPoolIndex());
+            thread.setDaemon(true); // Never keep the application alive on its own
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Runs one tick of the active {@link TickRules} over every pet, after counting down
+     * their cooldowns, returning once all shards are done.
+     */
+    public void tick() {
+        int shards = getShardCount();
+        if (shards > 0) pool.invoke(new ShardTask(0, shards));
+        ticks++;
+    }
+
+    /**
+     * Runs several ticks, one after another.
+     * @param count The number of ticks to run
+     */
+    public void tick(int count) {
+        for (int i = 0; i < count; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Gets the number of ticks run so far.
+     * @return The tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     * @return The parallelism level
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Gets the number of shards the table is split into.
+     * @return The shard count
+     */
+    public int getShardCount() {
+        return (table.size() + shardSize - 1) / shardSize;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Ticks a range of shards, splitting it in half until one shard is left.
+     */
+    private final class ShardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // Never serialized; RecursiveAction is Serializable
+        private final int firstShard;
+        private final int endShard;
+
+        private ShardTask(int firstShard, int endShard) {
+            this.firstShard = firstShard;
+            this.endShard = endShard;
+        }
+
+        @Override
+        protected void compute() {
+            if (endShard - firstShard == 1) {
+                int from = firstShard * shardSize;
+                int to = Math.min(table.size(), from + shardSize);
+                table.countDownCooldowns(from, to);
+                table.tickVectorized(from, to);
+                return;
+            }
+            int middle = (firstShard + endShard) >>> 1;
+            invokeAll(new ShardTask(firstShard, middle), new ShardTask(middle, endShard));
+        }
+    }
+}
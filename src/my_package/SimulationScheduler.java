@@ -0,0 +1,266 @@
+package my_package;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Process-wide scheduler that drives the periodic gameplay of every pet.
+ * All game managers register their tick with this single shared instance, so the number
+ * of simulation threads stays fixed no matter how many pets are active.
+ * The scheduler measures how late every tick runs against its due time, into a
+ * {@link LatencyHistogram}. A tick that runs a whole period or more late, after a GC pause
+ * or a busy pool, is handled by the {@link CatchUp} policy.
+ */
+public final class SimulationScheduler {
+    private static final SimulationScheduler INSTANCE =
+            new SimulationScheduler(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    private final ScheduledExecutorService executor;
+    private final int threadCount;
+    private final AtomicInteger registeredCount = new AtomicInteger();
+    private final LongAdder tickCount = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private final LatencyHistogram lateness = new LatencyHistogram();
+    private final LongAdder burstCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder foldedCount = new LongAdder();
+    private volatile CatchUp catchUp = CatchUp.BURST;
+
+    /**
+     * What to do with ticks that are due while an earlier one is still late.
+     */
+    public enum CatchUp {
+        /** Run every missed tick, back to back, as soon as possible */
+        BURST,
+        /** Drop the missed ticks and carry on at the next due time */
+        SKIP,
+        /** Run the missed ticks in one step, telling the tick how many periods it covers */
+        FOLD
+    }
+
+    /**
+     * Constructs a scheduler backed by a fixed pool of daemon threads.
+     * @param threadCount The number of simulation threads to use
+     */
+    SimulationScheduler(int threadCount) {
+        this.threadCount = threadCount;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "pet-simulation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true); // Never keep the application alive on its own
+            return thread;
+        };
+        this.executor = Executors.newScheduledThreadPool(threadCount, factory);
+    }
+
+    /**
+     * Gets the shared scheduler used by every game manager.
+     * @return The process-wide scheduler
+     */
+    public static SimulationScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a pet's tick to run at a fixed rate, starting immediately.
+     * @param tick The work to run on every tick
+     * @param periodMs The time between ticks in milliseconds
+     * @return A handle used to unregister the tick
+     */
+    public Registration register(Runnable tick, long periodMs) {
+        return register(tick, 0, periodMs);
+    }
+
+    /**
+     * Registers a pet's tick to run at a fixed rate, starting after a delay.
+     * @param tick The work to run on every tick
+     * @param delayMs The time before the first tick in milliseconds
+     * @param periodMs The time between ticks in milliseconds
+     * @return A handle used to unregister the tick
+     */
+    public Registration register(Runnable tick, long delayMs, long periodMs) {
+        return register(periods -> {
+            for (int i = 0; i < periods; i++) {
+                tick.run();
+            }
+        }, delayMs, periodMs);
+    }
+
+    /**
+     * Registers a pet's tick to run at a fixed rate, starting after a delay. The tick is
+     * told how many periods it covers: 1, or more when missed ticks are folded into it.
+     * @param tick The work to run on every tick, given the number of periods to cover
+     * @param delayMs The time before the first tick in milliseconds
+     * @param periodMs The time between ticks in milliseconds
+     * @return A handle used to unregister the tick
+     */
+    public Registration register(IntConsumer tick, long delayMs, long periodMs) {
+        Registration registration = new Registration(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs),
+                TimeUnit.MILLISECONDS.toNanos(periodMs));
+        registration.future = executor.scheduleAtFixedRate(() -> registration.run(tick), delayMs, periodMs, TimeUnit.MILLISECONDS);
+        registeredCount.incrementAndGet();
+        return registration;
+    }
+
+    /**
+     * Sets how ticks that fall a period or more behind are caught up. The default,
+     * {@link CatchUp#BURST}, runs every one of them.
+     * @param catchUp The catch-up policy for every registered tick
+     */
+    public void setCatchUp(CatchUp catchUp) {
+        this.catchUp = catchUp;
+    }
+
+    /**
+     * Gets how ticks that fall a period or more behind are caught up.
+     * @return The catch-up policy
+     */
+    public CatchUp getCatchUp() {
+        return catchUp;
+    }
+
+    /**
+     * Gets the histogram of how late ticks ran after their due time. It is live: it keeps
+     * counting, and can be read or reset at any time.
+     * @return The lateness histogram, in nanoseconds
+     */
+    public LatencyHistogram getLateness() {
+        return lateness;
+    }
+
+    /**
+     * Gets the number of ticks run a whole period or more late, back to back with the
+     * ticks before them.
+     * @return The bursted tick count
+     */
+    public long getBurstCount() {
+        return burstCount.sum();
+    }
+
+    /**
+     * Gets the number of late ticks dropped by the {@link CatchUp#SKIP} policy.
+     * @return The skipped tick count
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    /**
+     * Gets the number of late ticks folded into an earlier tick by the {@link CatchUp#FOLD} policy.
+     * @return The folded tick count
+     */
+    public long getFoldedCount() {
+        return foldedCount.sum();
+    }
+
+    /**
+     * Gets the number of pets currently registered with the scheduler.
+     * @return The registered pet count
+     */
+    public int getRegisteredCount() {
+        return registeredCount.get();
+    }
+
+    /**
+     * Gets the total number of ticks run since the scheduler was created.
+     * @return The total tick count
+     */
+    public long getTickCount() {
+        return tickCount.sum();
+    }
+
+    /**
+     * Gets the average tick throughput since the scheduler was created.
+     * @return The number of ticks run per second
+     */
+    public double getTickThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? getTickCount() / seconds : 0;
+    }
+
+    /**
+     * Gets the number of threads in the simulation pool.
+     * @return The thread count
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Handle for a registered tick. Cancelling it more than once has no further effect.
+     */
+    public final class Registration {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final long originNanos;
+        private final long periodNanos;
+        private ScheduledFuture<?> future;
+        // Only touched by the runs of this tick, which never overlap
+        private long runs; // Runs so far; run n is due at origin + n periods
+        private long coveredRuns; // Runs already covered by a folded tick
+
+        private Registration(long originNanos, long periodNanos) {
+            this.originNanos = originNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Runs one scheduled execution: measures its lateness, then runs, drops or folds
+         * the tick as the catch-up policy says.
+         */
+        private void run(IntConsumer tick) {
+            long run = runs++;
+            if (run < coveredRuns) return; // Already run as part of a folded tick
+            // Due times come from the origin, not the previous run, so lateness never drifts
+            long late = System.nanoTime() - (originNanos + run * periodNanos);
+            lateness.record(late);
+            int periods = 1;
+            if (late >= periodNanos) {
+                CatchUp policy = catchUp;
+                if (policy == CatchUp.SKIP) {
+                    skippedCount.increment();
+                    return;
+                }
+                if (policy == CatchUp.FOLD) {
+                    long behind = late / periodNanos; // Runs already due after this one
+                    periods = (int) Math.min(Integer.MAX_VALUE, behind + 1);
+                    coveredRuns = run + periods;
+                    foldedCount.add(periods - 1);
+                } else {
+                    burstCount.increment();
+                }
+            }
+            try {
+                tick.accept(periods);
+            } catch (RuntimeException e) {
+                // A failing pet must not cancel its own schedule or disturb the others
+                System.err.println(e);
+            }
+            tickCount.add(periods);
+        }
+
+        /**
+         * Stops the tick and removes it from the registered count.
+         */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                future.cancel(false);
+                registeredCount.decrementAndGet();
+            }
+        }
+
+        /**
+         * Checks whether this registration has been cancelled.
+         * @return true if the tick no longer runs
+         */
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+}
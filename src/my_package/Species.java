@@ -0,0 +1,170 @@
+package my_package;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A species of pet (cat, fox, owl...) and its max stats.
+ * Species are immutable and shared: the registry is loaded once from the species file,
+ * and every pet of a species holds a reference to the same instance. Adding a species
+ * only needs a new entry in the file and its sprites.
+ * Index 0 is the unknown species, used for pets whose type is missing or not registered.
+ */
+public final class Species {
+    private static final String SPECIES_FILE = "src/my_package/assets/data/species.json";
+    /** The species of pets with a missing or unregistered type */
+    public static final Species UNKNOWN = new Species(0, null, 50, 50, 50, 50);
+    private static final Species[] REGISTRY = loadRegistry();
+    private static final Map<String, Species> BY_NAME = indexByName();
+
+    private final int index;
+    private final String name;
+    private final int[] maxStats; // {health, happiness, fullness, sleep}, indexed by TickRules stat
+
+    private Species(int index, String name, int maxHealth, int maxHappiness, int maxFullness, int maxSleep) {
+        this.index = index;
+        this.name = name;
+        this.maxStats = new int[] {maxHealth, maxHappiness, maxFullness, maxSleep};
+    }
+
+    /**
+     * Gets the index of the species in the registry, as stored in {@link PetStatTable}.
+     * @return The species index, 0 for the unknown species
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the name of the species.
+     * @return The species name (cat, owl...), null for the unknown species
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the max health of the species.
+     * @return The max health
+     */
+    public int getMaxHealth() {
+        return maxStats[0];
+    }
+
+    /**
+     * Gets the max happiness of the species.
+     * @return The max happiness
+     */
+    public int getMaxHappiness() {
+        return maxStats[1];
+    }
+
+    /**
+     * Gets the max fullness of the species.
+     * @return The max fullness
+     */
+    public int getMaxFullness() {
+        return maxStats[2];
+    }
+
+    /**
+     * Gets the max sleep of the species.
+     * @return The max sleep
+     */
+    public int getMaxSleep() {
+        return maxStats[3];
+    }
+
+    /**
+     * Gets a max stat by its {@link TickRules} index.
+     * @param stat The stat, 0 to 3 for health, happiness, fullness and sleep
+     * @return The max value of the stat
+     */
+    public int getMaxStat(int stat) {
+        return maxStats[stat];
+    }
+
+    /**
+     * Looks up a species by name.
+     * @param name The species name (cat, owl...)
+     * @return The species, or {@link #UNKNOWN} for null or unregistered names
+     */
+    public static Species forName(String name) {
+        if (name == null) return UNKNOWN;
+        return BY_NAME.getOrDefault(name, UNKNOWN);
+    }
+
+    /**
+     * Looks up a species by its index in the registry.
+     * @param index The species index
+     * @return The species
+     */
+    public static Species byIndex(int index) {
+        return REGISTRY[index];
+    }
+
+    /**
+     * Gets the number of registered species, including the unknown species.
+     * @return The species count
+     */
+    public static int count() {
+        return REGISTRY.length;
+    }
+
+    /**
+     * Reads species from a species file. Indices start at 1, after the unknown species.
+     * @param file The species file
+     * @return The species, in file order
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    static List<Species> readSpecies(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        List<Species> species = new ArrayList<>();
+        for (JsonNode node : root.path("species")) {
+            String name = node.path("name").asText(null);
+            if (name == null || name.isEmpty()) throw new IllegalArgumentException("Species without a name: " + node);
+            species.add(new Species(species.size() + 1, name, positive(node, "maxHealth"),
+                    positive(node, "maxHappiness"), positive(node, "maxFullness"), positive(node, "maxSleep")));
+        }
+        return species;
+    }
+
+    private static int positive(JsonNode node, String field) {
+        int value = node.path(field).asInt(0);
+        if (value < 1) throw new IllegalArgumentException(field + " must be at least 1: " + node);
+        return value;
+    }
+
+    private static Species[] loadRegistry() {
+        List<Species> species;
+        try {
+            species = readSpecies(new File(SPECIES_FILE));
+        } catch (Exception e) {
+            System.out.println(e); // Keep playing with the built-in species
+            species = List.of(new Species(1, "cat", 50, 75, 100, 75),
+                    new Species(2, "fox", 75, 100, 75, 50),
+                    new Species(3, "owl", 100, 50, 75, 100));
+        }
+        Species[] registry = new Species[species.size() + 1];
+        registry[0] = UNKNOWN;
+        for (Species s : species) {
+            registry[s.index] = s;
+        }
+        return registry;
+    }
+
+    private static Map<String, Species> indexByName() {
+        Map<String, Species> byName = new HashMap<>();
+        for (int i = 1; i < REGISTRY.length; i++) {
+            byName.putIfAbsent(REGISTRY[i].name, REGISTRY[i]);
+        }
+        return byName;
+    }
+}
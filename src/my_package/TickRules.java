@@ -0,0 +1,541 @@
+package my_package;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The gameplay rules (stat decay, state changes and player actions), loaded from the
+ * rules file at startup and compiled into a compact opcode array.
+ * The tick interpreter runs the opcodes over blocks of table rows, so there are no string
+ * comparisons and no virtual calls per rule, and balancing changes only need a new rules
+ * file. Effects are compiled into rate groups, one per period, from fast (every tick) to
+ * slow; a group is only evaluated on the ticks it is due, so a slow rule such as one that
+ * runs once a day costs nothing on the other ticks. The specialised kernels of {@link PetStatTable} (vectorized, closed-form and
+ * event-driven) implement the built-in rules and are only used while those are active.
+ */
+public final class TickRules {
+    /** Stat index of health */
+    static final int HEALTH = 0;
+    /** Stat index of happiness */
+    static final int HAPPINESS = 1;
+    /** Stat index of fullness */
+    static final int FULLNESS = 2;
+    /** Stat index of sleep */
+    static final int SLEEP = 3;
+    /** Stat index of score */
+    static final int SCORE = 4;
+    private static final String[] STAT_NAMES = {"health", "happiness", "fullness", "sleep", "score"};
+
+    /** Action index of playing */
+    public static final int PLAY = 0;
+    /** Action index of exercising */
+    public static final int EXERCISE = 1;
+    /** Action index of a vet visit */
+    public static final int VET = 2;
+    /** Action index of sleeping */
+    public static final int SLEEP_ACTION = 3;
+    /** Number of actions */
+    public static final int ACTION_COUNT = 4;
+    private static final String[] ACTION_NAMES = {"play", "exercise", "vet", "sleep"};
+
+    // Opcodes; every instruction is WIDTH ints long
+    private static final int OP_EFFECT = 0; // stat, amount, state, notState
+    private static final int OP_LIMIT = 1;
+    private static final int OP_EXIT = 2; // stat, state, threshold row
+    private static final int OP_ENTER = 3; // stat, state, below, to, penaltyStat, penalty
+    private static final int OP_GROUP = 4; // shift, inverse, bound, end of group, period
+    private static final int WIDTH = 8;
+    private static final int ANY = -1;
+    private static final int BLOCK = 256; // Rows run through the whole program at a time
+    private static final int NONE_DUE = 0;
+    private static final int SOME_DUE = 1;
+    private static final int ALL_DUE = 2;
+
+    private static final String RULES_FILE = "src/my_package/assets/data/rules.json";
+    private static final String BUILT_IN_RULES = """
+            {
+              "effects": [
+                {"state": "asleep", "every": 1, "stat": "sleep", "add": 1},
+                {"state": "hungry", "every": 5, "stat": "happiness", "add": -2},
+                {"state": "hungry", "every": 5, "stat": "health", "add": -2},
+                {"every": 5, "stat": "score", "add": 5},
+                {"notState": "asleep", "every": 5, "stat": "sleep", "add": -4},
+                {"every": 5, "stat": "happiness", "add": -2},
+                {"every": 5, "stat": "fullness", "add": -1}
+              ],
+              "exits": [
+                {"state": "asleep", "stat": "sleep", "abovePercentOfMax": 100, "offset": -1},
+                {"state": "hungry", "stat": "fullness", "abovePercentOfMax": 0, "offset": 0},
+                {"state": "angry", "stat": "happiness", "abovePercentOfMax": 50, "offset": 0}
+              ],
+              "enters": [
+                {"state": "default", "stat": "sleep", "below": 1, "to": "asleep", "penaltyStat": "health", "penalty": -15},
+                {"state": "default", "stat": "fullness", "below": 1, "to": "hungry"},
+                {"state": "default", "stat": "happiness", "below": 1, "to": "angry"},
+                {"stat": "health", "below": 1, "to": "dead"}
+              ],
+              "actions": {
+                "play": {"add": {"happiness": 5, "sleep": -2, "fullness": -2, "score": 1}, "limit": true, "cooldown": 1},
+                "exercise": {"add": {"health": 4, "sleep": -2, "fullness": -2, "score": 1}, "limit": true, "cooldown": 1},
+                "vet": {"fill": ["health"], "add": {"score": -10}, "limit": true, "cooldown": 5},
+                "sleep": {"fill": ["sleep"], "add": {"score": 1}, "limit": false, "cooldown": 1}
+              }
+            }
+            """;
+
+    private static final TickRules BUILT_IN = fromJson(BUILT_IN_RULES);
+    private static volatile TickRules active = loadActive();
+
+    private final int[] program;
+    private final int[] periods; // Period of each rate group, fastest first
+    private final int[] thresholds; // Exit thresholds, one row of typeCount values per exit rule
+    private final int[][] actionAdds = new int[ACTION_NAMES.length][STAT_NAMES.length];
+    private final boolean[][] actionFills = new boolean[ACTION_NAMES.length][STAT_NAMES.length];
+    private final boolean[] actionLimits = new boolean[ACTION_NAMES.length];
+    private final int[] actionCooldowns = new int[ACTION_NAMES.length]; // Ticks before the pet takes another action
+    private final boolean builtIn;
+    private final boolean straightLine; // Ticks run the hand-written kernel, which these rules equal
+    private final int hash; // Same for rules that behave the same, in every run
+    private final int cycle; // Ticks after which every rate group is due together again
+
+    private TickRules(JsonNode root) {
+        JsonNode effects = root.path("effects");
+        JsonNode exits = root.path("exits");
+        JsonNode enters = root.path("enters");
+        int types = PetStatTable.typeCount();
+        // Group the effects by period; they only add to stats, so their order does not matter
+        TreeMap<Integer, List<JsonNode>> groups = new TreeMap<>();
+        for (JsonNode effect : effects) {
+            int every = effect.path("every").asInt(1);
+            if (every < 1) throw new IllegalArgumentException("Effect period must be at least 1: " + effect);
+            groups.computeIfAbsent(every, key -> new ArrayList<>()).add(effect);
+        }
+        program = new int[(groups.size() + effects.size() + 1 + exits.size() + enters.size()) * WIDTH];
+        periods = new int[groups.size()];
+        thresholds = new int[exits.size() * types];
+
+        int pc = 0;
+        int group = 0;
+        for (Map.Entry<Integer, List<JsonNode>> entry : groups.entrySet()) {
+            int every = entry.getKey();
+            int shift = Integer.numberOfTrailingZeros(every);
+            int odd = every >>> shift;
+            program[pc] = OP_GROUP;
+            program[pc + 1] = shift;
+            program[pc + 2] = inverse(odd);
+            program[pc + 3] = Integer.divideUnsigned(-1, odd); // Largest multiple index that fits in 32 bits
+            program[pc + 4] = pc + (entry.getValue().size() + 1) * WIDTH;
+            program[pc + 5] = every;
+            periods[group++] = every;
+            pc += WIDTH;
+            for (JsonNode effect : entry.getValue()) {
+                program[pc] = OP_EFFECT;
+                program[pc + 1] = stat(effect.path("stat").asText());
+                program[pc + 2] = effect.path("add").asInt();
+                program[pc + 3] = state(effect.path("state"));
+                program[pc + 4] = state(effect.path("notState"));
+                pc += WIDTH;
+            }
+        }
+        program[pc] = OP_LIMIT;
+        pc += WIDTH;
+        int exitIndex = 0;
+        for (JsonNode exit : exits) {
+            int stat = stat(exit.path("stat").asText());
+            if (stat == SCORE) throw new IllegalArgumentException("Exits must use a stat with a max: " + exit);
+            int percent = exit.path("abovePercentOfMax").asInt();
+            int offset = exit.path("offset").asInt();
+            for (int type = 0; type < types; type++) {
+                thresholds[exitIndex * types + type] = PetStatTable.maxStat(type, stat) * percent / 100 + offset;
+            }
+            program[pc] = OP_EXIT;
+            program[pc + 1] = stat;
+            program[pc + 2] = state(exit.path("state"));
+            program[pc + 3] = exitIndex * types;
+            pc += WIDTH;
+            exitIndex++;
+        }
+        for (JsonNode enter : enters) {
+            program[pc] = OP_ENTER;
+            program[pc + 1] = stat(enter.path("stat").asText());
+            program[pc + 2] = state(enter.path("state"));
+            program[pc + 3] = enter.path("below").asInt();
+            program[pc + 4] = PetStatTable.stateCode(enter.path("to").asText());
+            program[pc + 5] = enter.has("penaltyStat") ? stat(enter.path("penaltyStat").asText()) : HEALTH;
+            program[pc + 6] = enter.path("penalty").asInt(0);
+            pc += WIDTH;
+        }
+
+        JsonNode actions = root.path("actions");
+        for (int action = 0; action < ACTION_NAMES.length; action++) {
+            JsonNode node = actions.path(ACTION_NAMES[action]);
+            if (node.isMissingNode()) throw new IllegalArgumentException("Missing action: " + ACTION_NAMES[action]);
+            for (JsonNode fill : node.path("fill")) {
+                actionFills[action][stat(fill.asText())] = true;
+            }
+            Iterator<Map.Entry<String, JsonNode>> adds = node.path("add").fields();
+            while (adds.hasNext()) {
+                Map.Entry<String, JsonNode> add = adds.next();
+                actionAdds[action][stat(add.getKey())] = add.getValue().asInt();
+            }
+            actionLimits[action] = node.path("limit").asBoolean(true);
+            actionCooldowns[action] = Math.max(0, node.path("cooldown").asInt(0));
+        }
+        builtIn = BUILT_IN == null || sameAs(BUILT_IN); // BUILT_IN is null while it is being compiled
+        straightLine = builtIn;
+        hash = 31 * (31 * (31 * (31 * (31 * Arrays.hashCode(program) + Arrays.hashCode(thresholds))
+                + Arrays.deepHashCode(actionAdds)) + Arrays.deepHashCode(actionFills))
+                + Arrays.hashCode(actionLimits)) + Arrays.hashCode(actionCooldowns);
+        long lcm = 1;
+        for (int period : periods) {
+            lcm = Math.min(Integer.MAX_VALUE, lcm / gcd(lcm, period) * period);
+        }
+        cycle = (int) lcm;
+    }
+
+    /**
+     * Copies compiled rules, sharing their program, with ticks always run by the interpreter.
+     */
+    private TickRules(TickRules rules) {
+        program = rules.program;
+        periods = rules.periods;
+        thresholds = rules.thresholds;
+        for (int action = 0; action < ACTION_NAMES.length; action++) {
+            actionAdds[action] = rules.actionAdds[action];
+            actionFills[action] = rules.actionFills[action];
+        }
+        System.arraycopy(rules.actionLimits, 0, actionLimits, 0, actionLimits.length);
+        System.arraycopy(rules.actionCooldowns, 0, actionCooldowns, 0, actionCooldowns.length);
+        builtIn = rules.builtIn;
+        straightLine = false;
+        hash = rules.hash;
+        cycle = rules.cycle;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Gets rules that behave like the given ones but always run ticks through the opcode
+     * interpreter, to check and measure it against the hand-written kernel.
+     * @param rules The rules to interpret
+     * @return The interpreted rules
+     */
+    static TickRules interpreted(TickRules rules) {
+        return new TickRules(rules);
+    }
+
+    /**
+     * Compiles rules from their JSON text.
+     * @param json The rules in the format of the rules file
+     * @return The compiled rules
+     * @throws IllegalArgumentException if the rules are malformed
+     */
+    public static TickRules fromJson(String json) {
+        try {
+            return new TickRules(new ObjectMapper().readTree(json));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed rules: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles rules from a rules file.
+     * @param file The rules file
+     * @return The compiled rules
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the rules are malformed
+     */
+    public static TickRules fromFile(File file) throws IOException {
+        return new TickRules(new ObjectMapper().readTree(file));
+    }
+
+    /**
+     * Gets a hash of what the rules do, the same in every run for the same rules. Event
+     * logs record it with their snapshots, to replay only with the rules they were written with.
+     * @return The hash of the compiled program and actions
+     */
+    public int getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the rules the game is running with.
+     * @return The active rules
+     */
+    public static TickRules getActive() {
+        return active;
+    }
+
+    /**
+     * Replaces the rules the game is running with.
+     * @param rules The new rules
+     */
+    public static void setActive(TickRules rules) {
+        active = rules;
+    }
+
+    /**
+     * Gets the built-in rules, which the specialised kernels of {@link PetStatTable} implement.
+     * @return The built-in rules
+     */
+    public static TickRules getBuiltIn() {
+        return BUILT_IN;
+    }
+
+    /**
+     * Checks whether these rules behave exactly like the built-in rules.
+     * @return true if the compiled rules equal the built-in ones
+     */
+    public boolean isBuiltIn() {
+        return builtIn;
+    }
+
+    /**
+     * Gets the periods of the rate groups the effects are compiled into.
+     * @return The period in ticks of each group, fastest first
+     */
+    public int[] getRatePeriods() {
+        return periods.clone();
+    }
+
+    /**
+     * Gets the number of ticks after which the rate groups repeat, the least common multiple
+     * of their periods. Only a pet's tick count modulo this matters to the rules.
+     * @return The cycle in ticks, 5 for the built-in rules, at most Integer.MAX_VALUE
+     */
+    public int getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Runs one tick of these rules for every row in the range.
+     * Rules equal to the built-in ones compile to the hand-written straight-line kernel,
+     * {@link PetStatTable#tick(int, int)}, which runs all of them in one pass per row;
+     * other rules run through the opcode interpreter.
+     * @param table The table to tick
+     * @param from The first row to tick (inclusive)
+     * @param to The last row to tick (exclusive)
+     */
+    public void tick(PetStatTable table, int from, int to) {
+        if (straightLine) {
+            table.tick(from, to);
+            return;
+        }
+        int[][] columns = table.columns;
+        int[] ticks = table.ticks;
+        int[] state = table.state;
+        int[] type = table.type;
+        for (int start = from; start < to; start += BLOCK) {
+            int end = Math.min(to, start + BLOCK);
+            for (int i = start; i < end; i++) {
+                ticks[i]++;
+            }
+            int due = ALL_DUE; // Whether the rows are due for the current rate group
+            int shift = 0;
+            int inverse = 1;
+            int bound = -1;
+            for (int pc = 0; pc < program.length; pc += WIDTH) {
+                switch (program[pc]) {
+                    case OP_GROUP:
+                        shift = program[pc + 1];
+                        inverse = program[pc + 2];
+                        bound = program[pc + 3];
+                        due = program[pc + 5] == 1 ? ALL_DUE : due(ticks, start, end, shift, inverse, bound);
+                        if (due == NONE_DUE) pc = program[pc + 4] - WIDTH; // Skip the whole group
+                        break;
+                    case OP_EFFECT:
+                        if (due == ALL_DUE) {
+                            effect(columns[program[pc + 1]], state, start, end, program[pc + 2], program[pc + 3], program[pc + 4]);
+                        } else {
+                            effect(columns[program[pc + 1]], ticks, state, start, end, program[pc + 2],
+                                    program[pc + 3], program[pc + 4], shift, inverse, bound);
+                        }
+                        break;
+                    case OP_LIMIT:
+                        limit(columns, type, start, end);
+                        break;
+                    case OP_EXIT:
+                        exit(columns[program[pc + 1]], state, type, start, end, program[pc + 2], program[pc + 3]);
+                        break;
+                    default:
+                        enter(columns[program[pc + 1]], state, columns[program[pc + 5]], start, end,
+                                program[pc + 2], program[pc + 3], program[pc + 4], program[pc + 6]);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a player action to a pet through its setters. Listeners hear about it once,
+     * when the action is complete.
+     * @param action The action index, such as {@link #PLAY}
+     * @param pet The pet to act on
+     */
+    public void apply(int action, Pet pet) {
+        boolean[] fills = actionFills[action];
+        int[] adds = actionAdds[action];
+        pet.beginBatch();
+        for (int stat = 0; stat < STAT_NAMES.length; stat++) {
+            if (fills[stat]) pet.setStat(stat, pet.getMaxStat(stat));
+        }
+        for (int stat = 0; stat < STAT_NAMES.length; stat++) {
+            if (adds[stat] != 0) pet.setStat(stat, pet.getStat(stat) + adds[stat]);
+        }
+        if (actionLimits[action]) pet.statLimiter();
+        PetEventLog log = pet.getEventLog();
+        if (log != null) log.action(action);
+        pet.endBatch();
+    }
+
+    /**
+     * Applies a player action straight to a row of a stat table, with the same result as
+     * {@link #apply(int, Pet)} but without a Pet or its listeners, for batch simulations.
+     * @param action The action index, such as {@link #PLAY}
+     * @param table The table holding the pet
+     * @param row The row of the pet
+     */
+    void apply(int action, PetStatTable table, int row) {
+        boolean[] fills = actionFills[action];
+        int[] adds = actionAdds[action];
+        int[][] columns = table.columns;
+        for (int stat = 0; stat < STAT_NAMES.length; stat++) {
+            if (fills[stat]) columns[stat][row] = stat == SCORE ? Integer.MAX_VALUE : PetStatTable.maxStat(table.type[row], stat);
+        }
+        for (int stat = 0; stat < STAT_NAMES.length; stat++) {
+            if (adds[stat] != 0) columns[stat][row] += adds[stat];
+        }
+        if (actionLimits[action]) table.limit(row);
+    }
+
+    /**
+     * Gets the number of ticks, counting the one an action runs in, before the pet takes
+     * another action requested by the player.
+     * @param action The action index, such as {@link #PLAY}
+     * @return The cooldown in ticks
+     */
+    public int getCooldown(int action) {
+        return actionCooldowns[action];
+    }
+
+    /**
+     * Checks which rows of a block are on a tick that is a multiple of a rate group's period.
+     * Rows usually share their phase, so the answer is almost always all or none.
+     */
+    private static int due(int[] ticks, int start, int end, int shift, int inverse, int bound) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (isDue(ticks[i], shift, inverse, bound)) count++;
+        }
+        return count == 0 ? NONE_DUE : count == end - start ? ALL_DUE : SOME_DUE;
+    }
+
+    private static boolean isDue(int t, int shift, int inverse, int bound) {
+        // t is a multiple of the period when its power-of-two part divides out and the odd part's inverse stays small
+        return (t & ((1 << shift) - 1)) == 0 && Integer.compareUnsigned((t >>> shift) * inverse, bound) <= 0;
+    }
+
+    private static void effect(int[] column, int[] state, int start, int end, int amount, int when, int unless) {
+        for (int i = start; i < end; i++) {
+            int st = state[i];
+            if ((when == ANY || st == when) && (unless == ANY || st != unless)) column[i] += amount;
+        }
+    }
+
+    private static void effect(int[] column, int[] ticks, int[] state, int start, int end, int amount,
+            int when, int unless, int shift, int inverse, int bound) {
+        for (int i = start; i < end; i++) {
+            int st = state[i];
+            if (isDue(ticks[i], shift, inverse, bound) && (when == ANY || st == when) && (unless == ANY || st != unless)) {
+                column[i] += amount;
+            }
+        }
+    }
+
+    private static void limit(int[][] columns, int[] type, int start, int end) {
+        int[] health = columns[HEALTH];
+        int[] happiness = columns[HAPPINESS];
+        int[] fullness = columns[FULLNESS];
+        int[] sleep = columns[SLEEP];
+        int[] score = columns[SCORE];
+        for (int i = start; i < end; i++) {
+            int t = type[i];
+            health[i] = Math.max(0, Math.min(health[i], PetStatTable.MAX_HEALTH[t]));
+            happiness[i] = Math.max(0, Math.min(happiness[i], PetStatTable.MAX_HAPPINESS[t]));
+            fullness[i] = Math.max(0, Math.min(fullness[i], PetStatTable.MAX_FULLNESS[t]));
+            sleep[i] = Math.max(0, Math.min(sleep[i], PetStatTable.MAX_SLEEP[t]));
+            score[i] = Math.max(0, score[i]);
+        }
+    }
+
+    private void exit(int[] column, int[] state, int[] type, int start, int end, int from, int thresholdRow) {
+        for (int i = start; i < end; i++) {
+            if (state[i] == from && column[i] > thresholds[thresholdRow + type[i]]) state[i] = PetStatTable.DEFAULT;
+        }
+    }
+
+    private static void enter(int[] column, int[] state, int[] penaltyColumn, int start, int end,
+            int from, int below, int to, int penalty) {
+        for (int i = start; i < end; i++) {
+            if ((from == ANY || state[i] == from) && column[i] < below) {
+                state[i] = to;
+                penaltyColumn[i] += penalty;
+            }
+        }
+    }
+
+    private boolean sameAs(TickRules other) {
+        return Arrays.equals(program, other.program)
+                && Arrays.equals(thresholds, other.thresholds)
+                && Arrays.deepEquals(actionAdds, other.actionAdds)
+                && Arrays.deepEquals(actionFills, other.actionFills)
+                && Arrays.equals(actionLimits, other.actionLimits)
+                && Arrays.equals(actionCooldowns, other.actionCooldowns);
+    }
+
+    private static TickRules loadActive() {
+        try {
+            return fromFile(new File(RULES_FILE));
+        } catch (Exception e) {
+            System.out.println(e); // Keep playing with the built-in rules
+            return BUILT_IN;
+        }
+    }
+
+    private static int stat(String name) {
+        for (int i = 0; i < STAT_NAMES.length; i++) {
+            if (STAT_NAMES[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown stat: " + name);
+    }
+
+    private static int state(JsonNode node) {
+        if (node.isMissingNode() || node.isNull()) return ANY;
+        int code = PetStatTable.stateCode(node.asText());
+        if (!PetStatTable.stateName(code).equals(node.asText())) {
+            throw new IllegalArgumentException("Unknown state: " + node.asText());
+        }
+        return code;
+    }
+
+    /**
+     * Works out the multiplicative inverse of an odd number modulo 2^32 with Newton's method.
+     */
+    private static int inverse(int odd) {
+        int x = odd;
+        for (int i = 0; i < 5; i++) {
+            x *= 2 - odd * x;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,316 @@
+package my_package;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Event-driven simulation of the rows of a {@link PetStatTable}.
+ * Instead of ticking every pet every second, the queue works out the tick at which each
+ * pet will next change state and keeps those ticks in a priority queue. Advancing the
+ * clock only wakes the pets whose state change is due; all other pets are brought up to
+ * date in one step when they are read. The cost therefore grows with the number of
+ * state changes, not with the number of pets.
+ * The priority queue is an indexed binary heap holding at most one entry per row: changing
+ * a pet's stats moves its entry up or down, or takes it out when the pet will never change
+ * state on its own, so the heap never grows with reschedules.
+ * {@link #start(long)} drives the queue from the shared {@link SimulationScheduler} with a
+ * single registration for all its pets, instead of one polling tick per pet. Actions on the
+ * queue's pets then go through the queue's mailbox and run on its wake-ups.
+ */
+public class TransitionQueue {
+    private final PetStatTable table;
+    private final ActionMailbox mailbox = new ActionMailbox(); // Serializes actions with the wake-ups
+    private volatile long now; // Read by snapshots on other threads
+    private long[] syncedAt = new long[16]; // Tick each row was last brought up to
+    private boolean[] managed = new boolean[16];
+    private int[] position = filled(16); // Index of each row's entry in the heap, or -1 if none
+    // Binary min-heap of wake-ups, one entry per row at most
+    private long[] heapDue = new long[16];
+    private int[] heapRow = new int[16];
+    private int heapSize;
+    private long wakeUps;
+    private IntConsumer stateChangeListener;
+    private SimulationScheduler.Registration registration;
+
+    /**
+     * Constructs a queue over the given table. Rows are only managed once added.
+     * @param table The table holding the pets' stats
+     */
+    public TransitionQueue(PetStatTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates a pet in a new row of the table and starts managing it.
+     * Reading the pet brings it up to date, and changing its stats reschedules it.
+     * @param name The name of the pet
+     * @param type The type of pet (owl, cat...)
+     * @return The pet, a view over its row
+     */
+    public Pet addPet(String name, String type) {
+        int row;
+        synchronized (this) {
+            row = table.addRow(type);
+            add(row);
+        }
+        Pet pet = new Pet(name, table, row);
+        pet.attachTo(this);
+        return pet;
+    }
+
+    /**
+     * Starts managing an existing row of the table from the current tick.
+     * @param row The row to manage
+     */
+    public synchronized void add(int row) {
+        ensureCapacity(row + 1);
+        managed[row] = true;
+        syncedAt[row] = now;
+        reschedule(row);
+    }
+
+    /**
+     * Stops managing a row, after bringing it up to the current tick. Its wake-up is taken
+     * out of the queue.
+     * @param row The row to stop managing
+     */
+    public synchronized void remove(int row) {
+        if (row >= managed.length || !managed[row]) return;
+        sync(row);
+        removeEntry(row);
+        managed[row] = false;
+    }
+
+    /**
+     * Gets the current tick of the queue.
+     * @return The number of ticks simulated so far
+     */
+    public long getNow() {
+        return now;
+    }
+
+    /**
+     * Gets the tick a row was last brought up to.
+     * @param row The row to check
+     * @return The tick
+     */
+    synchronized long getSyncedAt(int row) {
+        return syncedAt[row];
+    }
+
+    /**
+     * Gets the number of pets woken because their state change was due.
+     * @return The total number of wake-ups
+     */
+    public synchronized long getWakeUps() {
+        return wakeUps;
+    }
+
+    /**
+     * Gets the number of pending wake-ups: one for each managed pet whose state will change
+     * on its own.
+     * @return The number of entries in the queue
+     */
+    public synchronized int getPendingCount() {
+        return heapSize;
+    }
+
+    /**
+     * Sets a listener called with the row of every pet whose state changed on a wake-up.
+     * It is called after the wake-ups of a step, without holding the queue's lock.
+     * @param listener The listener, or null for none
+     */
+    public synchronized void setStateChangeListener(IntConsumer listener) {
+        this.stateChangeListener = listener;
+    }
+
+    /**
+     * Starts advancing the queue by one tick per period on the shared simulation scheduler.
+     * The whole queue takes one registration, however many pets it manages, and each
+     * wake-up only touches the pets whose state change is due. Until {@link #stop()},
+     * actions submitted to the queue's pets wait for the next wake-up.
+     * Does nothing if the queue is already running.
+     * @param tickMillis The time between two ticks in milliseconds
+     */
+    public synchronized void start(long tickMillis) {
+        if (registration != null) return;
+        registration = SimulationScheduler.getInstance().register(
+                periods -> mailbox.runTick(() -> advance(periods)), tickMillis, tickMillis);
+        mailbox.setOwned(true);
+    }
+
+    /**
+     * Stops advancing the queue on the scheduler. Waiting actions run straight away.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (registration == null) return;
+            registration.cancel();
+            registration = null;
+        }
+        mailbox.setOwned(false); // Outside the lock, as the actions lock the queue to read their pets
+    }
+
+    /**
+     * Checks whether the queue is advanced by the scheduler.
+     * @return true between {@link #start(long)} and {@link #stop()}
+     */
+    public synchronized boolean isRunning() {
+        return registration != null;
+    }
+
+    /**
+     * Gets the queue of actions waiting to run on the queue's pets.
+     * @return The queue's mailbox
+     */
+    ActionMailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Advances the clock by the given number of ticks, waking only the pets whose state
+     * change falls within them.
+     * @param ticks The number of ticks to advance by
+     */
+    public void advance(long ticks) {
+        advanceTo(now + ticks);
+    }
+
+    /**
+     * Advances the clock to the given tick, waking only the pets whose state change falls
+     * before it.
+     * @param tick The tick to advance to
+     */
+    public void advanceTo(long tick) {
+        IntConsumer listener;
+        int[] changed = null;
+        int changedCount = 0;
+        synchronized (this) {
+            listener = stateChangeListener;
+            while (heapSize > 0 && heapDue[0] <= tick) {
+                int row = heapRow[0];
+                now = heapDue[0];
+                int oldState = table.state[row];
+                sync(row);
+                wakeUps++;
+                reschedule(row);
+                if (listener != null && table.state[row] != oldState) {
+                    if (changed == null) changed = new int[8];
+                    else if (changedCount == changed.length) changed = Arrays.copyOf(changed, changedCount * 2);
+                    changed[changedCount++] = row;
+                }
+            }
+            now = Math.max(now, tick);
+        }
+        for (int i = 0; i < changedCount; i++) {
+            listener.accept(changed[i]);
+        }
+    }
+
+    /**
+     * Brings a row up to the current tick. Only whole stretches without a state change
+     * are left to apply, so this takes constant time.
+     * @param row The row to bring up to date
+     */
+    public synchronized void sync(int row) {
+        if (!managed[row]) return;
+        long behind = now - syncedAt[row];
+        if (behind > 0) {
+            table.advance(row, behind);
+            syncedAt[row] = now;
+        }
+    }
+
+    /**
+     * Works out the next state change of a row from its current stats and moves its entry
+     * in the queue to that tick. Call this after changing a row's stats, once it has been
+     * brought up to date.
+     * @param row The row to reschedule
+     */
+    public synchronized void reschedule(int row) {
+        if (!managed[row]) return;
+        long next = table.ticksUntilStateChange(row);
+        if (next == Long.MAX_VALUE) {
+            removeEntry(row); // Nothing will wake the pet until its stats change again
+            return;
+        }
+        long due = now + next;
+        int i = position[row];
+        if (i < 0) {
+            if (heapSize == heapDue.length) {
+                heapDue = Arrays.copyOf(heapDue, heapSize * 2);
+                heapRow = Arrays.copyOf(heapRow, heapSize * 2);
+            }
+            siftUp(heapSize++, due, row);
+        } else if (due < heapDue[i]) {
+            siftUp(i, due, row);
+        } else if (due > heapDue[i]) {
+            siftDown(i, due, row);
+        }
+    }
+
+    /**
+     * Takes a row's entry out of the heap, filling its place with the last entry.
+     */
+    private void removeEntry(int row) {
+        int i = position[row];
+        if (i < 0) return;
+        position[row] = -1;
+        int last = --heapSize;
+        if (i == last) return;
+        long due = heapDue[last];
+        int lastRow = heapRow[last];
+        if (due < heapDue[i]) siftUp(i, due, lastRow);
+        else siftDown(i, due, lastRow);
+    }
+
+    private void siftUp(int i, long due, int row) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapDue[parent] <= due) break;
+            move(parent, i);
+            i = parent;
+        }
+        place(i, due, row);
+    }
+
+    private void siftDown(int i, long due, int row) {
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapDue[child + 1] < heapDue[child]) child++;
+            if (due <= heapDue[child]) break;
+            move(child, i);
+            i = child;
+        }
+        place(i, due, row);
+    }
+
+    private void move(int from, int to) {
+        heapDue[to] = heapDue[from];
+        heapRow[to] = heapRow[from];
+        position[heapRow[to]] = to;
+    }
+
+    private void place(int i, long due, int row) {
+        heapDue[i] = due;
+        heapRow[i] = row;
+        position[row] = i;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= managed.length) return;
+        int length = Math.max(capacity, managed.length * 2);
+        syncedAt = Arrays.copyOf(syncedAt, length);
+        managed = Arrays.copyOf(managed, length);
+        int oldLength = position.length;
+        position = Arrays.copyOf(position, length);
+        Arrays.fill(position, oldLength, length, -1);
+    }
+
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, -1);
+        return array;
+    }
+}
@@ -0,0 +1,105 @@
+package my_package;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized version of the {@link PetStatTable#tick(int, int)} kernel built on the
+ * incubating JDK Vector API. Each lane holds one pet, and the per-state rules are applied
+ * with lane masks instead of branches.
+ * This class is only loaded when the jdk.incubator.vector module is present; use
+ * {@link PetStatTable#tickVectorized(int, int)}, which falls back to the scalar kernel otherwise.
+ */
+final class VectorTickKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int INVERSE_OF_5 = 0xCCCCCCCD;
+    private static final int MULTIPLES_OF_5_BOUND = 0x33333333;
+
+    private VectorTickKernel() {
+    }
+
+    /**
+     * Runs one gameplay tick for every row in the range, with the same results as the
+     * scalar kernel.
+     * @param table The table to tick
+     * @param from The first row to tick (inclusive)
+     * @param to The last row to tick (exclusive)
+     */
+    static void tick(PetStatTable table, int from, int to) {
+        int[] health = table.health;
+        int[] happiness = table.happiness;
+        int[] fullness = table.fullness;
+        int[] sleep = table.sleep;
+        int[] score = table.score;
+        int[] state = table.state;
+        int[] type = table.type;
+        int[] ticks = table.ticks;
+
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            IntVector t = IntVector.fromArray(SPECIES, ticks, i).add(1);
+            // t % 5 == 0 without lane division: t * inverse(5) wraps to at most MAX_VALUE / 5 exactly for multiples of 5
+            VectorMask<Integer> decay = t.mul(INVERSE_OF_5).compare(VectorOperators.UNSIGNED_LE, MULTIPLES_OF_5_BOUND);
+            IntVector st = IntVector.fromArray(SPECIES, state, i);
+            IntVector h = IntVector.fromArray(SPECIES, health, i);
+            IntVector hp = IntVector.fromArray(SPECIES, happiness, i);
+            IntVector f = IntVector.fromArray(SPECIES, fullness, i);
+            IntVector s = IntVector.fromArray(SPECIES, sleep, i);
+            IntVector sc = IntVector.fromArray(SPECIES, score, i);
+            IntVector maxH = IntVector.fromArray(SPECIES, PetStatTable.MAX_HEALTH, 0, type, i);
+            IntVector maxHp = IntVector.fromArray(SPECIES, PetStatTable.MAX_HAPPINESS, 0, type, i);
+            IntVector maxF = IntVector.fromArray(SPECIES, PetStatTable.MAX_FULLNESS, 0, type, i);
+            IntVector maxS = IntVector.fromArray(SPECIES, PetStatTable.MAX_SLEEP, 0, type, i);
+
+            // Pet state requirements
+            VectorMask<Integer> asleep = st.compare(VectorOperators.EQ, PetStatTable.ASLEEP);
+            VectorMask<Integer> hungryDecay = st.compare(VectorOperators.EQ, PetStatTable.HUNGRY).and(decay);
+            s = s.add(1, asleep);
+            hp = hp.sub(2, hungryDecay);
+            h = h.sub(2, hungryDecay);
+            sc = sc.add(5, decay);
+            s = s.sub(4, decay.andNot(asleep));
+            hp = hp.sub(2, decay);
+            f = f.sub(1, decay);
+
+            // Same limits as Pet.statLimiter
+            h = h.min(maxH).max(0);
+            hp = hp.min(maxHp).max(0);
+            f = f.min(maxF).max(0);
+            s = s.min(maxS).max(0);
+            sc = sc.max(0);
+
+            // Leave a special state once its condition is met
+            VectorMask<Integer> leave = asleep.and(s.compare(VectorOperators.EQ, maxS))
+                    .or(st.compare(VectorOperators.EQ, PetStatTable.HUNGRY).and(f.compare(VectorOperators.GT, 0)))
+                    .or(st.compare(VectorOperators.EQ, PetStatTable.ANGRY)
+                            .and(hp.compare(VectorOperators.GT, maxHp.lanewise(VectorOperators.ASHR, 1))));
+            st = st.blend(PetStatTable.DEFAULT, leave);
+
+            // Same rules as Pet.setState()
+            VectorMask<Integer> isDefault = st.compare(VectorOperators.EQ, PetStatTable.DEFAULT);
+            VectorMask<Integer> toAsleep = isDefault.and(s.compare(VectorOperators.LT, 1));
+            VectorMask<Integer> toHungry = isDefault.andNot(toAsleep).and(f.compare(VectorOperators.LT, 1));
+            VectorMask<Integer> toAngry = isDefault.andNot(toAsleep).andNot(toHungry)
+                    .and(hp.compare(VectorOperators.LT, 1));
+            st = st.blend(PetStatTable.ASLEEP, toAsleep)
+                    .blend(PetStatTable.HUNGRY, toHungry)
+                    .blend(PetStatTable.ANGRY, toAngry);
+            h = h.sub(15, toAsleep);
+            st = st.blend(PetStatTable.DEAD, h.compare(VectorOperators.LT, 1));
+
+            t.intoArray(ticks, i);
+            h.intoArray(health, i);
+            hp.intoArray(happiness, i);
+            f.intoArray(fullness, i);
+            s.intoArray(sleep, i);
+            sc.intoArray(score, i);
+            st.intoArray(state, i);
+        }
+        // Rows that do not fill a whole vector
+        table.tick(i, to);
+    }
+}
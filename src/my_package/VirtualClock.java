@@ -0,0 +1,84 @@
+package my_package;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock that only moves when told to, for headless and reproducible runs.
+ * Everything in the game that reads the time can be given a {@link Clock}; passing a
+ * virtual clock instead of the system clock lets a simulation jump ahead a tick at a
+ * time, as fast as the CPU allows, and see exactly the same times on every run.
+ */
+public class VirtualClock extends Clock {
+    private final ZoneId zone;
+    private volatile long millis;
+
+    /**
+     * Constructs a virtual clock in UTC.
+     * @param start The time the clock starts at
+     */
+    public VirtualClock(Instant start) {
+        this(start.toEpochMilli(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Constructs a virtual clock.
+     * @param millis The time the clock starts at, in milliseconds since the epoch
+     * @param zone The time zone used for local times, such as access hours
+     */
+    public VirtualClock(long millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    /**
+     * Moves the clock forward.
+     * @param delta The time to move by, in milliseconds
+     * @return The new time in milliseconds since the epoch
+     */
+    public synchronized long advance(long delta) {
+        if (delta < 0) throw new IllegalArgumentException("A clock cannot go back: " + delta);
+        millis += delta;
+        return millis;
+    }
+
+    /**
+     * Gets the current time of the clock.
+     * @return The time in milliseconds since the epoch
+     */
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     * Gets the current time of the clock.
+     * @return The current instant
+     */
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    /**
+     * Gets the time zone of the clock.
+     * @return The time zone
+     */
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Gets a virtual clock in another time zone, starting at this clock's current time.
+     * The two clocks move independently afterwards.
+     * @param zone The time zone
+     * @return A new virtual clock
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(millis, zone);
+    }
+}
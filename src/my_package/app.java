@@ -14,14 +14,17 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.time.Clock;
 import java.util.Observable;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Timer;
 import java.util.TimerTask;
 import javax.swing.ImageIcon;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
 /**
  * Represents our Virtual Pet Project app
  *
@@ -36,8 +39,9 @@ public class app extends javax.swing.JFrame {
      */
     public app() {
         initComponents(); // Call the initComponents function created using the GUI builder
+        rewardTimer.setRepeats(false); // Restarted each time rewards wait for their dialog
         playMusic("/my_package/assets/music/defaultMusic.wav"); // Start the background music
-        startTime = System.currentTimeMillis(); // Record the start time when the application is opened
+        startTime = clock.millis(); // Record the start time when the application is opened
 
         // Set up the content pane layout to be a CardLayout
         getContentPane().setLayout(new java.awt.CardLayout()); // Allow switching between different panels/content
@@ -2349,7 +2353,7 @@ public class app extends javax.swing.JFrame {
      */
     private void QuitButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_QuitButtonActionPerformed
         // TODO add your handling code here:
-        endTime=System.currentTimeMillis(); // Setup endtime for when application is exited
+        endTime=clock.millis(); // Setup endtime for when application is exited
         duration=new TimeTracker(endTime-startTime); // Create a new time tracker based on total application time
         duration.writeTime(); // Write time to the file so that view stats panel has the players total time on the application
         System.exit(0); // Terminates the Java application
@@ -2401,10 +2405,12 @@ public class app extends javax.swing.JFrame {
 
     private void FileButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_FileButton1ActionPerformed
         // TODO add your handling code here:
-        currentPet = petManager.getPetbyIndex(0);
-        gameManager = new GameManager(currentPet);
+        currentPet = petManager.openPet(0);
+        gameManager = new GameManager(currentPet, clock);
+        gameManager.setSpeed(SPEEDS[speedStep]);
         inventoryManager=new InventoryManager(currentPet);
         CurrentPetListener();
+        startEventLog();
         switchPanel("GameplayScreen");
         gameManager.periodicGameplay();
     }//GEN-LAST:event_FileButton1ActionPerformed
@@ -2441,20 +2447,24 @@ public class app extends javax.swing.JFrame {
 
     private void FileButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_FileButton2ActionPerformed
         // TODO add your handling code here:
-        currentPet = petManager.getPetbyIndex(1);
-        gameManager = new GameManager(currentPet);
+        currentPet = petManager.openPet(1);
+        gameManager = new GameManager(currentPet, clock);
+        gameManager.setSpeed(SPEEDS[speedStep]);
         inventoryManager=new InventoryManager(currentPet);
         CurrentPetListener();
+        startEventLog();
         switchPanel("GameplayScreen");
         gameManager.periodicGameplay();
     }//GEN-LAST:event_FileButton2ActionPerformed
 
     private void FileButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_FileButton3ActionPerformed
         // TODO add your handling code here:
-        currentPet = petManager.getPetbyIndex(2);
-        gameManager = new GameManager(currentPet);
+        currentPet = petManager.openPet(2);
+        gameManager = new GameManager(currentPet, clock);
+        gameManager.setSpeed(SPEEDS[speedStep]);
         inventoryManager=new InventoryManager(currentPet);
         CurrentPetListener();
+        startEventLog();
         switchPanel("GameplayScreen");
         gameManager.periodicGameplay();
     }//GEN-LAST:event_FileButton3ActionPerformed
@@ -2466,140 +2476,152 @@ public class app extends javax.swing.JFrame {
             return;
         }
         currentPet = new Pet(NameTextBox.getText(), type);
-        gameManager = new GameManager(currentPet);
+        gameManager = new GameManager(currentPet, clock);
+        gameManager.setSpeed(SPEEDS[speedStep]);
         inventoryManager=new InventoryManager(currentPet);
         CurrentPetListener();
+        startEventLog();
 
         switchPanel("GameplayScreen");
         gameManager.periodicGameplay();
     }//GEN-LAST:event_NameNextButtonActionPerformed
 
     private void CurrentPetListener(){
-        HappinessBar.setValue(currentPet.getHappiness());
-        HealthBar.setValue(currentPet.getHealth());
-        FullnessBar.setValue(currentPet.getFullness());
-        SleepinessBar.setValue(currentPet.getSleep());
-        ScoreCounter.setText(String.valueOf("Score:" +currentPet.getScore()));
-        currentSpritePath="/my_package/assets/sprites/"+currentPet.getType()+"_"+currentPet.getState()+".png";
-        stopSpriteAnimation();
-        spriteAnimation(currentSpritePath, (currentSpritePath.substring(0, currentSpritePath.length() - 4))+"2.png");
-        if("angry".equals(currentPet.getState())){
-            FeedButton.setEnabled(false);
-            VetButton.setEnabled(false);
-            GiftButton.setEnabled(true);
-            PlayButton.setEnabled(true);
-            ExerciseButton.setEnabled(true);
-            SleepButton.setEnabled(false);
-            SaveButton.setEnabled(true);
-        } 
-        else if("dead".equals(currentPet.getState())) {
-            FeedButton.setEnabled(false);
-            VetButton.setEnabled(false);
-            GiftButton.setEnabled(false);
-            PlayButton.setEnabled(false);
-            ExerciseButton.setEnabled(false);
-            SleepButton.setEnabled(false);
-            SaveButton.setEnabled(false);
-            deadOptionPane();
+        PetSnapshot snapshot = currentPet.snapshot(); // The pet may already be ticking
+        HappinessBar.setValue(snapshot.getHappiness());
+        HealthBar.setValue(snapshot.getHealth());
+        FullnessBar.setValue(snapshot.getFullness());
+        SleepinessBar.setValue(snapshot.getSleep());
+        ScoreCounter.setText(String.valueOf("Score:" +snapshot.getScore()));
+        updateStateDisplay(snapshot.getPetState());
+        
+        if (petSubscription != null)
+            petSubscription.close(); // Stop listening to the previous pet, or to this pet's previous load
+        petSubscription = currentPet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> {
+            // Ticks run on the simulation threads, so the drawing and dialogs are handed to the EDT.
+            // Changes made before the EDT gets to them are merged into one redraw, so fast speeds
+            // post one task per redraw instead of one per tick
+            synchronized (uiLock) {
+                uiDirty |= dirty;
+                uiHealth = health;
+                uiHappiness = happiness;
+                uiFullness = fullness;
+                uiSleep = sleep;
+                uiScore = score;
+                uiState = state;
+                if ((dirty & PetChangeListener.SCORE) != 0 && score%InventoryManager.REWARD_INTERVAL==0)
+                    uiRewards++; // Counted here, as merged changes may skip the score that earned it
+                if (uiUpdatePosted) return;
+                uiUpdatePosted = true;
+            }
+            SwingUtilities.invokeLater(uiUpdate);
+        });
+    }
+
+    /**
+     * Redraws the stats that changed since the last redraw and hands out the rewards earned
+     * meanwhile. Runs on the EDT, posted by the current pet's listener.
+     */
+    private void drawPetChanges() {
+        int dirty, health, happiness, fullness, sleep, score, rewards;
+        PetState state;
+        synchronized (uiLock) {
+            dirty = uiDirty;
+            health = uiHealth;
+            happiness = uiHappiness;
+            fullness = uiFullness;
+            sleep = uiSleep;
+            score = uiScore;
+            state = uiState;
+            rewards = uiRewards;
+            uiDirty = 0;
+            uiRewards = 0;
+            uiUpdatePosted = false;
         }
-        else if("asleep".equals(currentPet.getState())) {
-            FeedButton.setEnabled(false);
-            VetButton.setEnabled(false);
-            GiftButton.setEnabled(false);
-            PlayButton.setEnabled(false);
-            ExerciseButton.setEnabled(false);
-            SleepButton.setEnabled(false);
-            SaveButton.setEnabled(true);
+        if ((dirty & PetChangeListener.HAPPINESS) != 0) {
+            HappinessBar.setValue(happiness);
+            checkWarning(HappinessLabel, happiness);
         }
-        else {
-            FeedButton.setEnabled(true);
-            VetButton.setEnabled(true);
-            GiftButton.setEnabled(true);
-            PlayButton.setEnabled(true);
-            ExerciseButton.setEnabled(true);
-            SleepButton.setEnabled(true);
-            SaveButton.setEnabled(true);
+        if ((dirty & PetChangeListener.HEALTH) != 0) {
+            HealthBar.setValue(health);
+            checkWarning(HealthLabel, health);
         }
-        
-        currentPet.addPropertyChangeListener(e -> {
-            switch (e.getPropertyName()) {
-                case "happiness":
-                    HappinessBar.setValue((Integer) e.getNewValue());
-                    checkWarning(HappinessLabel,(Integer) e.getNewValue());
-                    break;
-                case "health":
-                    HealthBar.setValue((Integer) e.getNewValue());
-                    checkWarning(HealthLabel,(Integer) e.getNewValue());
-                    break;
-                case "sleep":
-                    SleepinessBar.setValue((Integer) e.getNewValue());
-                    checkWarning(SleepLabel,(Integer) e.getNewValue());
-                    break;
-                case "fullness":
-                    FullnessBar.setValue((Integer) e.getNewValue());
-                    checkWarning(FullnessLabel,(Integer) e.getNewValue());
-                    break;
-                case "score":
-                    ScoreCounter.setText("Score:" +String.valueOf((Integer) e.getNewValue()));
-                    if ((Integer) e.getNewValue()%25==0){
-                        int randomNum=(int) (Math.random() * 2);
-                        if (randomNum==0){
-                            Food newFood=new Food((int) (Math.random() * 3));
-                            if (inventoryManager.addFood(newFood))
-                                JOptionPane.showMessageDialog(this, "You have recieved a "+newFood.getType()+"!", "You got food",JOptionPane.INFORMATION_MESSAGE);
-                        }
-                        else {
-                            Gift newGift=new Gift((int) (Math.random() * 3));
-                            if (inventoryManager.addGift(newGift))
-                                JOptionPane.showMessageDialog(this, "You have recieved a "+newGift.getType()+"!", "You got food",JOptionPane.INFORMATION_MESSAGE);
-                        }
-                    }
-                    break;
-                case "state":
-                    currentSpritePath="/my_package/assets/sprites/"+currentPet.getType()+"_"+e.getNewValue()+".png";
-                    stopSpriteAnimation();
-                    spriteAnimation(currentSpritePath, (currentSpritePath.substring(0, currentSpritePath.length() - 4))+"2.png");
-                    if("angry".equals(e.getNewValue())){
-                        FeedButton.setEnabled(false);
-                        VetButton.setEnabled(false);
-                        GiftButton.setEnabled(true);
-                        PlayButton.setEnabled(true);
-                        ExerciseButton.setEnabled(true);
-                        SleepButton.setEnabled(false);
-                        SaveButton.setEnabled(true);
-                    } 
-                    else if("dead".equals(e.getNewValue())) {
-                        FeedButton.setEnabled(false);
-                        VetButton.setEnabled(false);
-                        GiftButton.setEnabled(false);
-                        PlayButton.setEnabled(false);
-                        ExerciseButton.setEnabled(false);
-                        SleepButton.setEnabled(false);
-                        SaveButton.setEnabled(false);
-                        deadOptionPane();
-                    } 
-                    else if("asleep".equals(e.getNewValue())) {
-                        FeedButton.setEnabled(false);
-                        VetButton.setEnabled(false);
-                        GiftButton.setEnabled(false);
-                        PlayButton.setEnabled(false);
-                        ExerciseButton.setEnabled(false);
-                        SleepButton.setEnabled(false);
-                        SaveButton.setEnabled(true);
-                    } 
-                    else {
-                        FeedButton.setEnabled(true);
-                        VetButton.setEnabled(true);
-                        GiftButton.setEnabled(true);
-                        PlayButton.setEnabled(true);
-                        ExerciseButton.setEnabled(true);
-                        SleepButton.setEnabled(true);
-                        SaveButton.setEnabled(true);
-                    }
-                    break;
-                default:
-                    break;
-            }});
+        if ((dirty & PetChangeListener.SLEEP) != 0) {
+            SleepinessBar.setValue(sleep);
+            checkWarning(SleepLabel, sleep);
+        }
+        if ((dirty & PetChangeListener.FULLNESS) != 0) {
+            FullnessBar.setValue(fullness);
+            checkWarning(FullnessLabel, fullness);
+        }
+        if ((dirty & PetChangeListener.SCORE) != 0)
+            ScoreCounter.setText("Score:" +String.valueOf(score));
+        if ((dirty & PetChangeListener.STATE) != 0)
+            updateStateDisplay(state);
+        for (int i = 0; i < rewards; i++) {
+            String reward=inventoryManager.addReward(rewardRandom);
+            if (reward!=null)
+                unshownRewards.append(unshownRewards.length() == 0 ? "a " : ", a ").append(reward);
+        }
+        showRewards();
+    }
+
+    /**
+     * Tells the player about the rewards received since the last dialog. At most one dialog
+     * opens every {@value #REWARD_DIALOG_INTERVAL_MS} ms, listing every reward since the
+     * last one, so fast speeds do not bury the game in dialogs.
+     */
+    private void showRewards() {
+        if (unshownRewards.length() == 0 || rewardDialogOpen) return; // The open dialog is followed up when it closes
+        long wait = lastRewardDialog + REWARD_DIALOG_INTERVAL_MS - System.currentTimeMillis();
+        if (wait > 0) {
+            rewardTimer.setInitialDelay((int) wait);
+            rewardTimer.restart();
+            return;
+        }
+        String rewards = unshownRewards.toString();
+        unshownRewards.setLength(0);
+        rewardDialogOpen = true;
+        try {
+            JOptionPane.showMessageDialog(this, "You have recieved "+rewards+"!", "You got food",JOptionPane.INFORMATION_MESSAGE);
+        } finally {
+            rewardDialogOpen = false;
+            lastRewardDialog = System.currentTimeMillis();
+        }
+        showRewards(); // Rewards received while the dialog was open
+    }
+
+    /**
+     * Starts appending the current pet's ticks and actions to its event log, after
+     * closing the log of the previous pet.
+     */
+    private void startEventLog() {
+        if (eventLog != null) {
+            eventLog.close();
+            eventLog = null;
+        }
+        try {
+            eventLog = PetEventLog.openFor(currentPet);
+        } catch (IOException e) {
+            System.out.println(e); // Keep playing without a log
+        }
+    }
+
+    /**
+     * Shows the sprite of the pet's state and enables the buttons the state allows.
+     * The sprite paths and enabled actions are precomputed by {@link PetState}.
+     */
+    private void updateStateDisplay(PetState state) {
+        int species = currentPet.getSpecies().getIndex();
+        spriteAnimation(state.getSpritePath(species, 0), state.getSpritePath(species, 1)); // The running timer picks up the new frames
+        FeedButton.setEnabled(state.isEnabled(PetState.FEED));
+        VetButton.setEnabled(state.isEnabled(PetState.VET));
+        GiftButton.setEnabled(state.isEnabled(PetState.GIFT));
+        PlayButton.setEnabled(state.isEnabled(PetState.PLAY));
+        ExerciseButton.setEnabled(state.isEnabled(PetState.EXERCISE));
+        SleepButton.setEnabled(state.isEnabled(PetState.SLEEP));
+        SaveButton.setEnabled(state.isEnabled(PetState.SAVE));
+        if (state == PetState.DEAD) deadOptionPane();
     }
 
     /**
@@ -2738,6 +2760,7 @@ public class app extends javax.swing.JFrame {
     private void SaveButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_SaveButtonActionPerformed
         // TODO add your handling code here:
         gameManager.stopPeriodicGameplay();
+        if (eventLog != null) eventLog.checkpoint();
         if (petManager.petExists(currentPet)) {
             switchPanel("MainMenu");
             JOptionPane.showMessageDialog(null, "The pet has been saved to the same file. ", "Saved Pet", JOptionPane.INFORMATION_MESSAGE);
@@ -2776,7 +2799,7 @@ public class app extends javax.swing.JFrame {
     private void ViewStatsButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ViewStatsButtonActionPerformed
         // TODO add your handling code here:
         switchPanel("ViewPlaytimeStats"); // Goto ViewPlaytimeStats panel
-        endTime=System.currentTimeMillis(); // Setup an endtime to track how long user has been on current session
+        endTime=clock.millis(); // Setup an endtime to track how long user has been on current session
         duration=new TimeTracker(endTime-startTime); // Create time tracker based on current session playtime
         TotalPlaytimeLabel.setText("Total Playtime: "+duration.totalTime()); // Calculate the totaltime and update the TotalPlaytimeLabel
         AveragePlaytimeLabel.setText("Average Playtime: "+duration.averageTime());// Calculate the averageTime and update the AveragePlaytimeLabel
@@ -2863,8 +2886,8 @@ public class app extends javax.swing.JFrame {
     private void ResetPlaytimeStatsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ResetPlaytimeStatsActionPerformed
         // TODO add your handling code here:
         clearFile("src/my_package/assets/data/Time.json"); // Clear file upon the user trying to reset
-        startTime=System.currentTimeMillis(); // Reset the starttime
-        endTime=System.currentTimeMillis(); // Reset the endtime
+        startTime=clock.millis(); // Reset the starttime
+        endTime=clock.millis(); // Reset the endtime
         duration=new TimeTracker(endTime-startTime); // Create a new timetracker with our new values
         TotalPlaytimeLabel.setText("Total Playtime: "+duration.totalTime()); // Update total playtime
         AveragePlaytimeLabel.setText("Average Playtime: "+duration.averageTime()); // Update average playtime
@@ -2878,33 +2901,42 @@ public class app extends javax.swing.JFrame {
 
     private void PlayButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_PlayButtonActionPerformed
         // TODO add your handling code here:
-        gameManager.playPet();
+        gameManager.requestAction(TickRules.PLAY); // Merges key repeats into one action
     }//GEN-LAST:event_PlayButtonActionPerformed
 
     private void ExerciseButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ExerciseButtonActionPerformed
         // TODO add your handling code here:
-        gameManager.exercisePet();
+        gameManager.requestAction(TickRules.EXERCISE); // Merges key repeats into one action
     }//GEN-LAST:event_ExerciseButtonActionPerformed
 
     private void VetButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_VetButtonActionPerformed
         // TODO add your handling code here:
-        gameManager.vetPet();
+        gameManager.requestAction(TickRules.VET); // Merges key repeats into one action
     }//GEN-LAST:event_VetButtonActionPerformed
 
     private void SleepButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_SleepButtonActionPerformed
         // TODO add your handling code here:
-        gameManager.sleepPet();
+        gameManager.requestAction(TickRules.SLEEP_ACTION); // Merges key repeats into one action
     }//GEN-LAST:event_SleepButtonActionPerformed
 
     private void GameplayScreenKeyPressed(java.awt.event.KeyEvent evt) {//GEN-FIRST:event_GameplayScreenKeyPressed
         // TODO add your handling code here:
         switch (evt.getKeyCode()) {
             case KeyEvent.VK_P: // 'P' key to pause the game
-                gameManager.stopPeriodicGameplay();
-                stopSpriteAnimation();
+                // Freeze the simulation and the sprite where they are; their threads keep running
+                gameManager.pause();
+                spritePaused=true;
                 JOptionPane.showMessageDialog(this, "Game Paused. Click OK to resume.", "Pause",JOptionPane.INFORMATION_MESSAGE);
-                gameManager.periodicGameplay();
-                spriteAnimation(currentSpritePath, (currentSpritePath.substring(0, currentSpritePath.length() - 4))+"2.png");
+                spritePaused=false;
+                gameManager.resume();
+                break;
+            case KeyEvent.VK_EQUALS: // '+' key to speed the simulation up
+            case KeyEvent.VK_ADD:
+                changeSpeed(1);
+                break;
+            case KeyEvent.VK_MINUS: // '-' key to slow the simulation down
+            case KeyEvent.VK_SUBTRACT:
+                changeSpeed(-1);
                 break;
             case KeyEvent.VK_F: // 'F' key to feed the character
                 FeedButtonActionPerformed(null); // Call the feed action
@@ -2937,22 +2969,30 @@ public class app extends javax.swing.JFrame {
     // ==============================================================================================
     
     // Method to periodically perform tasks
+    // The animation runs in real time, whatever the simulation speed, on one timer that is
+    // only replaced when stopped; state changes just swap the frames it shows
     public void spriteAnimation(String spritePath, String spritePath2) {
+        currentSpritePath=spritePath;
+        currentSpritePath2=spritePath2;
+        if(spriteTimer!=null)
+            return;
         spriteTimer=new Timer();
         spriteTimer.scheduleAtFixedRate(new TimerTask() {
             private int tickCount = 0;
             @Override
             public void run() {
+                if (spritePaused)
+                    return; // Hold the current frame
                 // Tick counter to do certain funcions more/less often
                 tickCount++;
-                if ("dead".equals(currentPet.getState()))
-                    jLabel2.setIcon(new ImageIcon(getClass().getResource(spritePath)));// NOI18N
+                if (currentPet.snapshot().getPetState() == PetState.DEAD)
+                    jLabel2.setIcon(new ImageIcon(getClass().getResource(currentSpritePath)));// NOI18N
                 else {
                     if(tickCount%2==0){
                         //jLabel2.setIcon(new ImageIcon(spritePath2));
-                        updatePetImage(spritePath2);
+                        updatePetImage(currentSpritePath2);
                     } else {
-                        updatePetImage(spritePath);
+                        updatePetImage(currentSpritePath);
                     }
                 }
             }
@@ -2965,6 +3005,15 @@ public class app extends javax.swing.JFrame {
         }
     }
     
+    /**
+     * Moves the simulation speed up or down one step, between half speed and 1000x.
+     * The sprite animation keeps its real-time frame rate.
+     */
+    private void changeSpeed(int steps) {
+        speedStep=Math.max(0, Math.min(SPEEDS.length-1, speedStep+steps));
+        gameManager.setSpeed(SPEEDS[speedStep]);
+    }
+
     private void updatePetImage(String spritePath) {
         jLabel5.setIcon(new ImageIcon(getClass().getResource(spritePath)));
         jLabel5.repaint(); // Force repaint to refresh the JLabel
@@ -3236,8 +3285,28 @@ public class app extends javax.swing.JFrame {
     int randomValue;
     private InventoryManager inventoryManager;
     private Timer spriteTimer=null; // Timer for switching sprite animation
-    private String currentSpritePath; // File path to the current sprite
-    private final AccessManager accessManager=new AccessManager(); // Access manager object that handles all playtime restrictions for the program
+    private volatile boolean spritePaused=false; // True while the game is paused, to hold the current frame
+    private static final double[] SPEEDS={0.5, 1, 2, 5, 10, 100, 1000}; // Simulation speeds the +/- keys step through
+    private int speedStep=1; // Index of the current speed, real time
+    private volatile String currentSpritePath; // File path to the current sprite
+    private volatile String currentSpritePath2; // File path to the second frame of the current sprite
+    private Pet.Subscription petSubscription; // The UI's listener on the current pet, closed when switching pets
+    private final Object uiLock=new Object(); // Guards the pet changes waiting for the EDT, below
+    private int uiDirty; // Stats changed since the last redraw
+    private int uiHealth, uiHappiness, uiFullness, uiSleep, uiScore; // Latest values, drawn by the next redraw
+    private PetState uiState;
+    private int uiRewards; // Rewards earned since the last redraw
+    private boolean uiUpdatePosted; // A redraw is waiting on the EDT
+    private final Runnable uiUpdate=this::drawPetChanges; // The one redraw task, posted at most once at a time
+    private static final long REWARD_DIALOG_INTERVAL_MS=3000; // Shortest time between two reward dialogs
+    private final StringBuilder unshownRewards=new StringBuilder(); // Rewards not told yet; EDT only
+    private long lastRewardDialog; // When the last reward dialog closed; EDT only
+    private boolean rewardDialogOpen; // EDT only
+    private final javax.swing.Timer rewardTimer=new javax.swing.Timer(0, e -> showRewards()); // Shows deferred rewards
+    private PetEventLog eventLog; // Log of the current pet's ticks and actions, closed when switching pets
+    private final Clock clock=Clock.systemDefaultZone(); // Source of all times, replaceable for headless runs
+    private final SplittableRandom rewardRandom=new SplittableRandom(); // Source of the random rewards
+    private final AccessManager accessManager=new AccessManager(clock); // Access manager object that handles all playtime restrictions for the program
     // View playtime stats variables (Variables to track time spent on program)
     private TimeTracker duration; // Time object that handles all stuff associated to view statistics (handling time data, total and average time spent on program)
     private long startTime; // Current time when the program is opened
@@ -3245,7 +3314,7 @@ public class app extends javax.swing.JFrame {
     // Background music variables
     private Clip currentClip; // Current clip holds which music the game is currently playing
     private String currentClipPath; // Current clip path holds the path to access the currentClip
-    private PetManager petManager = new PetManager();
+    private PetManager petManager = new PetManager(clock);
     private Pet currentPet;
     private GameManager gameManager;
     private String type;
@@ -0,0 +1,146 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ActionMailbox class.
+ */
+class ActionMailboxTest {
+
+    /**
+     * Tests that actions run straight away while no tick thread owns the pet.
+     */
+    @Test
+    void testRunsImmediatelyWhenNotOwned() {
+        ActionMailbox mailbox = new ActionMailbox();
+        int[] runs = new int[1];
+        CompletableFuture<Void> done = mailbox.submit(() -> runs[0]++);
+        assertTrue(done.isDone());
+        assertEquals(1, runs[0]);
+    }
+
+    /**
+     * Tests that actions wait for the next tick while the pet is owned, and run before it.
+     */
+    @Test
+    void testWaitsForTickWhenOwned() {
+        ActionMailbox mailbox = new ActionMailbox();
+        mailbox.setOwned(true);
+        List<String> order = new ArrayList<>();
+        CompletableFuture<Void> done = mailbox.submit(() -> order.add("action"));
+        assertFalse(done.isDone());
+        assertEquals(1, mailbox.getPendingCount());
+
+        mailbox.runTick(() -> order.add("tick"));
+        assertTrue(done.isDone());
+        assertEquals(List.of("action", "tick"), order);
+    }
+
+    /**
+     * Tests that releasing the pet runs the actions left in the queue.
+     */
+    @Test
+    void testReleaseRunsLeftovers() {
+        ActionMailbox mailbox = new ActionMailbox();
+        mailbox.setOwned(true);
+        CompletableFuture<Void> done = mailbox.submit(() -> { });
+        mailbox.setOwned(false);
+        assertTrue(done.isDone());
+        assertEquals(0, mailbox.getPendingCount());
+    }
+
+    /**
+     * Tests that a failing action completes its future exceptionally without stopping the others.
+     */
+    @Test
+    void testFailingAction() {
+        ActionMailbox mailbox = new ActionMailbox();
+        mailbox.setOwned(true);
+        CompletableFuture<Void> failed = mailbox.submit(() -> { throw new IllegalStateException("boom"); });
+        CompletableFuture<Void> next = mailbox.submit(() -> { });
+        mailbox.runTick(() -> { });
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+    }
+
+    /**
+     * Tests that actions from many threads and a running tick thread lose no updates.
+     */
+    @Test
+    void testNoLostUpdates() throws InterruptedException, ExecutionException {
+        Pet pet = new Pet("Rusty", "fox");
+        ActionMailbox mailbox = pet.getMailbox();
+        mailbox.setOwned(true);
+        int perThread = 5000;
+        int[] ticks = new int[1];
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread ticker = new Thread(() -> {
+            while (!stop.get()) {
+                mailbox.runTick(() -> {
+                    pet.setScore(pet.getScore() + 1); // The tick changes the same stat as the actions
+                    ticks[0]++;
+                });
+            }
+        });
+        ticker.start();
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] submitters = new Thread[4];
+        for (int t = 0; t < submitters.length; t++) {
+            submitters[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    futures.add(pet.submit(() -> pet.setScore(pet.getScore() + 1)));
+                }
+            });
+            submitters[t].start();
+        }
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        stop.set(true);
+        ticker.join();
+        mailbox.setOwned(false);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        assertEquals(submitters.length * perThread + ticks[0], pet.getScore());
+    }
+
+    /**
+     * Tests that a tick arriving while another thread runs actions is handed to that
+     * thread, which runs it after them, instead of making the tick thread wait.
+     */
+    @Test
+    void testTickHandedToRunningThread() throws Exception {
+        ActionMailbox mailbox = new ActionMailbox();
+        CountDownLatch inAction = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Thread submitter = new Thread(() -> mailbox.submit(() -> {
+            inAction.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add("action");
+        }));
+        submitter.start();
+        assertTrue(inAction.await(5, TimeUnit.SECONDS), "The action holds the pet");
+
+        mailbox.setOwned(true);
+        mailbox.runTick(() -> order.add("tick"));
+        assertEquals(List.of(), order, "The tick thread returned without waiting");
+        release.countDown();
+        submitter.join(5000);
+        assertEquals(List.of("action", "tick"), order, "The action's thread ran the tick after it");
+        assertEquals(0, mailbox.getPendingCount());
+        mailbox.setOwned(false);
+    }
+}
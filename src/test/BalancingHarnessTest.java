@@ -0,0 +1,90 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the BalancingHarness class.
+ */
+class BalancingHarnessTest {
+
+    /**
+     * Tests that unattended pets in the harness end up exactly like a single pet ticked on
+     * its own for as long.
+     */
+    @Test
+    void testIdleMatchesSinglePet() {
+        int maxTicks = 2000;
+        try (BalancingHarness harness = new BalancingHarness(1, maxTicks)) {
+            Map<Species, BalancingHarness.Result> results = harness.run(BalancingHarness.Policy.IDLE, 100, 1);
+            assertEquals(Species.count() - 1, results.size(), "One result per species");
+            for (BalancingHarness.Result result : results.values()) {
+                Pet pet = new Pet(null, result.getSpecies().getName());
+                int tick = 0;
+                while (tick < maxTicks && pet.getPetState() != PetState.DEAD) {
+                    pet.runTick();
+                    tick++;
+                }
+                assertEquals(100, result.getLifetimes());
+                boolean died = pet.getPetState() == PetState.DEAD;
+                assertEquals(died ? 0 : 100, result.getSurvivors(), "Unattended pets share one fate");
+                assertEquals(died ? tick : -1, result.getDeathTickPercentile(50), "Same death tick as a lone pet");
+                assertEquals(pet.getScore(), result.getScorePercentile(10), "Same score as a lone pet");
+                assertEquals(pet.getScore(), result.getScorePercentile(90), "Same score as a lone pet");
+            }
+        }
+    }
+
+    /**
+     * Tests that a run gives the same results whatever the number of threads.
+     */
+    @Test
+    void testDeterministicAcrossThreads() {
+        BalancingHarness.Result one;
+        BalancingHarness.Result two;
+        try (BalancingHarness harness = new BalancingHarness(1, 2000)) {
+            one = harness.run(BalancingHarness.Policy.ATTENTIVE, 5000, 5).get(Species.forName("cat"));
+        }
+        try (BalancingHarness harness = new BalancingHarness(3, 2000)) {
+            two = harness.run(BalancingHarness.Policy.ATTENTIVE, 5000, 5).get(Species.forName("cat"));
+        }
+        assertEquals(one.toString(), two.toString());
+        assertEquals(one.getMeanScore(), two.getMeanScore());
+    }
+
+    /**
+     * Tests the survival curve and time-to-death statistics of pets that die.
+     */
+    @Test
+    void testSurvivalCurve() {
+        try (BalancingHarness harness = new BalancingHarness(2, 2000)) {
+            BalancingHarness.Result cats = harness.run(BalancingHarness.Policy.ATTENTIVE, 2000, 2).get(Species.forName("cat"));
+            assertEquals(2000, cats.getLifetimes());
+            assertEquals(1.0, cats.getSurvival(0), "Every pet is alive at the start");
+            double previous = 1;
+            for (int tick = 0; tick <= harness.getMaxTicks(); tick += 50) {
+                double survival = cats.getSurvival(tick);
+                assertTrue(survival <= previous, "Survival never rises");
+                previous = survival;
+            }
+            assertEquals(cats.getSurvivors() / 2000.0, cats.getSurvival(harness.getMaxTicks()), 1e-9);
+            int p10 = cats.getDeathTickPercentile(10);
+            int p50 = cats.getDeathTickPercentile(50);
+            assertTrue(p10 > 0 && p10 <= p50, "Percentiles are in order");
+            assertTrue(cats.getSurvival(p50) <= 0.5, "Half the pets died by the median");
+            assertTrue(cats.getMeanLifetime() > 0 && cats.getMeanLifetime() <= harness.getMaxTicks());
+        }
+    }
+
+    /**
+     * Tests that invalid settings are rejected.
+     */
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BalancingHarness(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new BalancingHarness(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BalancingHarness.Policy("bad", 2, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> BalancingHarness.Policy.forName("unknown"));
+    }
+}
@@ -0,0 +1,53 @@
+package my_package;
+
+/**
+ * Measures the heap used by a population of pets stored as {@link Pet} objects, as rows of
+ * a shared {@link PetStatTable}, and in a {@link CompactPetStore}.
+ * Run with {@code java -cp <classes> my_package.CompactPetStoreBenchmark [pets]}.
+ */
+public class CompactPetStoreBenchmark {
+
+    /**
+     * Runs the measurement and prints the bytes used per pet for each representation.
+     * @param args Optional pet count
+     */
+    public static void main(String[] args) {
+        int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] types = {"cat", "fox", "owl"};
+
+        long before = usedMemory();
+        Pet[] objects = new Pet[pets];
+        for (int i = 0; i < pets; i++) {
+            objects[i] = new Pet("pet" + i, types[i % types.length]);
+        }
+        report("Pet objects", usedMemory() - before, pets);
+
+        before = usedMemory();
+        PetStatTable table = new PetStatTable(pets);
+        for (int i = 0; i < pets; i++) {
+            table.addRow(types[i % types.length]);
+        }
+        report("PetStatTable", usedMemory() - before, pets);
+
+        before = usedMemory();
+        CompactPetStore store = new CompactPetStore(pets);
+        for (int i = 0; i < pets; i++) {
+            store.add(objects[i]);
+        }
+        report("CompactPetStore", usedMemory() - before, pets);
+        // Keep everything reachable until all three have been measured
+        System.out.println(objects.length + table.size() + store.size() > 0 ? "" : "empty");
+    }
+
+    private static void report(String label, long bytes, int pets) {
+        System.out.printf("%s: %.1f MB, %.1f bytes per pet%n", label, bytes / 1048576.0, (double) bytes / pets);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,146 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CompactPetStore class.
+ */
+class CompactPetStoreTest {
+
+    /**
+     * Tests that every field survives packing, including the largest values.
+     */
+    @Test
+    void testEncodeDecode() {
+        long packed = CompactPetStore.encode(255, 1, 100, 0, PetStatTable.DEAD, 3, CompactPetStore.MAX_COOLDOWN);
+        assertEquals(255, CompactPetStore.health(packed));
+        assertEquals(1, CompactPetStore.happiness(packed));
+        assertEquals(100, CompactPetStore.fullness(packed));
+        assertEquals(0, CompactPetStore.sleep(packed));
+        assertEquals(PetStatTable.DEAD, CompactPetStore.state(packed));
+        assertEquals(3, CompactPetStore.species(packed));
+        assertEquals(CompactPetStore.MAX_COOLDOWN, CompactPetStore.cooldown(packed));
+    }
+
+    /**
+     * Tests that values which do not fit are rejected rather than corrupting other fields.
+     */
+    @Test
+    void testEncodeRejectsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> CompactPetStore.encode(256, 0, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> CompactPetStore.encode(0, -1, 0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> CompactPetStore.encode(0, 0, 0, 0, 0, 0, -5));
+    }
+
+    /**
+     * Tests that pets read back from the store have the stats they were stored with.
+     */
+    @Test
+    void testAddAndGet() {
+        CompactPetStore store = new CompactPetStore(1);
+        Pet pet = new Pet("Rusty", "fox");
+        pet.setHealth(12);
+        pet.setSleep(3);
+        pet.setScore(1234567);
+        pet.setState("hungry");
+        pet.setCooldown(30);
+        store.add(new Pet("Whiskers", "cat"));
+        int index = store.add(pet);
+        assertEquals(2, store.size());
+
+        Pet copy = store.get(index);
+        assertEquals("fox", copy.getType());
+        assertEquals(12, copy.getHealth());
+        assertEquals(3, copy.getSleep());
+        assertEquals(pet.getHappiness(), copy.getHappiness());
+        assertEquals(1234567, copy.getScore());
+        assertEquals("hungry", copy.getState());
+        assertEquals(30, copy.getCooldown());
+        assertEquals("cat", store.get(0).getType());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+    }
+
+    /**
+     * Tests that rows can be moved between the store and a stat table for simulation.
+     */
+    @Test
+    void testCopyToAndFromTable() {
+        CompactPetStore store = new CompactPetStore(1);
+        int index = store.add(new Pet("Hoot", "owl"));
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow("cat");
+        store.copyTo(index, table, row);
+        table.advance(row, 500);
+        store.copyFrom(table, row, index);
+        assertEquals(table.getSleep(row), CompactPetStore.sleep(store.getPacked(index)));
+        assertEquals(table.getScore(row), store.getScore(index));
+        assertEquals("owl", store.get(index).getType());
+    }
+
+    /**
+     * Tests that the tick phase is stored, so a pet copied out and back decays on the same
+     * ticks as one that stayed in its table.
+     */
+    @Test
+    void testKeepsTickPhase() {
+        assertEquals(5, TickRules.getBuiltIn().getCycle(), "The built-in decay repeats every 5 ticks");
+        PetStatTable table = new PetStatTable(2);
+        int stayed = table.addRow("cat");
+        int moved = table.addRow("cat");
+        table.advance(stayed, 7);
+        table.advance(moved, 7);
+
+        CompactPetStore store = new CompactPetStore(1);
+        int index = store.add(new Pet("Whiskers", "cat"));
+        store.copyFrom(table, moved, index);
+        assertEquals(2, CompactPetStore.phase(store.getPacked(index)), "7 ticks is phase 2 of 5");
+        table.ticks[moved] = 0;
+        store.copyTo(index, table, moved);
+        assertEquals(2, table.ticks[moved]);
+        for (int tick = 0; tick < 4; tick++) {
+            table.tick(0, 2);
+            assertEquals(table.getFullness(stayed), table.getFullness(moved), "fullness after tick " + tick);
+            assertEquals(table.getHappiness(stayed), table.getHappiness(moved), "happiness after tick " + tick);
+        }
+    }
+
+    /**
+     * Tests that a pet that just died from the sleep penalty, and so has negative health,
+     * is stored with 0 health instead of being rejected.
+     */
+    @Test
+    void testStoresPetThatJustDied() {
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow("fox");
+        table.health[row] = 10;
+        table.sleep[row] = 0;
+        table.tick(row, row + 1);
+        assertEquals(-5, table.getHealth(row), "The penalty comes after the limits");
+        assertEquals("dead", table.getState(row));
+
+        CompactPetStore store = new CompactPetStore(2);
+        int index = store.add(new Pet("Rusty", "fox"));
+        store.copyFrom(table, row, index);
+        assertEquals(0, CompactPetStore.health(store.getPacked(index)));
+        assertEquals(PetState.DEAD.ordinal(), CompactPetStore.state(store.getPacked(index)));
+
+        Pet dead = new Pet(null, table, row);
+        int added = store.add(dead);
+        assertEquals(0, CompactPetStore.health(store.getPacked(added)));
+    }
+
+    /**
+     * Tests that a million pets fit in about 16 MB.
+     */
+    @Test
+    void testMillionPetsMemory() {
+        int count = 1_000_000;
+        CompactPetStore store = new CompactPetStore(count);
+        Pet pet = new Pet("Template", "owl");
+        for (int i = 0; i < count; i++) {
+            store.add(pet);
+        }
+        assertTrue(store.getMemoryBytes() <= 16L * 1024 * 1024, "A million pets should fit in 16 MB");
+    }
+}
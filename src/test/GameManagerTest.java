@@ -1,6 +1,9 @@
 package my_package;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -77,4 +80,250 @@ class GameManagerTest {
         assertEquals(8, pet.getFullness(), "Pet's fullness should decrease by 2 after exercising.");
         assertEquals(3, pet.getScore(), "Pet's score should increase by 1 after exercising.");
     }
+
+    /**
+     * Tests that starting and stopping gameplay registers the pet with the shared scheduler once.
+     */
+    @Test
+    void testPeriodicGameplayRegistersWithScheduler() {
+        SimulationScheduler scheduler = SimulationScheduler.getInstance();
+        int before = scheduler.getRegisteredCount();
+        gameManager.periodicGameplay();
+        gameManager.periodicGameplay(); // Restarting should not register a second tick
+        assertEquals(before + 1, scheduler.getRegisteredCount(), "Pet should be registered once.");
+        gameManager.stopPeriodicGameplay();
+        gameManager.stopPeriodicGameplay();
+        assertEquals(before, scheduler.getRegisteredCount(), "Pet should be unregistered after stopping.");
+    }
+
+    /**
+     * Tests that a burst of repeated requests between two ticks becomes one action.
+     */
+    @Test
+    void testRequestActionCoalescesRepeats() {
+        Pet fox = new Pet("Rusty", "fox");
+        fox.setHappiness(50);
+        GameManager manager = new GameManager(fox);
+        fox.getMailbox().setOwned(true); // As if registered with the scheduler
+        int[] updates = new int[1];
+        fox.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> updates[0]++);
+
+        int accepted = 0;
+        for (int repeat = 0; repeat < 30; repeat++) {
+            if (manager.requestAction(TickRules.PLAY)) accepted++;
+        }
+        assertEquals(1, accepted, "Key repeats should merge into the waiting action");
+        assertEquals(50, fox.getHappiness(), "The action should wait for the tick");
+
+        manager.tick();
+        assertEquals(55, fox.getHappiness(), "The action should run once");
+        assertEquals(1, fox.getScore());
+        assertEquals(1, updates[0], "The action should be one state update");
+        fox.getMailbox().setOwned(false);
+    }
+
+    /**
+     * Tests that requests are ignored while the cooldown of the last action runs.
+     */
+    @Test
+    void testRequestActionCooldown() {
+        Pet fox = new Pet("Rusty", "fox");
+        GameManager manager = new GameManager(fox);
+        fox.getMailbox().setOwned(true);
+        assertTrue(manager.requestAction(TickRules.VET));
+        manager.tick();
+        int cooldown = TickRules.getActive().getCooldown(TickRules.VET);
+        assertEquals(cooldown - 1, fox.getCooldown());
+        for (int tick = 1; tick < cooldown; tick++) {
+            assertFalse(manager.requestAction(TickRules.PLAY), "Requests should be ignored during the cooldown");
+            manager.tick();
+        }
+        assertTrue(manager.requestAction(TickRules.PLAY));
+        fox.getMailbox().setOwned(false);
+    }
+
+    /**
+     * Tests that the speed sets how often the pet wakes and how many ticks each wake-up runs.
+     */
+    @Test
+    void testSpeedBatchesTicks() {
+        assertEquals(1.0, gameManager.getSpeed());
+        assertEquals(GameManager.DECREASE_INTERVAL_MS, gameManager.getWakePeriodMs(), "Real time wakes once per tick");
+
+        gameManager.setSpeed(10);
+        assertEquals(100, gameManager.getWakePeriodMs(), "10x wakes ten times as often");
+        int score = pet.getScore();
+        for (int i = 0; i < 5; i++) {
+            gameManager.wake();
+        }
+        assertEquals(score + 5, pet.getScore(), "One tick per wake-up at 10x");
+
+        gameManager.setSpeed(1000);
+        assertEquals(GameManager.MIN_WAKE_MS, gameManager.getWakePeriodMs(), "Wake-ups are never closer than the minimum");
+        score = pet.getScore();
+        gameManager.wake();
+        assertEquals(score + 50, pet.getScore(), "50 ticks batched into one wake-up at 1000x");
+    }
+
+    /**
+     * Tests that slow speeds carry the partial tick over to the next wake-up.
+     */
+    @Test
+    void testSlowSpeedKeepsPartialTicks() {
+        gameManager.setSpeed(0.5);
+        assertEquals(2000, gameManager.getWakePeriodMs());
+        gameManager.setSpeed(1.5);
+        int score = pet.getScore();
+        for (int i = 0; i < 10; i++) {
+            gameManager.wake(); // 667 ms per wake-up at 1.5x credits 1000.5 ms of simulation time
+        }
+        assertEquals(score + 10, pet.getScore(), "No tick is lost or added");
+        assertThrows(IllegalArgumentException.class, () -> gameManager.setSpeed(0.1));
+        assertThrows(IllegalArgumentException.class, () -> gameManager.setSpeed(2000));
+        assertThrows(IllegalArgumentException.class, () -> gameManager.setSpeed(Double.NaN));
+    }
+
+    /**
+     * Tests that pausing keeps the decay phase and the rest of the wake-up period, and
+     * that resuming carries on from there.
+     */
+    @Test
+    void testPauseKeepsPhase() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(1000, java.time.ZoneOffset.UTC);
+        GameManager manager = new GameManager(pet, clock);
+        manager.pause();
+        assertFalse(manager.isPaused(), "Nothing to pause before the loop starts");
+
+        manager.periodicGameplay(); // Wakes at once, then every second
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (pet.getTickCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        clock.advance(300);
+        manager.pause();
+        assertTrue(manager.isPaused());
+        int ticks = pet.getTickCount();
+        assertEquals(1, ticks, "The first tick ran straight away");
+        assertEquals(700, manager.getResumeDelayMs(), "The rest of the second is kept for after the pause");
+
+        clock.advance(60_000); // Time spent paused does not count
+        pet.getMailbox().submit(() -> pet.setScore(100));
+        assertEquals(0, pet.getScore(), "Actions wait while paused");
+        Thread.sleep(50);
+        assertEquals(ticks, pet.getTickCount(), "No ticks while paused");
+
+        manager.resume();
+        assertFalse(manager.isPaused());
+        assertEquals(ticks, pet.getTickCount(), "Resuming keeps the decay phase");
+        manager.stopPeriodicGameplay();
+        assertEquals(100, pet.getScore(), "Stopping runs the waiting actions");
+    }
+
+    /**
+     * Tests that changing the speed mid-period carries the elapsed part of the period over,
+     * instead of starting a whole new period.
+     */
+    @Test
+    void testSpeedChangeKeepsPhase() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(1000, java.time.ZoneOffset.UTC);
+        GameManager manager = new GameManager(pet, clock);
+        manager.periodicGameplay(); // Wakes at once, then every second
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (pet.getTickCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        clock.advance(300);
+        manager.setSpeed(2);
+        manager.pause();
+        assertEquals(1, pet.getTickCount(), "No tick is added by the change");
+        assertEquals(350, manager.getResumeDelayMs(), "The 70% of the period left takes 350 ms at 2x");
+        manager.stopPeriodicGameplay();
+    }
+
+    /**
+     * Tests that a listener taking its time during a wake-up does not hold up pausing,
+     * changing the speed or stopping the loop from another thread.
+     */
+    @Test
+    void testSlowListenerDoesNotBlockManager() throws Exception {
+        Pet fox = new Pet("Rusty", "fox");
+        GameManager manager = new GameManager(fox);
+        fox.setSleep(1000); // The first tick brings sleep back within its limit, which the listener hears
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PetChangeListener listener = (dirty, health, happiness, fullness, sleep, score, state) -> {
+            inListener.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        fox.addChangeListener(listener);
+        Thread ticker = new Thread(manager::wake);
+        ticker.start();
+        try {
+            assertTrue(inListener.await(5, TimeUnit.SECONDS), "The wake-up reached the listener");
+            CompletableFuture.runAsync(() -> {
+                manager.pause();
+                manager.setSpeed(2);
+                manager.stopPeriodicGameplay();
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            ticker.join();
+        }
+        assertEquals(1, fox.getTickCount(), "The wake-up finished its tick");
+    }
+
+    /**
+     * Tests that the cooldown of an action runs out on a lazy pet and on a pet in a
+     * transition queue, which are advanced in one step rather than ticked.
+     */
+    @Test
+    void testCooldownRunsOutWithoutTicks() {
+        VirtualClock clock = new VirtualClock(1_000_000, java.time.ZoneOffset.UTC);
+        Pet lazy = new Pet("Lazy", "cat");
+        GameManager lazyManager = new GameManager(lazy, clock);
+        assertTrue(lazyManager.requestAction(TickRules.VET));
+        assertTrue(lazy.getCooldown() > 0, "The vet starts a cooldown");
+        lazy.startLazyEvaluation(clock::millis, GameManager.DECREASE_INTERVAL_MS);
+        assertEquals(lazy.getCooldown(), lazy.snapshot().getCooldown());
+        clock.advance(100 * GameManager.DECREASE_INTERVAL_MS);
+        assertEquals(0, lazy.snapshot().getCooldown(), "Snapshots count the cooldown down too");
+        assertEquals(0, lazy.getCooldown());
+        assertTrue(lazyManager.requestAction(TickRules.PLAY), "The lazy pet can act again");
+
+        TransitionQueue queue = new TransitionQueue(new PetStatTable(1));
+        Pet queued = queue.addPet("Queued", "fox");
+        GameManager queuedManager = new GameManager(queued);
+        assertTrue(queuedManager.requestAction(TickRules.PLAY));
+        assertTrue(queued.getCooldown() > 0, "Play starts a cooldown");
+        queue.advance(100);
+        assertEquals(0, queued.getCooldown());
+        assertTrue(queuedManager.requestAction(TickRules.EXERCISE), "The queued pet can act again");
+    }
+
+    /**
+     * Tests that a queued pet's queue runs at the manager's speed, and that pausing or
+     * changing the speed of one queued pet is refused while the queue runs all its pets.
+     */
+    @Test
+    void testQueuedPetSpeedAndPause() throws InterruptedException {
+        TransitionQueue queue = new TransitionQueue(new PetStatTable(1));
+        Pet queued = queue.addPet("Queued", "fox");
+        GameManager queuedManager = new GameManager(queued);
+        queuedManager.setSpeed(20);
+        queuedManager.periodicGameplay();
+        try {
+            assertTrue(queue.isRunning(), "Starting the game starts the queue");
+            Thread.sleep(1000);
+            assertTrue(queue.getNow() >= 5, "At 20x the queue ticks every 50 ms, ticked " + queue.getNow());
+            assertThrows(IllegalStateException.class, queuedManager::pause);
+            assertThrows(IllegalStateException.class, () -> queuedManager.setSpeed(2));
+            assertEquals(20, queuedManager.getSpeed(), "The refused speed is not kept");
+        } finally {
+            queue.stop();
+        }
+    }
 }
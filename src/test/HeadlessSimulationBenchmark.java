@@ -0,0 +1,35 @@
+package my_package;
+
+import java.time.Duration;
+
+/**
+ * Measures how fast {@link HeadlessSimulation} runs a simulated week, and checks that two
+ * runs with the same seed end identically.
+ * Run with {@code java -cp <classes> my_package.HeadlessSimulationBenchmark [pets] [days] [seed]}.
+ */
+public class HeadlessSimulationBenchmark {
+
+    /**
+     * Runs the benchmark and prints the time taken and the fingerprint of each run.
+     * @param args Optional pet count, number of simulated days and seed
+     */
+    public static void main(String[] args) {
+        int pets = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        String[] types = {"cat", "fox", "owl"};
+
+        for (int run = 0; run < 2; run++) {
+            HeadlessSimulation simulation = new HeadlessSimulation(seed, 0);
+            simulation.setActionChance(0.01);
+            for (int i = 0; i < pets; i++) {
+                simulation.addPet("Pet" + i, types[i % types.length]);
+            }
+            long start = System.nanoTime();
+            simulation.run(Duration.ofDays(days));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d pets, %d days in %.2f s (%.1f million pet ticks per second), fingerprint %016x%n",
+                    pets, days, seconds, simulation.getTicks() * pets / seconds / 1e6, simulation.fingerprint());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the HeadlessSimulation and VirtualClock classes.
+ */
+class HeadlessSimulationTest {
+    private static final long START = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+
+    /**
+     * Tests that the same seed gives bit-identical results over a simulated day.
+     */
+    @Test
+    void testSameSeedSameResult() {
+        assertEquals(simulate(42).fingerprint(), simulate(42).fingerprint(), "Runs with one seed are identical");
+        assertNotEquals(simulate(42).fingerprint(), simulate(43).fingerprint(), "Seeds change the player's actions");
+    }
+
+    /**
+     * Tests that the virtual clock moves one tick interval per tick, and stamps the pets.
+     */
+    @Test
+    void testVirtualTime() {
+        HeadlessSimulation simulation = simulate(1);
+        long day = Duration.ofDays(1).toMillis();
+        assertEquals(day / GameManager.DECREASE_INTERVAL_MS, simulation.getTicks());
+        assertEquals(START + day, simulation.getClock().millis());
+        assertEquals(START + day, simulation.getPet(0).getLastSimulated(), "Pets are stamped with virtual time");
+    }
+
+    /**
+     * Tests that a pet's random rolls do not depend on which pets were added after it.
+     */
+    @Test
+    void testPetStreamsIndependent() {
+        HeadlessSimulation one = new HeadlessSimulation(7, START);
+        HeadlessSimulation two = new HeadlessSimulation(7, START);
+        one.setActionChance(0.2);
+        two.setActionChance(0.2);
+        one.addPet("First", "fox");
+        two.addPet("First", "fox");
+        two.addPet("Second", "owl");
+        one.run(Duration.ofHours(6));
+        two.run(Duration.ofHours(6));
+        assertEquals(one.getPet(0).getScore(), two.getPet(0).getScore());
+        assertArrayEquals(one.getRewards(0), two.getRewards(0));
+    }
+
+    /**
+     * Tests that an active player earns rewards, and that the rolls follow the seed.
+     */
+    @Test
+    void testRewards() {
+        HeadlessSimulation simulation = simulate(5);
+        int total = 0;
+        for (int i = 0; i < simulation.size(); i++) {
+            for (int count : simulation.getRewards(i)) {
+                total += count;
+            }
+        }
+        assertTrue(total > 0, "Scores reached the reward interval");
+
+        SplittableRandom a = new SplittableRandom(9);
+        SplittableRandom b = new SplittableRandom(9);
+        for (int i = 0; i < 100; i++) {
+            int reward = InventoryManager.rollReward(a);
+            assertEquals(reward, InventoryManager.rollReward(b));
+            assertTrue(reward >= 0 && reward < 6);
+        }
+    }
+
+    /**
+     * Tests that access hours are checked against the virtual clock.
+     */
+    @Test
+    void testVirtualClock() {
+        VirtualClock clock = new VirtualClock(Instant.parse("2024-01-01T09:30:00Z"));
+        assertEquals(LocalTime.of(9, 30), LocalTime.now(clock));
+        clock.advance(Duration.ofHours(15).toMillis());
+        assertEquals(LocalTime.of(0, 30), LocalTime.now(clock), "The clock wraps past midnight");
+        assertEquals(ZoneOffset.UTC, clock.getZone());
+        assertThrows(IllegalArgumentException.class, () -> clock.advance(-1));
+    }
+
+    private static HeadlessSimulation simulate(long seed) {
+        HeadlessSimulation simulation = new HeadlessSimulation(seed, START);
+        simulation.setActionChance(0.05);
+        for (int i = 0; i < 9; i++) {
+            simulation.addPet("Pet" + i, TYPES[i % TYPES.length]);
+        }
+        simulation.run(Duration.ofDays(1));
+        return simulation;
+    }
+}
@@ -0,0 +1,73 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+class LatencyHistogramTest {
+
+    /**
+     * Tests that percentiles are reported to within an eighth of the true value.
+     */
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            double expected = percentile * 1000 * 1000;
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected * 1.125, "p" + percentile + " was " + actual);
+        }
+        assertEquals(100_000_000, histogram.getPercentile(100), "Never above the maximum");
+    }
+
+    /**
+     * Tests small and negative values, and resetting.
+     */
+    @Test
+    void testSmallValuesAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50), "Empty histograms report 0");
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(15);
+        assertEquals(0, histogram.getPercentile(30), "Negative values count as 0");
+        assertEquals(3, histogram.getPercentile(60), "Small values are exact");
+        assertEquals(15, histogram.getPercentile(100));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100), "The largest values have a bucket");
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    /**
+     * Tests that recording from several threads loses no counts.
+     */
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400_000, histogram.getCount());
+    }
+}
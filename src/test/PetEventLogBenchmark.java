@@ -0,0 +1,50 @@
+package my_package;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+
+/**
+ * Measures how fast a {@link PetEventLog} is replayed, from its first snapshot to its end.
+ * The log is recorded from a pet ticked and played with at random, with a few ticks
+ * between actions, much like a player who keeps the game open.
+ * Run with {@code java -cp <classes> my_package.PetEventLogBenchmark [actions]}.
+ */
+public class PetEventLogBenchmark {
+
+    /**
+     * Records a log, then prints its size and the number of records replayed per second.
+     * @param args Optional number of actions to record
+     * @throws IOException if the log cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int actions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        File file = File.createTempFile("pet", ".log");
+        file.deleteOnExit();
+        Pet pet = new Pet("Rusty", "cat");
+        GameManager gameManager = new GameManager(pet);
+        SplittableRandom random = new SplittableRandom(1);
+        try (PetEventLog log = PetEventLog.open(file)) {
+            pet.setEventLog(log);
+            for (int i = 0; i < actions; i++) {
+                gameManager.tick(random.nextInt(1, 6));
+                if (pet.getPetState() == PetState.DEAD) pet.revivePet();
+                else gameManager.requestAction(random.nextInt(TickRules.ACTION_COUNT));
+            }
+        }
+        LongBuffer records = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).asLongBuffer();
+        System.out.printf("log of %d actions: %.1f MB%n", actions, file.length() / 1e6);
+
+        for (int round = 0; round < 5; round++) {
+            PetStatTable table = new PetStatTable(1);
+            int row = table.addRow("cat");
+            long start = System.nanoTime();
+            long count = PetEventLog.replay(records, 1, records.limit(), table, row);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("replayed %d records: %.1f million per second%n", count, count / seconds / 1_000_000);
+        }
+    }
+}
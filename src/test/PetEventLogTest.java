@@ -0,0 +1,187 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the PetEventLog class.
+ */
+class PetEventLogTest {
+    @TempDir
+    File folder;
+
+    /**
+     * Tests that a pet recovered from its log matches the live pet after ticks, actions,
+     * cooldowns, lazy evaluation and a revive, over several automatic snapshots.
+     */
+    @Test
+    void testRecoverMatchesLivePet() throws IOException {
+        File file = new File(folder, "rusty.log");
+        VirtualClock clock = new VirtualClock(1_000_000, ZoneOffset.UTC);
+        Pet pet = new Pet("Rusty", "fox");
+        GameManager gameManager = new GameManager(pet, clock);
+        SplittableRandom random = new SplittableRandom(5);
+        try (PetEventLog log = PetEventLog.open(file)) {
+            pet.setEventLog(log);
+            for (int i = 0; i < 3 * PetEventLog.SNAPSHOT_INTERVAL; i++) {
+                int ticks = random.nextInt(1, 20);
+                clock.advance(ticks * GameManager.DECREASE_INTERVAL_MS);
+                gameManager.tick(ticks);
+                int roll = random.nextInt(20);
+                if (roll < TickRules.ACTION_COUNT) gameManager.requestAction(roll);
+                else if (roll == 4) gameManager.playPet();
+                else if (roll == 5) gameManager.vetPet();
+                else if (roll == 6 && pet.getPetState() == PetState.DEAD) pet.revivePet();
+                else if (roll == 7) {
+                    pet.startLazyEvaluation(clock::millis, GameManager.DECREASE_INTERVAL_MS);
+                    clock.advance(random.nextInt(100_000));
+                    pet.stopLazyEvaluation();
+                }
+            }
+        }
+
+        Pet recovered = PetEventLog.recover(file, "Rusty");
+        assertEquals(pet.getType(), recovered.getType());
+        assertEquals(pet.getHealth(), recovered.getHealth(), "health");
+        assertEquals(pet.getHappiness(), recovered.getHappiness(), "happiness");
+        assertEquals(pet.getFullness(), recovered.getFullness(), "fullness");
+        assertEquals(pet.getSleep(), recovered.getSleep(), "sleep");
+        assertEquals(pet.getScore(), recovered.getScore(), "score");
+        assertEquals(pet.getPetState(), recovered.getPetState(), "state");
+        assertEquals(pet.getCooldown(), recovered.getCooldown(), "cooldown");
+        assertEquals(pet.getTickCount(), recovered.getTickCount(), "The decay phase is recovered");
+    }
+
+    /**
+     * Tests that a record cut short by a crash is dropped when the log is opened again,
+     * and that logging carries on after it.
+     */
+    @Test
+    void testTornTailIsDropped() throws IOException {
+        File file = new File(folder, "owl.log");
+        Pet pet = new Pet("Hoot", "owl");
+        GameManager gameManager = new GameManager(pet);
+        try (PetEventLog log = PetEventLog.open(file)) {
+            pet.setEventLog(log);
+            gameManager.tick(7);
+            gameManager.playPet();
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[] {9, 0, 0, 0, 0, 0, 0, 1, 2, 3, 4}); // A snapshot cut short
+        }
+
+        try (PetEventLog log = PetEventLog.open(file)) {
+            assertEquals(0, file.length() % Long.BYTES, "Only whole records are kept");
+            pet.setEventLog(log);
+            gameManager.tick(12);
+            gameManager.exercisePet();
+        }
+        Pet recovered = PetEventLog.recover(file, "Hoot");
+        assertEquals(pet.getHealth(), recovered.getHealth(), "health");
+        assertEquals(pet.getHappiness(), recovered.getHappiness(), "happiness");
+        assertEquals(pet.getSleep(), recovered.getSleep(), "sleep");
+        assertEquals(pet.getScore(), recovered.getScore(), "score");
+    }
+
+    /**
+     * Tests that a pet is recovered from a log that was never closed, as after a crash,
+     * with every change up to the last flush.
+     */
+    @Test
+    void testRecoverAfterUncleanShutdown() throws IOException {
+        File file = new File(folder, "cat.log");
+        Pet pet = new Pet("Whiskers", "cat");
+        GameManager gameManager = new GameManager(pet);
+        PetEventLog log = PetEventLog.open(file);
+        try {
+            log.setFlushInterval(0);
+            pet.setEventLog(log);
+            for (int i = 0; i < 50; i++) {
+                gameManager.tick(3);
+                gameManager.requestAction(i % TickRules.ACTION_COUNT);
+            }
+            gameManager.tick(2);
+
+            Pet recovered = PetEventLog.recover(file, "Whiskers"); // The log is still open
+            assertEquals(pet.getHealth(), recovered.getHealth(), "health");
+            assertEquals(pet.getHappiness(), recovered.getHappiness(), "happiness");
+            assertEquals(pet.getSleep(), recovered.getSleep(), "sleep");
+            assertEquals(pet.getScore(), recovered.getScore(), "score");
+            assertEquals(pet.getCooldown(), recovered.getCooldown(), "cooldown");
+            assertEquals(pet.getTickCount(), recovered.getTickCount(), "The last ticks are on disk");
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Tests that files that are not pet logs are rejected.
+     */
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        File file = new File(folder, "notes.txt");
+        Files.writeString(file.toPath(), "not a pet log at all");
+        assertThrows(IOException.class, () -> PetEventLog.open(file));
+        assertThrows(IOException.class, () -> PetEventLog.recover(file, "Rusty"));
+        assertEquals("not a pet log at all", Files.readString(file.toPath()), "The file is left alone");
+    }
+
+    /**
+     * Tests that pets with the same name, as in two save slots, get logs of their own, and
+     * that a pet keeps its log across runs through its saved id.
+     */
+    @Test
+    void testSameNamedPetsGetOwnLogs() throws IOException {
+        Pet first = new Pet("Rusty", "fox");
+        Pet second = new Pet("Rusty", "cat");
+        try (PetEventLog firstLog = PetEventLog.openFor(first, folder);
+                PetEventLog secondLog = PetEventLog.openFor(second, folder)) {
+            assertNotEquals(firstLog.getFile(), secondLog.getFile(), "Each pet has its own log");
+        }
+        Pet reloaded = new Pet("Rusty", "fox");
+        reloaded.setId(first.getId());
+        try (PetEventLog log = PetEventLog.openFor(reloaded, folder)) {
+            assertEquals(new File(folder, "Rusty-" + first.getId() + ".log"), log.getFile(), "The id names the log");
+        }
+        assertEquals("cat", PetEventLog.recover(new File(folder, "Rusty-" + second.getId() + ".log"), "Rusty").getType());
+    }
+
+    /**
+     * Tests that a log is only replayed with the rules it was written with.
+     */
+    @Test
+    void testReplayRefusesOtherRules() throws IOException {
+        File file = new File(folder, "fox.log");
+        Pet pet = new Pet("Rusty", "fox");
+        try (PetEventLog log = PetEventLog.open(file)) {
+            pet.setEventLog(log);
+            new GameManager(pet).tick(10);
+        }
+        TickRules.setActive(TickRules.fromJson("""
+                {
+                  "effects": [{"every": 3, "stat": "fullness", "add": -10}],
+                  "exits": [],
+                  "enters": [],
+                  "actions": {
+                    "play": {"add": {"happiness": 20}},
+                    "exercise": {"add": {"health": 1}},
+                    "vet": {"fill": ["health"]},
+                    "sleep": {"fill": ["sleep"]}
+                  }
+                }
+                """));
+        try {
+            assertThrows(IOException.class, () -> PetEventLog.recover(file, "Rusty"));
+        } finally {
+            TickRules.setActive(TickRules.getBuiltIn());
+        }
+        assertEquals(pet.getFullness(), PetEventLog.recover(file, "Rusty").getFullness(), "Replays with its own rules");
+    }
+}
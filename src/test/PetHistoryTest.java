@@ -0,0 +1,140 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PetHistory class and the history of a {@link Pet}.
+ */
+class PetHistoryTest {
+
+    /**
+     * Tests that every tick reads back as it was appended, over a history deep enough for
+     * three levels of the tree, and that older versions are not changed by appending.
+     */
+    @Test
+    void testReadsBackEveryTick() {
+        List<int[]> ticks = randomTicks(40_000, 3);
+        PetHistory history = PetHistory.empty("Rusty", "fox");
+        PetHistory early = null;
+        for (int[] tick : ticks) {
+            history = history.append(tick);
+            if (history.size() == 1000) early = history;
+        }
+        assertEquals(ticks.size(), history.size());
+        assertTicks(ticks, history);
+        assertEquals(1000, early.size(), "Older versions keep their size");
+        assertTicks(ticks.subList(0, 1000), early);
+        assertEquals("fox", history.get(5).getType());
+    }
+
+    /**
+     * Tests that truncating keeps exactly the first ticks at every leaf and level boundary,
+     * that ticks can be appended again afterwards, and that the original is unchanged.
+     */
+    @Test
+    void testTruncate() {
+        List<int[]> ticks = randomTicks(40_000, 4);
+        PetHistory history = PetHistory.empty("Rusty", "cat");
+        for (int[] tick : ticks) {
+            history = history.append(tick);
+        }
+        List<int[]> more = randomTicks(2000, 5);
+        for (int size : new int[] {0, 1, 31, 32, 33, 1024, 1025, 1056, 32768, 32800, 39999, 40000}) {
+            PetHistory truncated = history.truncate(size);
+            assertEquals(size, truncated.size());
+            assertTicks(ticks.subList(0, size), truncated);
+            for (int[] tick : more) {
+                truncated = truncated.append(tick);
+            }
+            List<int[]> expected = new ArrayList<>(ticks.subList(0, size));
+            expected.addAll(more);
+            assertTicks(expected, truncated);
+        }
+        assertTicks(ticks, history);
+        assertThrows(IndexOutOfBoundsException.class, () -> PetHistory.empty("Rusty", "cat").truncate(1));
+    }
+
+    /**
+     * Tests that a 24-hour session of a pet, ticked once a second and played with, is
+     * recorded in well under a few megabytes.
+     */
+    @Test
+    void testDayFitsInMegabytes() {
+        Pet pet = new Pet("Rusty", "owl");
+        GameManager gameManager = new GameManager(pet);
+        SplittableRandom random = new SplittableRandom(6);
+        pet.startHistory();
+        int day = 24 * 60 * 60;
+        for (int tick = 0; tick < day; tick++) {
+            gameManager.tick();
+            if (pet.getPetState() == PetState.DEAD) pet.revivePet();
+            else if (random.nextInt(60) == 0) gameManager.requestAction(random.nextInt(TickRules.ACTION_COUNT));
+        }
+        PetHistory history = pet.getHistory();
+        assertEquals(day + 1, history.size(), "One entry per tick, after the starting stats");
+        assertEquals(pet.getHealth(), history.get(day).getHealth());
+        assertTrue(history.estimateBytes() < 1_000_000, "A day took " + history.estimateBytes() + " bytes");
+    }
+
+    /**
+     * Tests that rolling a pet back restores the stats of that tick as one change, and that
+     * ticking on from there repeats the original ticks.
+     */
+    @Test
+    void testRollBack() {
+        Pet pet = new Pet("Rusty", "fox");
+        GameManager gameManager = new GameManager(pet);
+        pet.startHistory();
+        gameManager.tick(40);
+        gameManager.playPet();
+        gameManager.tick(60);
+        PetHistory original = pet.getHistory();
+        int[] calls = new int[1];
+        pet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> calls[0]++);
+
+        pet.rollBack(20);
+        assertEquals(1, calls[0], "The restore is reported as one change");
+        assertEquals(original.get(20).getSleep(), pet.snapshot().getSleep());
+        assertEquals(original.get(20).getHealth(), pet.getHealth());
+        assertEquals(original.get(20).getSleep(), pet.getSleep());
+        assertEquals(original.get(20).getPetState(), pet.getPetState());
+        assertEquals(21, pet.getHistory().size(), "Later ticks are dropped");
+        assertEquals(101, original.size(), "Versions held by readers are unchanged");
+
+        gameManager.tick(20);
+        assertEquals(original.get(40).getSleep(), pet.getSleep(), "The decay phase is restored");
+        assertEquals(original.get(40).getFullness(), pet.getFullness());
+        assertEquals(original.get(40).getScore(), pet.getScore());
+
+        pet.stopHistory();
+        assertThrows(IllegalStateException.class, () -> pet.rollBack(0));
+    }
+
+    private static List<int[]> randomTicks(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<int[]> ticks = new ArrayList<>();
+        int[] fields = {100, 50, 75, 100, 0, 0, 0, 0};
+        for (int i = 0; i < count; i++) {
+            fields = fields.clone();
+            fields[PetHistory.FIELDS - 1]++;
+            if (random.nextInt(5) == 0) fields[random.nextInt(4)] += random.nextInt(-4, 5);
+            if (random.nextInt(50) == 0) fields[4] += random.nextInt(100_000); // Big jumps take more bytes
+            if (random.nextInt(100) == 0) fields[5] = random.nextInt(5);
+            if (random.nextInt(300) == 0) fields[PetHistory.FIELDS - 1] = 0;
+            ticks.add(fields);
+        }
+        return ticks;
+    }
+
+    private static void assertTicks(List<int[]> expected, PetHistory history) {
+        int[] fields = new int[PetHistory.FIELDS];
+        for (int i = 0; i < expected.size(); i++) {
+            history.read(i, fields);
+            assertArrayEquals(expected.get(i), fields, "tick " + i);
+        }
+    }
+}
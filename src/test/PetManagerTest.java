@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
+import java.time.ZoneOffset;
 
 /**
  * JUnit 5 test class for the PetManager class.
@@ -105,4 +106,22 @@ class PetManagerTest {
         Pet loadedPet = petManager.getPetbyIndex(0);
         assertEquals(testPet1, loadedPet, "Pet should be correctly loaded from the file");
     }
+
+    /**
+     * Tests that reading a slot leaves the pet alone, and that opening it fast-forwards
+     * the pet by the manager's clock.
+     */
+    @Test
+    void testOpenPetFastForwards() {
+        VirtualClock clock = new VirtualClock(1_000_000, ZoneOffset.UTC);
+        petManager = new PetManager(clock);
+        testPet1.setLastSimulated(clock.millis());
+        petManager.addPet(testPet1, 0);
+        clock.advance(100 * GameManager.DECREASE_INTERVAL_MS);
+
+        assertEquals(1_000_000, petManager.getPetbyIndex(0).getLastSimulated(), "Reading a slot does not simulate the pet");
+        assertEquals(testPet1, petManager.openPet(0));
+        assertEquals(clock.millis(), testPet1.getLastSimulated(), "Opening the slot catches the pet up to the clock");
+        assertTrue(testPet1.getSleep() < 75, "The elapsed ticks were applied");
+    }
 }
@@ -0,0 +1,127 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PetSnapshot class and {@link Pet#snapshot()}.
+ */
+class PetSnapshotTest {
+
+    /**
+     * Tests that a snapshot holds the pet's stats, and does not change with the pet.
+     */
+    @Test
+    void testSnapshotCopiesStats() {
+        Pet pet = new Pet("Rusty", "fox");
+        pet.setHealth(40);
+        pet.setSleep(0);
+        pet.setState();
+        pet.setCooldown(3);
+        pet.setLastSimulated(1234);
+        PetSnapshot snapshot = pet.snapshot();
+        assertEquals("Rusty", snapshot.getName());
+        assertEquals("fox", snapshot.getType());
+        assertEquals(25, snapshot.getHealth(), "The sleep penalty is part of the same change");
+        assertEquals(0, snapshot.getSleep());
+        assertEquals(PetState.ASLEEP, snapshot.getPetState());
+        assertEquals(3, snapshot.getCooldown());
+        assertEquals(1234, snapshot.getLastSimulated());
+
+        pet.setHealth(10);
+        assertEquals(25, snapshot.getHealth(), "Snapshots are immutable");
+        assertEquals(10, pet.snapshot().getHealth());
+    }
+
+    /**
+     * Tests that a snapshot never shows a change that is still in progress, while another
+     * thread keeps changing the pet.
+     */
+    @Test
+    void testSnapshotsAreNeverTorn() throws Exception {
+        Pet pet = new Pet("Rusty", "owl");
+        pet.beginBatch();
+        pet.setHealth(0);
+        pet.setHappiness(0);
+        pet.setFullness(0);
+        pet.setSleep(0);
+        pet.endBatch();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            int value = 0;
+            while (running.get()) {
+                value = (value + 1) % 50;
+                pet.beginBatch(); // Every change sets all four stats to the same value
+                pet.setHealth(value);
+                pet.setHappiness(value);
+                pet.setFullness(value);
+                pet.setSleep(value);
+                pet.endBatch();
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 200_000; i++) {
+                PetSnapshot snapshot = pet.snapshot();
+                int health = snapshot.getHealth();
+                if (snapshot.getHappiness() != health || snapshot.getFullness() != health || snapshot.getSleep() != health) {
+                    fail("Torn snapshot: " + health + ", " + snapshot.getHappiness() + ", "
+                            + snapshot.getFullness() + ", " + snapshot.getSleep());
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    /**
+     * Tests that a snapshot of a lazy pet shows the ticks elapsed since it was last read,
+     * without changing the pet's row.
+     */
+    @Test
+    void testLazySnapshotIsReadOnly() {
+        PetStatTable table = new PetStatTable(1);
+        Pet pet = new Pet("Rusty", table, table.addRow("fox"));
+        PetStatTable ticked = new PetStatTable(1);
+        int row = ticked.addRow("fox");
+        VirtualClock clock = new VirtualClock(1_000_000, ZoneOffset.UTC);
+        pet.startLazyEvaluation(clock::millis, GameManager.DECREASE_INTERVAL_MS);
+        clock.advance(90 * GameManager.DECREASE_INTERVAL_MS + 400);
+
+        PetSnapshot snapshot = pet.snapshot();
+        assertEquals(50, table.sleep[0], "Reading the snapshot leaves the row alone");
+        assertEquals(0, table.ticks[0]);
+        for (int t = 0; t < 90; t++) {
+            ticked.tick(row, row + 1);
+        }
+        assertEquals(ticked.getSleep(row), snapshot.getSleep());
+        assertEquals(ticked.getHealth(row), snapshot.getHealth());
+        assertEquals(ticked.getState(row), snapshot.getPetState().getName());
+        assertEquals(1_000_000 + 90 * GameManager.DECREASE_INTERVAL_MS, snapshot.getLastSimulated());
+        assertEquals(snapshot.getSleep(), pet.getSleep(), "Reading the pet itself catches it up to the same stats");
+    }
+
+    /**
+     * Tests that a saved snapshot is read back as the same pet.
+     */
+    @Test
+    void testSnapshotLoadsAsPet() throws Exception {
+        Pet pet = new Pet("Rusty", "cat");
+        pet.setHappiness(12);
+        pet.setScore(30);
+        pet.setPetState(PetState.ANGRY);
+        pet.setLastSimulated(5000);
+        ObjectMapper mapper = new ObjectMapper();
+        Pet loaded = mapper.readValue(mapper.writeValueAsString(pet.snapshot()), Pet.class);
+        assertEquals("Rusty", loaded.getName());
+        assertEquals("cat", loaded.getType());
+        assertEquals(12, loaded.getHappiness());
+        assertEquals(30, loaded.getScore());
+        assertEquals(PetState.ANGRY, loaded.getPetState());
+        assertEquals(5000, loaded.getLastSimulated());
+    }
+}
@@ -0,0 +1,46 @@
+package my_package;
+
+/**
+ * Measures the throughput of the {@link PetStatTable} batch tick kernels on one core.
+ * The vectorized kernel is only measured when run with {@code --add-modules jdk.incubator.vector}.
+ * Run with {@code java -cp <classes> my_package.PetStatTableBenchmark [pets] [ticks]}.
+ */
+public class PetStatTableBenchmark {
+
+    /**
+     * Runs the benchmark and prints the number of pet ticks simulated per second.
+     * @param args Optional pet count and tick count
+     */
+    public static void main(String[] args) {
+        int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String[] types = {"cat", "fox", "owl"};
+
+        PetStatTable table = new PetStatTable(pets);
+        for (int i = 0; i < pets; i++) {
+            table.addRow(types[i % types.length]);
+        }
+        System.out.printf("scalar: %.1f million pet ticks per second%n", run(table, pets, ticks, false));
+        if (PetStatTable.isVectorAvailable()) {
+            System.out.printf("vector: %.1f million pet ticks per second%n", run(table, pets, ticks, true));
+        }
+    }
+
+    private static double run(PetStatTable table, int pets, int ticks, boolean vectorized) {
+        // Warm up so the kernel is compiled before timing
+        for (int i = 0; i < 20; i++) {
+            tick(table, pets, vectorized);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tick(table, pets, vectorized);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return (double) pets * ticks / seconds / 1_000_000;
+    }
+
+    private static void tick(PetStatTable table, int pets, boolean vectorized) {
+        if (vectorized) table.tickVectorized(0, pets);
+        else table.tick(0, pets);
+    }
+}
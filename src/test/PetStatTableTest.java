@@ -0,0 +1,208 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PetStatTable class.
+ */
+class PetStatTableTest {
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+    private static final String[] STATES = {"default", "asleep", "hungry", "angry", "dead"};
+    private PetStatTable table;
+
+    /**
+     * Creates an empty table before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        table = new PetStatTable(2);
+    }
+
+    /**
+     * Tests that new rows start at the max stats of their type and that the table grows.
+     */
+    @Test
+    void testAddRow() {
+        int cat = table.addRow("cat");
+        int fox = table.addRow("fox");
+        int owl = table.addRow("owl");
+        assertEquals(3, table.size());
+        assertEquals(50, table.getHealth(cat));
+        assertEquals(100, table.getFullness(cat));
+        assertEquals(100, table.getHappiness(fox));
+        assertEquals(100, table.getSleep(owl));
+        assertEquals("owl", table.getType(owl));
+        assertEquals("default", table.getState(owl));
+    }
+
+    /**
+     * Tests that a pet built over a row reads and writes that row.
+     */
+    @Test
+    void testPetIsViewOverRow() {
+        table.addRow("cat");
+        int row = table.addRow("fox");
+        Pet pet = new Pet("Rusty", table, row);
+        assertEquals("fox", pet.getType());
+        assertEquals(75, pet.getMaxHealth());
+
+        pet.setHealth(20);
+        pet.setState("hungry");
+        assertEquals(20, table.getHealth(row));
+        assertEquals("hungry", table.getState(row));
+
+        table.tick(row, row + 1);
+        assertEquals(table.getSleep(row), pet.getSleep());
+    }
+
+    /**
+     * Tests the batch kernel against the per-pet rules of the original gameplay loop
+     * for random pets in every state.
+     */
+    @Test
+    void testTickMatchesPerPetRules() {
+        Random random = new Random(42);
+        int count = 500;
+        Pet[] pets = new Pet[count];
+        for (int i = 0; i < count; i++) {
+            Pet pet = new Pet("pet" + i, TYPES[random.nextInt(TYPES.length)]);
+            pet.setHealth(random.nextInt(110) - 5);
+            pet.setHappiness(random.nextInt(110) - 5);
+            pet.setFullness(random.nextInt(110) - 5);
+            pet.setSleep(random.nextInt(110) - 5);
+            pet.setScore(random.nextInt(100));
+            pet.setState(STATES[random.nextInt(STATES.length)]);
+            pets[i] = pet;
+            table.addRow(pet);
+        }
+
+        for (int tick = 1; tick <= 400; tick++) {
+            table.tick(0, count);
+            for (int i = 0; i < count; i++) {
+                referenceTick(pets[i], tick);
+                assertRowEquals(pets[i], i);
+            }
+        }
+    }
+
+    /**
+     * Tests that advancing a row in one step gives the same stats as ticking it one tick
+     * at a time, for random pets in every state.
+     */
+    @Test
+    void testAdvanceMatchesTicking() {
+        Random random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            int stepped = addRandomRow(random);
+            int jumped = table.addRow(table.getType(stepped));
+            copyRow(stepped, jumped);
+            int count = random.nextInt(3000);
+            for (int tick = 0; tick < count; tick++) {
+                table.tick(stepped, stepped + 1);
+            }
+            table.advance(jumped, count);
+            assertEquals(table.getHealth(stepped), table.getHealth(jumped), "health after " + count + " ticks");
+            assertEquals(table.getHappiness(stepped), table.getHappiness(jumped), "happiness after " + count + " ticks");
+            assertEquals(table.getFullness(stepped), table.getFullness(jumped), "fullness after " + count + " ticks");
+            assertEquals(table.getSleep(stepped), table.getSleep(jumped), "sleep after " + count + " ticks");
+            assertEquals(table.getScore(stepped), table.getScore(jumped), "score after " + count + " ticks");
+            assertEquals(table.getState(stepped), table.getState(jumped), "state after " + count + " ticks");
+            assertEquals(table.ticks[stepped], table.ticks[jumped]);
+        }
+    }
+
+    /**
+     * Tests that the tick count to the next state change is exact for a default pet.
+     */
+    @Test
+    void testTicksUntilStateChange() {
+        int row = table.addRow("fox"); // Sleep 50 drops by 4 every 5 ticks
+        long expected = table.ticksUntilStateChange(row);
+        assertEquals(5 * 13, expected);
+        table.advance(row, expected - 1);
+        assertEquals("default", table.getState(row));
+        table.tick(row, row + 1);
+        assertEquals("asleep", table.getState(row));
+    }
+
+    /**
+     * Tests that a month of ticks is applied without simulating each tick.
+     */
+    @Test
+    void testAdvanceMonth() {
+        long month = 30L * 24 * 60 * 60;
+        int stepped = table.addRow("owl");
+        int jumped = table.addRow("owl");
+        for (long tick = 0; tick < month; tick++) {
+            table.tick(stepped, stepped + 1);
+        }
+        long start = System.nanoTime();
+        table.advance(jumped, month);
+        assertTrue(System.nanoTime() - start < 50_000_000, "Advancing a month should not replay every tick");
+        assertEquals(table.getState(stepped), table.getState(jumped));
+        assertEquals(table.getScore(stepped), table.getScore(jumped));
+        assertEquals(table.getHealth(stepped), table.getHealth(jumped));
+    }
+
+    private int addRandomRow(Random random) {
+        int row = table.addRow(TYPES[random.nextInt(TYPES.length)]);
+        table.health[row] = random.nextInt(110) - 5;
+        table.happiness[row] = random.nextInt(110) - 5;
+        table.fullness[row] = random.nextInt(110) - 5;
+        table.sleep[row] = random.nextInt(110) - 5;
+        table.score[row] = random.nextInt(100);
+        table.state[row] = random.nextInt(STATES.length);
+        table.ticks[row] = random.nextInt(5);
+        return row;
+    }
+
+    private void copyRow(int from, int to) {
+        table.health[to] = table.health[from];
+        table.happiness[to] = table.happiness[from];
+        table.fullness[to] = table.fullness[from];
+        table.sleep[to] = table.sleep[from];
+        table.score[to] = table.score[from];
+        table.state[to] = table.state[from];
+        table.ticks[to] = table.ticks[from];
+    }
+
+    private void assertRowEquals(Pet pet, int row) {
+        assertEquals(pet.getHealth(), table.getHealth(row), "health of row " + row);
+        assertEquals(pet.getHappiness(), table.getHappiness(row), "happiness of row " + row);
+        assertEquals(pet.getFullness(), table.getFullness(row), "fullness of row " + row);
+        assertEquals(pet.getSleep(), table.getSleep(row), "sleep of row " + row);
+        assertEquals(pet.getScore(), table.getScore(row), "score of row " + row);
+        assertEquals(pet.getState(), table.getState(row), "state of row " + row);
+    }
+
+    /**
+     * The per-pet gameplay tick, written against the Pet setters.
+     */
+    private static void referenceTick(Pet pet, int tickCount) {
+        if ("asleep".equals(pet.getState())) {
+            pet.setSleep(pet.getSleep() + 1);
+        }
+        if ("hungry".equals(pet.getState()) && tickCount % 5 == 0) {
+            pet.setHappiness(pet.getHappiness() - 2);
+            pet.setHealth(pet.getHealth() - 2);
+        }
+        if (tickCount % 5 == 0) {
+            pet.setScore(pet.getScore() + 5);
+            if (!"asleep".equals(pet.getState()))
+                pet.setSleep(pet.getSleep() - 4);
+            pet.setHappiness(pet.getHappiness() - 2);
+            pet.setFullness(pet.getFullness() - 1);
+        }
+        pet.statLimiter();
+        if ("asleep".equals(pet.getState()) && pet.getSleep() == pet.getMaxSleep())
+            pet.setState("default");
+        if ("hungry".equals(pet.getState()) && pet.getFullness() > 0)
+            pet.setState("default");
+        if ("angry".equals(pet.getState()) && pet.getHappiness() > (pet.getMaxHappiness() / 2))
+            pet.setState("default");
+        pet.setState();
+    }
+}
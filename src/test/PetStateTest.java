@@ -0,0 +1,91 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PetState enum.
+ */
+class PetStateTest {
+
+    /**
+     * Tests that the state ordinals are the state codes used by the stat table kernels.
+     */
+    @Test
+    void testCodesMatchTable() {
+        assertEquals(PetStatTable.DEFAULT, PetState.DEFAULT.ordinal());
+        assertEquals(PetStatTable.ASLEEP, PetState.ASLEEP.ordinal());
+        assertEquals(PetStatTable.HUNGRY, PetState.HUNGRY.ordinal());
+        assertEquals(PetStatTable.ANGRY, PetState.ANGRY.ordinal());
+        assertEquals(PetStatTable.DEAD, PetState.DEAD.ordinal());
+        for (PetState state : PetState.values()) {
+            assertSame(state, PetState.fromName(state.getName()));
+            assertSame(state, PetState.fromCode(state.ordinal()));
+        }
+        assertSame(PetState.DEFAULT, PetState.fromName("sleepy"), "Unknown names should be the default state");
+    }
+
+    /**
+     * Tests the transition table.
+     */
+    @Test
+    void testTransitions() {
+        assertEquals(PetState.ASLEEP, PetState.DEFAULT.next(PetState.Trigger.EXHAUSTED));
+        assertEquals(PetState.HUNGRY, PetState.DEFAULT.next(PetState.Trigger.STARVED));
+        assertEquals(PetState.ANGRY, PetState.DEFAULT.next(PetState.Trigger.UPSET));
+        assertEquals(PetState.DEFAULT, PetState.ASLEEP.next(PetState.Trigger.RESTED));
+        assertEquals(PetState.DEFAULT, PetState.HUNGRY.next(PetState.Trigger.FED));
+        assertEquals(PetState.DEFAULT, PetState.ANGRY.next(PetState.Trigger.CALMED));
+        assertEquals(PetState.HUNGRY, PetState.HUNGRY.next(PetState.Trigger.EXHAUSTED), "Only default pets fall asleep");
+        for (PetState state : PetState.values()) {
+            assertEquals(PetState.DEAD, state.next(PetState.Trigger.DIED));
+        }
+        for (PetState.Trigger trigger : PetState.Trigger.values()) {
+            assertEquals(PetState.DEAD, PetState.DEAD.next(trigger), "Dead pets stay dead");
+        }
+    }
+
+    /**
+     * Tests the buttons enabled in each state.
+     */
+    @Test
+    void testEnabledActions() {
+        assertEquals(PetState.ALL_ACTIONS, PetState.DEFAULT.getEnabledActions());
+        assertEquals(PetState.ALL_ACTIONS, PetState.HUNGRY.getEnabledActions());
+        assertEquals(PetState.SAVE, PetState.ASLEEP.getEnabledActions());
+        assertTrue(PetState.ANGRY.isEnabled(PetState.PLAY));
+        assertFalse(PetState.ANGRY.isEnabled(PetState.FEED));
+        assertFalse(PetState.DEAD.isEnabled(PetState.SAVE));
+    }
+
+    /**
+     * Tests that sprite paths are built once and reused.
+     */
+    @Test
+    void testSpritePaths() {
+        Pet pet = new Pet("Rusty", "fox");
+        assertEquals("/my_package/assets/sprites/fox_default.png", pet.getSpritePath(0));
+        assertEquals("/my_package/assets/sprites/fox_default2.png", pet.getSpritePath(1));
+        assertSame(pet.getSpritePath(0), pet.getSpritePath(0));
+        pet.setState("dead");
+        assertEquals("/my_package/assets/sprites/fox_dead.png", pet.getSpritePath(1), "Dead pets have one frame");
+    }
+
+    /**
+     * Tests that setting the state from stats follows the transition table.
+     */
+    @Test
+    void testPetFollowsTransitions() {
+        Pet pet = new Pet("Rusty", "owl");
+        pet.setSleep(0);
+        pet.setState();
+        assertEquals(PetState.ASLEEP, pet.getPetState());
+        assertEquals(85, pet.getHealth(), "Falling asleep from exhaustion costs 15 health");
+        pet.setFullness(0);
+        pet.setState();
+        assertEquals(PetState.ASLEEP, pet.getPetState(), "Sleeping pets do not get hungry");
+        pet.setHealth(0);
+        pet.setState();
+        assertEquals(PetState.DEAD, pet.getPetState());
+    }
+}
@@ -2,6 +2,9 @@ package my_package;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -114,4 +117,223 @@ class PetTest {
         pet.setState();
         assertEquals("dead", pet.getState());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a lazily evaluated pet works out its stats from the elapsed time.
+     */
+    @Test
+    void testLazyEvaluation() {
+        AtomicLong clock = new AtomicLong(0);
+        Pet ticked = new Pet("Ticked", "cat");
+        pet.startLazyEvaluation(clock::get, 1000);
+        assertTrue(pet.isLazy());
+
+        clock.set(10_500); // Ten whole ticks and half of the next one
+        for (int i = 0; i < 10; i++) {
+            ticked.runTick();
+        }
+        assertEquals(ticked.getSleep(), pet.getSleep());
+        assertEquals(ticked.getHappiness(), pet.getHappiness());
+        assertEquals(ticked.getScore(), pet.getScore());
+
+        clock.set(20_000); // The half tick is kept, so this makes twenty
+        for (int i = 0; i < 10; i++) {
+            ticked.runTick();
+        }
+        assertEquals(ticked.getFullness(), pet.getFullness());
+        assertEquals(ticked.getScore(), pet.getScore());
+
+        pet.stopLazyEvaluation();
+        clock.set(1_000_000);
+        assertFalse(pet.isLazy());
+        assertEquals(ticked.getSleep(), pet.getSleep(), "A pet that is not lazy should not change on read");
+    }
+
+    /**
+     * Tests that threads reading a lazy pet at the same time never apply the same elapsed
+     * ticks twice. Rules other than the built-in ones are applied tick by tick, so each
+     * catch-up takes long enough for the readers to overlap.
+     */
+    @Test
+    void testLazyCatchUpFromManyThreads() throws InterruptedException {
+        TickRules.setActive(TickRules.fromJson("""
+                {
+                  "effects": [{"every": 1, "stat": "score", "add": 1}],
+                  "exits": [],
+                  "enters": [],
+                  "actions": {
+                    "play": {"add": {"happiness": 20}},
+                    "exercise": {"add": {"health": 1}},
+                    "vet": {"fill": ["health"]},
+                    "sleep": {"fill": ["sleep"]}
+                  }
+                }
+                """));
+        try {
+            AtomicLong clock = new AtomicLong(1000);
+            pet.startLazyEvaluation(clock::get, 1);
+            clock.addAndGet(3_000_000);
+            Thread[] readers = new Thread[4];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new Thread(pet::getScore);
+                readers[i].start();
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertEquals(3_000_000, pet.getScore(), "Every elapsed tick is applied exactly once");
+            assertEquals(clock.get(), pet.getLastSimulated());
+        } finally {
+            TickRules.setActive(TickRules.getBuiltIn());
+        }
+    }
+
+    /**
+     * Tests that a saved pet is fast-forwarded through the time it was away.
+     */
+    @Test
+    void testFastForward() {
+        long tick = 1000;
+        long month = 30L * 24 * 60 * 60 * tick;
+        long now = 2_000_000_000_000L;
+        PetStatTable expected = new PetStatTable(1);
+        int row = expected.addRow(pet);
+        expected.advance(row, month / tick);
+
+        pet.setLastSimulated(now - month - 400);
+        long start = System.nanoTime();
+        pet.fastForward(now, tick);
+        assertTrue(System.nanoTime() - start < 50_000_000, "Fast-forwarding should not replay every tick");
+        assertEquals(expected.getState(row), pet.getState());
+        assertEquals(expected.getScore(row), pet.getScore());
+        assertEquals(expected.getSleep(row), pet.getSleep());
+        assertEquals(now - 400, pet.getLastSimulated(), "The unfinished tick should be kept");
+    }
+
+    /**
+     * Tests that a pet that was never simulated is not fast-forwarded.
+     */
+    @Test
+    void testFastForwardUnknownTime() {
+        pet.fastForward(2_000_000_000_000L, 1000);
+        assertEquals(75, pet.getSleep());
+        assertEquals(0, pet.getScore());
+    }
+
+    /**
+     * Tests that a tick notifies the listeners once, with the changed stats as dirty bits.
+     */
+    @Test
+    void testChangeListenerOncePerTick() {
+        int[] calls = new int[1];
+        int[] lastDirty = new int[1];
+        int[] lastScore = new int[1];
+        pet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> {
+            calls[0]++;
+            lastDirty[0] = dirty;
+            lastScore[0] = score;
+        });
+        for (int tick = 0; tick < 4; tick++) {
+            pet.runTick();
+        }
+        assertEquals(0, calls[0], "Ticks that change nothing should not notify");
+        pet.runTick(); // Decay tick
+        assertEquals(1, calls[0]);
+        assertEquals(PetChangeListener.SCORE | PetChangeListener.SLEEP | PetChangeListener.HAPPINESS
+                | PetChangeListener.FULLNESS, lastDirty[0]);
+        assertEquals(5, lastScore[0]);
+    }
+
+    /**
+     * Tests that a player action is reported as one change.
+     */
+    @Test
+    void testChangeListenerOncePerAction() {
+        int[] calls = new int[1];
+        int[] lastDirty = new int[1];
+        pet.setHappiness(20);
+        pet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> {
+            calls[0]++;
+            lastDirty[0] = dirty;
+        });
+        new GameManager(pet).playPet();
+        assertEquals(1, calls[0]);
+        assertEquals(PetChangeListener.HAPPINESS | PetChangeListener.SLEEP | PetChangeListener.FULLNESS
+                | PetChangeListener.SCORE, lastDirty[0]);
+    }
+
+    /**
+     * Tests that ticking a pet with a listener allocates nothing.
+     */
+    @Test
+    void testTickAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int[] calls = new int[1];
+        pet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> calls[0]++);
+        for (int tick = 0; tick < 200_000; tick++) {
+            pet.runTick(); // Warm up so allocation by the interpreter is not measured
+            if (tick % 100 == 0) pet.revivePet();
+        }
+        // Take the best of a few rounds, so one-off allocation by the JIT or the JVM is not counted
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int tick = 0; tick < 100_000; tick++) {
+                pet.runTick();
+                if (tick % 100 == 0) pet.revivePet();
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        assertTrue(calls[0] > 0);
+        assertEquals(0, allocated, "Ticks should not allocate");
+    }
+
+    /**
+     * Tests that closing a subscription removes its listener, and that reloading the same
+     * pet many times keeps the fan-out constant.
+     */
+    @Test
+    void testSubscriptionClose() {
+        int[] calls = new int[1];
+        Pet.Subscription subscription = null;
+        for (int load = 0; load < 100; load++) {
+            if (subscription != null) subscription.close();
+            subscription = pet.addChangeListener((dirty, health, happiness, fullness, sleep, score, state) -> calls[0]++);
+        }
+        assertEquals(1, pet.getListenerCount());
+        pet.setHealth(10);
+        assertEquals(1, calls[0], "Only the latest listener should hear the change");
+
+        subscription.close();
+        subscription.close();
+        assertTrue(subscription.isClosed());
+        assertEquals(0, pet.getListenerCount());
+        pet.setHealth(20);
+        assertEquals(1, calls[0]);
+    }
+
+    /**
+     * Tests that a weakly held listener is dropped once it is garbage collected.
+     */
+    @Test
+    void testWeakListenerReleased() throws InterruptedException {
+        int[] calls = new int[1];
+        PetChangeListener listener = (dirty, health, happiness, fullness, sleep, score, state) -> calls[0]++;
+        pet.addWeakChangeListener(listener);
+        pet.setHealth(10);
+        assertEquals(1, calls[0]);
+        assertEquals(1, pet.getListenerCount());
+
+        WeakReference<PetChangeListener> collected = new WeakReference<>(listener);
+        listener = null;
+        for (int attempt = 0; attempt < 50 && collected.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(collected.get(), "The listener should have been garbage collected");
+        assertEquals(0, pet.getListenerCount());
+        pet.setHealth(20);
+        assertEquals(1, calls[0]);
+    }
+}
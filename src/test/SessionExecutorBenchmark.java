@@ -0,0 +1,60 @@
+package my_package;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how many concurrent {@link PlayerSession}s a {@link SessionExecutor} can hold,
+ * and what each costs in heap.
+ * Run with {@code java -cp <classes> my_package.SessionExecutorBenchmark [sessions] [tickMillis] [seconds] [platform]}.
+ * Virtual threads need Java 21 or later; pass "platform" to compare with platform threads.
+ */
+public class SessionExecutorBenchmark {
+
+    /**
+     * Runs the benchmark and prints the start-up time, the heap per session and the tick rate.
+     * @param args Optional session count, tick interval, run time and thread kind
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long tickMillis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        boolean virtual = args.length <= 3 || !args[3].equals("platform");
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        List<PlayerSession> sessions = new ArrayList<>(count);
+        try (SessionExecutor executor = new SessionExecutor(virtual)) {
+            System.out.println(executor.isVirtual() ? "Virtual threads" : "Platform threads");
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                PlayerSession session = new PlayerSession(null, new Pet(null, "cat"), tickMillis);
+                session.setSaveAction(null, 0); // Sessions share the data files, so never save here
+                sessions.add(session);
+                executor.start(session);
+            }
+            System.out.printf("Started %d sessions in %.2f s%n", count, (System.nanoTime() - start) / 1e9);
+
+            Thread.sleep(seconds * 1000L);
+            long ticksBefore = totalTicks(sessions);
+            long measured = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            double rate = (totalTicks(sessions) - ticksBefore) / ((System.nanoTime() - measured) / 1e9);
+            System.gc();
+            long heap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+            System.out.printf("%d active, %.0f bytes of heap per session%n", executor.getActiveCount(), (double) heap / count);
+            System.out.printf("%.0f ticks per second, %.0f expected%n", rate, count * 1000.0 / tickMillis);
+        }
+    }
+
+    private static long totalTicks(List<PlayerSession> sessions) {
+        long ticks = 0;
+        for (PlayerSession session : sessions) {
+            ticks += session.getTicks();
+        }
+        return ticks;
+    }
+}
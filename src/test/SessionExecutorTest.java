@@ -0,0 +1,91 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SessionExecutor and PlayerSession classes.
+ */
+class SessionExecutorTest {
+
+    /**
+     * Tests that virtual threads are used exactly when the runtime has them.
+     */
+    @Test
+    void testVirtualThreadsMatchRuntime() {
+        boolean expected = Runtime.version().feature() >= 21;
+        assertEquals(expected, SessionExecutor.isVirtualThreadsAvailable(), "Virtual threads exist from Java 21");
+        try (SessionExecutor executor = new SessionExecutor()) {
+            assertEquals(expected, executor.isVirtual(), "Virtual threads are preferred when available");
+        }
+        try (SessionExecutor executor = new SessionExecutor(false)) {
+            assertFalse(executor.isVirtual(), "Platform threads when asked for");
+        }
+    }
+
+    /**
+     * Tests that many sessions tick their pets concurrently and save once when closed.
+     */
+    @Test
+    void testSessionsTickAndSaveOnClose() throws InterruptedException {
+        AtomicInteger saves = new AtomicInteger();
+        List<PlayerSession> sessions = new ArrayList<>();
+        try (SessionExecutor executor = new SessionExecutor()) {
+            for (int i = 0; i < 300; i++) {
+                PlayerSession session = new PlayerSession(null, new Pet("Pet" + i, "cat"), 5);
+                session.setSaveAction(saves::incrementAndGet, 0);
+                sessions.add(session);
+                executor.start(session);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (sessions.stream().anyMatch(s -> s.getTicks() < 3) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(300, executor.getActiveCount(), "Sessions run until closed");
+        }
+        for (PlayerSession session : sessions) {
+            assertTrue(session.getTicks() >= 3, "Every session ticked");
+            assertFalse(session.getPet().getMailbox().isOwned(), "Pets are released when their session ends");
+        }
+        assertEquals(300, saves.get(), "Each session saved once when it ended");
+    }
+
+    /**
+     * Tests that actions requested from another thread run on the session's tick.
+     */
+    @Test
+    void testActionsRunOnSessionTick() throws Exception {
+        Pet pet = new Pet("Rusty", "fox");
+        pet.setHappiness(10);
+        PlayerSession session = new PlayerSession(null, pet, 5);
+        session.setSaveAction(null, 0);
+        try (SessionExecutor executor = new SessionExecutor()) {
+            executor.start(session);
+            session.getGameManager().playPet().get(10, TimeUnit.SECONDS);
+        }
+        assertTrue(pet.getHappiness() > 10, "Play raised happiness on the session thread");
+    }
+
+    /**
+     * Tests that a session saves every given number of ticks.
+     */
+    @Test
+    void testPeriodicSave() throws InterruptedException {
+        AtomicInteger saves = new AtomicInteger();
+        PlayerSession session = new PlayerSession(null, new Pet("Pet", "owl"), 1);
+        session.setSaveAction(saves::incrementAndGet, 2);
+        try (SessionExecutor executor = new SessionExecutor()) {
+            executor.start(session);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (session.getTicks() < 6 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+        long ticks = session.getTicks();
+        assertEquals(ticks / 2 + 1, saves.get(), "A save every 2 ticks, plus one at the end");
+    }
+}
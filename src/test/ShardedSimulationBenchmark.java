@@ -0,0 +1,61 @@
+package my_package;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how {@link ShardedSimulation} scales from one worker thread to one per core.
+ * The speedup can only be near linear up to the number of cores the machine has, which
+ * is printed first; threads beyond it share cores and show no gain.
+ * Run with {@code java -cp <classes> my_package.ShardedSimulationBenchmark [pets] [ticks] [maxThreads]}.
+ */
+public class ShardedSimulationBenchmark {
+
+    /**
+     * Runs the benchmark and prints the throughput and speedup for each parallelism level.
+     * @param args Optional pet count, tick count and largest thread count
+     */
+    public static void main(String[] args) {
+        int pets = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d pets, %d ticks, %d CPUs available%n", pets, ticks, Runtime.getRuntime().availableProcessors());
+        double base = 0;
+        for (int threads : threadCounts(maxThreads)) {
+            double rate = run(newTable(pets), threads, ticks); // Fresh pets, so every run ticks the same work
+            if (threads == 1) base = rate;
+            System.out.printf("%d threads: %.1f million pet ticks per second, %.2fx%n", threads, rate, rate / base);
+        }
+    }
+
+    /**
+     * Lists the thread counts to measure: the powers of two below the largest, then the largest.
+     */
+    private static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(Math.max(1, maxThreads));
+        return counts;
+    }
+
+    private static PetStatTable newTable(int pets) {
+        String[] types = {"cat", "fox", "owl"};
+        PetStatTable table = new PetStatTable(pets);
+        for (int i = 0; i < pets; i++) {
+            table.addRow(types[i % types.length]);
+        }
+        return table;
+    }
+
+    private static double run(PetStatTable table, int threads, int ticks) {
+        try (ShardedSimulation simulation = new ShardedSimulation(table, threads)) {
+            simulation.tick(20); // Warm up so the kernel is compiled before timing
+            long start = System.nanoTime();
+            simulation.tick(ticks);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return (double) table.size() * ticks / seconds / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ShardedSimulation class.
+ */
+class ShardedSimulationTest {
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+
+    /**
+     * Tests that ticking in parallel shards gives the same stats as ticking the whole table
+     * on one thread, including a last shard that is only partly full.
+     */
+    @Test
+    void testMatchesSingleThread() {
+        Random random = new Random(3);
+        int count = 10_000;
+        PetStatTable single = new PetStatTable(count);
+        PetStatTable sharded = new PetStatTable(count);
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            single.addRow(type);
+            sharded.addRow(type);
+            int happiness = random.nextInt(single.getMaxHappiness(i) + 1);
+            single.happiness[i] = happiness;
+            sharded.happiness[i] = happiness;
+        }
+
+        try (ShardedSimulation simulation = new ShardedSimulation(sharded, 3, 1000)) {
+            assertEquals(10, simulation.getShardCount());
+            assertEquals(3, simulation.getParallelism());
+            simulation.tick(300);
+            assertEquals(300, simulation.getTicks());
+        }
+        for (int tick = 0; tick < 300; tick++) {
+            single.tick(0, count);
+        }
+        for (int row = 0; row < count; row++) {
+            assertEquals(single.getState(row), sharded.getState(row), "state of row " + row);
+            assertEquals(single.getHealth(row), sharded.getHealth(row), "health of row " + row);
+            assertEquals(single.getHappiness(row), sharded.getHappiness(row), "happiness of row " + row);
+            assertEquals(single.getSleep(row), sharded.getSleep(row), "sleep of row " + row);
+            assertEquals(single.getScore(row), sharded.getScore(row), "score of row " + row);
+        }
+    }
+
+    /**
+     * Tests that cooldowns count down once per tick, as they do for a ticking pet.
+     */
+    @Test
+    void testCooldownsCountDown() {
+        PetStatTable table = new PetStatTable(3);
+        for (int i = 0; i < 3; i++) {
+            table.addRow(TYPES[i]);
+        }
+        table.cooldown[0] = 5;
+        table.cooldown[1] = 1;
+        try (ShardedSimulation simulation = new ShardedSimulation(table, 2, 2)) {
+            simulation.tick(2);
+        }
+        assertEquals(3, table.cooldown[0], "Two ticks take two off the cooldown");
+        assertEquals(0, table.cooldown[1], "Cooldowns stop at 0");
+        assertEquals(0, table.cooldown[2]);
+    }
+
+    /**
+     * Tests that bad settings are rejected.
+     */
+    @Test
+    void testInvalidSettings() {
+        PetStatTable table = new PetStatTable(1);
+        assertThrows(IllegalArgumentException.class, () -> new ShardedSimulation(table, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedSimulation(table, 2, 0));
+    }
+}
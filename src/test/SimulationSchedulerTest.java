@@ -0,0 +1,150 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SimulationScheduler class.
+ */
+class SimulationSchedulerTest {
+
+    /**
+     * Tests that registering and cancelling ticks updates the registered count.
+     */
+    @Test
+    void testRegisteredCount() {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        SimulationScheduler.Registration first = scheduler.register(() -> {}, 1000);
+        SimulationScheduler.Registration second = scheduler.register(() -> {}, 1000);
+        assertEquals(2, scheduler.getRegisteredCount());
+
+        first.cancel();
+        first.cancel(); // Cancelling twice should only count once
+        assertTrue(first.isCancelled());
+        assertEquals(1, scheduler.getRegisteredCount());
+
+        second.cancel();
+        assertEquals(0, scheduler.getRegisteredCount());
+    }
+
+    /**
+     * Tests that many pets share the fixed pool and that ticks are counted.
+     */
+    @Test
+    void testManyPetsShareThreads() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(2);
+        int pets = 10_000;
+        CountDownLatch latch = new CountDownLatch(pets);
+        SimulationScheduler.Registration[] registrations = new SimulationScheduler.Registration[pets];
+        for (int i = 0; i < pets; i++) {
+            registrations[i] = scheduler.register(latch::countDown, 1000);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "Every pet should tick once");
+        assertEquals(pets, scheduler.getRegisteredCount());
+        assertEquals(2, scheduler.getThreadCount());
+        assertTrue(scheduler.getTickThroughput() > 0);
+
+        for (SimulationScheduler.Registration registration : registrations) {
+            registration.cancel();
+        }
+        assertEquals(0, scheduler.getRegisteredCount());
+    }
+
+    /**
+     * Tests that a failing tick keeps being scheduled.
+     */
+    @Test
+    void testFailingTickKeepsRunning() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        CountDownLatch latch = new CountDownLatch(4);
+        SimulationScheduler.Registration registration = scheduler.register(() -> {
+            latch.countDown();
+            throw new IllegalStateException("tick failure");
+        }, 5);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        registration.cancel();
+        assertTrue(scheduler.getTickCount() >= 3);
+    }
+
+    /**
+     * Tests that the lateness of every tick is recorded.
+     */
+    @Test
+    void testLatenessRecorded() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        CountDownLatch latch = new CountDownLatch(10);
+        SimulationScheduler.Registration registration = scheduler.register(latch::countDown, 5);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        registration.cancel();
+        assertTrue(scheduler.getLateness().getCount() >= 10, "One lateness sample per tick");
+        assertTrue(scheduler.getLateness().getPercentile(50) < TimeUnit.MILLISECONDS.toNanos(5),
+                "An idle pool runs ticks well within a period");
+    }
+
+    /**
+     * Tests that ticks held up by a slow tick are run back to back under the burst policy.
+     */
+    @Test
+    void testBurstCatchUp() throws InterruptedException {
+        List<Integer> periods = runStalled(SimulationScheduler.CatchUp.BURST);
+        assertTrue(periods.size() >= 8, "Every missed tick runs");
+        assertTrue(periods.stream().allMatch(p -> p == 1));
+    }
+
+    /**
+     * Tests that ticks held up by a slow tick are dropped under the skip policy.
+     */
+    @Test
+    void testSkipCatchUp() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        scheduler.setCatchUp(SimulationScheduler.CatchUp.SKIP);
+        List<Integer> periods = runStalled(scheduler);
+        assertTrue(scheduler.getSkippedCount() >= 5, "The missed ticks were skipped");
+        assertTrue(periods.stream().allMatch(p -> p == 1));
+    }
+
+    /**
+     * Tests that ticks held up by a slow tick are folded into one multi-period tick under
+     * the fold policy, so no period is lost.
+     */
+    @Test
+    void testFoldCatchUp() throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        scheduler.setCatchUp(SimulationScheduler.CatchUp.FOLD);
+        List<Integer> periods = runStalled(scheduler);
+        assertTrue(periods.stream().anyMatch(p -> p >= 5), "The missed ticks came in one step: " + periods);
+        assertEquals(periods.stream().mapToInt(Integer::intValue).sum() - periods.size(), scheduler.getFoldedCount());
+        assertEquals(periods.stream().mapToInt(Integer::intValue).sum(), scheduler.getTickCount(), "Every period is counted");
+    }
+
+    private static List<Integer> runStalled(SimulationScheduler.CatchUp catchUp) throws InterruptedException {
+        SimulationScheduler scheduler = new SimulationScheduler(1);
+        scheduler.setCatchUp(catchUp);
+        return runStalled(scheduler);
+    }
+
+    /**
+     * Registers a 10 ms tick whose first run takes 80 ms, and records the periods each run covers.
+     */
+    private static List<Integer> runStalled(SimulationScheduler scheduler) throws InterruptedException {
+        List<Integer> periods = new CopyOnWriteArrayList<>();
+        SimulationScheduler.Registration registration = scheduler.register(covered -> {
+            if (periods.isEmpty()) {
+                try {
+                    Thread.sleep(80);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            periods.add(covered);
+        }, 0, 10);
+        Thread.sleep(200);
+        registration.cancel();
+        Thread.sleep(20); // Let a run in progress finish
+        return periods;
+    }
+}
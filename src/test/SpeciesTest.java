@@ -0,0 +1,74 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the Species class.
+ */
+class SpeciesTest {
+    @TempDir
+    File tempDir;
+
+    /**
+     * Tests that the species file registers the built-in species with their max stats.
+     */
+    @Test
+    void testRegistry() {
+        assertEquals(4, Species.count());
+        Species fox = Species.forName("fox");
+        assertEquals("fox", fox.getName());
+        assertEquals(75, fox.getMaxHealth());
+        assertEquals(100, fox.getMaxHappiness());
+        assertEquals(75, fox.getMaxFullness());
+        assertEquals(50, fox.getMaxSleep());
+        assertSame(fox, Species.byIndex(fox.getIndex()));
+        assertEquals(100, Species.forName("owl").getMaxStat(TickRules.SLEEP));
+    }
+
+    /**
+     * Tests that missing and unregistered types get the unknown species.
+     */
+    @Test
+    void testUnknownSpecies() {
+        assertSame(Species.UNKNOWN, Species.forName(null));
+        assertSame(Species.UNKNOWN, Species.forName("dragon"));
+        assertEquals(0, Species.UNKNOWN.getIndex());
+        assertEquals(50, new Pet("Nobody", "dragon").getMaxHealth());
+    }
+
+    /**
+     * Tests that pets of the same species share one instance, which follows type changes.
+     */
+    @Test
+    void testPetsShareSpecies() {
+        Pet first = new Pet("First", "cat");
+        Pet second = new Pet("Second", "cat");
+        assertSame(first.getSpecies(), second.getSpecies());
+        second.setType("owl");
+        assertSame(Species.forName("owl"), second.getSpecies());
+        assertEquals(100, second.getMaxHealth());
+    }
+
+    /**
+     * Tests that new species can be read from a file and that bad entries are rejected.
+     */
+    @Test
+    void testReadSpecies() throws Exception {
+        File file = new File(tempDir, "species.json");
+        Files.writeString(file.toPath(), "{\"species\": [{\"name\": \"dog\", \"maxHealth\": 90, "
+                + "\"maxHappiness\": 80, \"maxFullness\": 70, \"maxSleep\": 60}]}");
+        List<Species> species = Species.readSpecies(file);
+        assertEquals(1, species.size());
+        assertEquals("dog", species.get(0).getName());
+        assertEquals(1, species.get(0).getIndex());
+        assertEquals(60, species.get(0).getMaxSleep());
+
+        Files.writeString(file.toPath(), "{\"species\": [{\"name\": \"dog\", \"maxHealth\": 0}]}");
+        assertThrows(IllegalArgumentException.class, () -> Species.readSpecies(file));
+    }
+}
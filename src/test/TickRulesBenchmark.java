@@ -0,0 +1,56 @@
+package my_package;
+
+/**
+ * Compares the throughput of the {@link TickRules} interpreter with the hand-written
+ * {@link PetStatTable#tick(int, int)} kernel on one core. Each kernel gets its own freshly
+ * built table with the same pets, so both are timed on identical data.
+ * Run with {@code java -cp <classes> my_package.TickRulesBenchmark [pets] [ticks]}.
+ */
+public class TickRulesBenchmark {
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+
+    /**
+     * Runs the benchmark and prints the number of pet ticks simulated per second.
+     * @param args Optional pet count and tick count
+     */
+    public static void main(String[] args) {
+        int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        TickRules builtIn = TickRules.getBuiltIn();
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("hand-written: %.1f million pet ticks per second%n",
+                    run(newTable(pets), pets, ticks, null));
+            System.out.printf("compiled rules: %.1f million pet ticks per second%n",
+                    run(newTable(pets), pets, ticks, builtIn));
+            System.out.printf("interpreted: %.1f million pet ticks per second%n",
+                    run(newTable(pets), pets, ticks, TickRules.interpreted(builtIn)));
+        }
+    }
+
+    private static PetStatTable newTable(int pets) {
+        PetStatTable table = new PetStatTable(pets);
+        for (int i = 0; i < pets; i++) {
+            table.addRow(TYPES[i % TYPES.length]);
+        }
+        return table;
+    }
+
+    private static double run(PetStatTable table, int pets, int ticks, TickRules rules) {
+        // Warm up on a copy so the kernel is compiled before timing, and the timed ticks start from fresh pets
+        PetStatTable warmUp = newTable(Math.min(pets, 10_000));
+        for (int i = 0; i < 2000; i++) {
+            tick(warmUp, warmUp.size(), rules);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tick(table, pets, rules);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return (double) pets * ticks / seconds / 1_000_000;
+    }
+
+    private static void tick(PetStatTable table, int pets, TickRules rules) {
+        if (rules == null) table.tick(0, pets);
+        else rules.tick(table, 0, pets);
+    }
+}
@@ -0,0 +1,191 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the TickRules class.
+ */
+class TickRulesTest {
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+    private static final String[] STATES = {"default", "asleep", "hungry", "angry", "dead"};
+
+    /**
+     * Puts the built-in rules back after tests that replace them.
+     */
+    @AfterEach
+    void tearDown() {
+        TickRules.setActive(TickRules.getBuiltIn());
+    }
+
+    /**
+     * Tests that the rules file holds the built-in rules.
+     */
+    @Test
+    void testRulesFileIsBuiltIn() throws Exception {
+        TickRules rules = TickRules.fromFile(new File("src/my_package/assets/data/rules.json"));
+        assertTrue(rules.isBuiltIn(), "The rules file should match the built-in rules");
+    }
+
+    /**
+     * Tests that interpreting the built-in rules gives the same stats as the hand-written
+     * kernel for random pets in every state.
+     */
+    @Test
+    void testInterpreterMatchesKernel() {
+        Random random = new Random(7);
+        int count = 1000;
+        PetStatTable kernel = new PetStatTable(count);
+        PetStatTable interpreted = new PetStatTable(count);
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            kernel.addRow(type);
+            interpreted.addRow(type);
+            for (int[] column : new int[][] {kernel.health, kernel.happiness, kernel.fullness, kernel.sleep}) {
+                column[i] = random.nextInt(110) - 5;
+            }
+            kernel.score[i] = random.nextInt(100);
+            kernel.state[i] = random.nextInt(STATES.length);
+            kernel.ticks[i] = random.nextInt(5);
+            interpreted.health[i] = kernel.health[i];
+            interpreted.happiness[i] = kernel.happiness[i];
+            interpreted.fullness[i] = kernel.fullness[i];
+            interpreted.sleep[i] = kernel.sleep[i];
+            interpreted.score[i] = kernel.score[i];
+            interpreted.state[i] = kernel.state[i];
+            interpreted.ticks[i] = kernel.ticks[i];
+        }
+
+        TickRules rules = TickRules.interpreted(TickRules.getBuiltIn()); // The built-in rules would run the kernel itself
+        for (int tick = 0; tick < 500; tick++) {
+            kernel.tick(0, count);
+            rules.tick(interpreted, 0, count);
+        }
+        for (int row = 0; row < count; row++) {
+            assertEquals(kernel.getHealth(row), interpreted.getHealth(row), "health of row " + row);
+            assertEquals(kernel.getHappiness(row), interpreted.getHappiness(row), "happiness of row " + row);
+            assertEquals(kernel.getFullness(row), interpreted.getFullness(row), "fullness of row " + row);
+            assertEquals(kernel.getSleep(row), interpreted.getSleep(row), "sleep of row " + row);
+            assertEquals(kernel.getScore(row), interpreted.getScore(row), "score of row " + row);
+            assertEquals(kernel.getState(row), interpreted.getState(row), "state of row " + row);
+        }
+    }
+
+    /**
+     * Tests that changed rules change how pets tick, and that advancing still follows them.
+     */
+    @Test
+    void testCustomRules() {
+        TickRules rules = TickRules.fromJson("""
+                {
+                  "effects": [{"every": 3, "stat": "fullness", "add": -10}],
+                  "exits": [],
+                  "enters": [{"state": "default", "stat": "fullness", "below": 1, "to": "hungry"}],
+                  "actions": {
+                    "play": {"add": {"happiness": 20}},
+                    "exercise": {"add": {"health": 1}},
+                    "vet": {"fill": ["health"]},
+                    "sleep": {"fill": ["sleep"]}
+                  }
+                }
+                """);
+        assertFalse(rules.isBuiltIn());
+        TickRules.setActive(rules);
+
+        Pet pet = new Pet("Rusty", "fox"); // Max fullness 75
+        for (int tick = 0; tick < 3; tick++) {
+            pet.runTick();
+        }
+        assertEquals(65, pet.getFullness());
+        assertEquals(100, pet.getHappiness(), "Happiness no longer decays");
+
+        PetStatTable table = new PetStatTable(1);
+        int row = table.addRow("fox");
+        table.advance(row, 3 * 8);
+        assertEquals("hungry", table.getState(row));
+        assertEquals(0, table.getFullness(row));
+    }
+
+    /**
+     * Tests that effects are grouped by period, and that a slow group only runs at its own
+     * cadence, whether the rows of a block share their phase or not.
+     */
+    @Test
+    void testRateGroups() {
+        assertArrayEquals(new int[] {1, 5}, TickRules.getBuiltIn().getRatePeriods(), "built-in rate groups");
+
+        TickRules rules = TickRules.fromJson("""
+                {
+                  "effects": [
+                    {"every": 86400, "stat": "score", "add": 1000},
+                    {"every": 2, "stat": "score", "add": 1},
+                    {"every": 86400, "state": "asleep", "stat": "score", "add": 50}
+                  ],
+                  "exits": [],
+                  "enters": [],
+                  "actions": {
+                    "play": {"add": {"happiness": 20}},
+                    "exercise": {"add": {"health": 1}},
+                    "vet": {"fill": ["health"]},
+                    "sleep": {"fill": ["sleep"]}
+                  }
+                }
+                """);
+        assertArrayEquals(new int[] {2, 86400}, rules.getRatePeriods(), "rate groups sorted by period");
+
+        int count = 300; // More than one block
+        PetStatTable table = new PetStatTable(count);
+        for (int i = 0; i < count; i++) {
+            table.addRow(TYPES[i % TYPES.length]);
+            table.ticks[i] = i % 2 == 0 ? 0 : 1; // Odd rows are one tick ahead
+        }
+        table.state[0] = PetStatTable.stateCode("asleep");
+        for (int tick = 0; tick < 86399; tick++) {
+            rules.tick(table, 0, count);
+        }
+        assertEquals(43199, table.getScore(0), "The daily effect has not run yet on row 0");
+        assertEquals(86400 / 2 + 1000, table.getScore(1), "The daily effect ran once on row 1");
+
+        rules.tick(table, 0, count);
+        assertEquals(43200 + 1000 + 50, table.getScore(0), "The daily effects ran once on row 0");
+        assertEquals(43200 + 1000, table.getScore(2), "Only the effect for every state ran on row 2");
+        assertEquals(86400 / 2 + 1000, table.getScore(1), "The daily effect did not run again on row 1");
+    }
+
+    /**
+     * Tests that actions follow the active rules.
+     */
+    @Test
+    void testActions() {
+        Pet pet = new Pet("Rusty", "fox");
+        pet.setHappiness(50);
+        pet.setSleep(40);
+        TickRules rules = TickRules.getBuiltIn();
+        rules.apply(TickRules.PLAY, pet);
+        assertEquals(55, pet.getHappiness());
+        assertEquals(38, pet.getSleep());
+        assertEquals(73, pet.getFullness());
+        assertEquals(1, pet.getScore());
+
+        rules.apply(TickRules.VET, pet);
+        assertEquals(75, pet.getHealth());
+        assertEquals(0, pet.getScore(), "Score should not go below 0");
+
+        rules.apply(TickRules.SLEEP_ACTION, pet);
+        assertEquals(50, pet.getSleep());
+        assertEquals(1, pet.getScore());
+    }
+
+    /**
+     * Tests that malformed rules are rejected.
+     */
+    @Test
+    void testMalformedRules() {
+        assertThrows(IllegalArgumentException.class, () -> TickRules.fromJson("{"));
+        assertThrows(IllegalArgumentException.class, () -> TickRules.fromJson(
+                "{\"effects\": [{\"stat\": \"mood\", \"add\": 1}], \"actions\": {}}"));
+    }
+}
@@ -0,0 +1,169 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the TransitionQueue class.
+ */
+class TransitionQueueTest {
+    private static final String[] TYPES = {"cat", "fox", "owl"};
+
+    /**
+     * Tests that the event-driven simulation ends in the same stats as ticking every pet,
+     * while waking pets far less often than once per tick.
+     */
+    @Test
+    void testMatchesTickingEveryPet() {
+        Random random = new Random(5);
+        int count = 2000;
+        PetStatTable ticked = new PetStatTable(count);
+        PetStatTable queued = new PetStatTable(count);
+        TransitionQueue queue = new TransitionQueue(queued);
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            ticked.addRow(type);
+            queued.addRow(type);
+            int happiness = 1 + random.nextInt(ticked.getMaxHappiness(i));
+            ticked.happiness[i] = happiness;
+            queued.happiness[i] = happiness;
+            queue.add(i);
+        }
+
+        int total = 0;
+        while (total < 3000) {
+            int step = Math.min(1 + random.nextInt(200), 3000 - total);
+            for (int t = 0; t < step; t++) {
+                ticked.tick(0, count);
+            }
+            queue.advance(step);
+            total += step;
+        }
+        for (int row = 0; row < count; row++) {
+            queue.sync(row);
+            assertEquals(ticked.getState(row), queued.getState(row), "state of row " + row);
+            assertEquals(ticked.getHealth(row), queued.getHealth(row), "health of row " + row);
+            assertEquals(ticked.getHappiness(row), queued.getHappiness(row), "happiness of row " + row);
+            assertEquals(ticked.getSleep(row), queued.getSleep(row), "sleep of row " + row);
+            assertEquals(ticked.getScore(row), queued.getScore(row), "score of row " + row);
+        }
+        assertEquals(3000, queue.getNow());
+        assertTrue(queue.getWakeUps() < (long) count * 20, "Pets should only wake on state changes");
+    }
+
+    /**
+     * Tests that player actions bring the pet up to date and reschedule its next state change.
+     */
+    @Test
+    void testActionsReschedule() {
+        TransitionQueue queue = new TransitionQueue(new PetStatTable(1));
+        Pet queued = queue.addPet("Queued", "fox");
+        Pet ticked = new Pet("Ticked", "fox");
+        GameManager queuedManager = new GameManager(queued);
+        GameManager tickedManager = new GameManager(ticked);
+
+        for (int step = 0; step < 10; step++) {
+            queue.advance(37);
+            for (int t = 0; t < 37; t++) {
+                ticked.runTick();
+            }
+            queuedManager.playPet();
+            tickedManager.playPet();
+            if (step % 3 == 0) {
+                queuedManager.sleepPet();
+                tickedManager.sleepPet();
+            }
+            assertEquals(ticked.getSleep(), queued.getSleep());
+            assertEquals(ticked.getHappiness(), queued.getHappiness());
+            assertEquals(ticked.getFullness(), queued.getFullness());
+            assertEquals(ticked.getState(), queued.getState());
+            assertEquals(ticked.getScore(), queued.getScore());
+        }
+    }
+
+    /**
+     * Tests that the listener hears about state changes on wake-ups.
+     */
+    @Test
+    void testStateChangeListener() {
+        PetStatTable table = new PetStatTable(1);
+        TransitionQueue queue = new TransitionQueue(table);
+        int row = table.addRow("fox");
+        queue.add(row);
+        int[] changes = new int[1];
+        queue.setStateChangeListener(changed -> changes[0]++);
+        queue.advance(5 * 13); // Sleep 50 runs out on the 13th decay
+        assertEquals(1, changes[0]);
+        assertEquals("asleep", table.getState(row));
+    }
+
+    /**
+     * Tests that rescheduling moves a pet's wake-up instead of queueing another one, and
+     * that pets that will never change state on their own leave the queue.
+     */
+    @Test
+    void testOneWakeUpPerPet() {
+        TransitionQueue queue = new TransitionQueue(new PetStatTable(102));
+        Pet[] pets = new Pet[100];
+        for (int i = 0; i < pets.length; i++) {
+            pets[i] = queue.addPet("Pet " + i, TYPES[i % TYPES.length]);
+        }
+        Random random = new Random(7);
+        for (int step = 0; step < 5000; step++) {
+            Pet pet = pets[random.nextInt(pets.length)];
+            if (pet.getPetState() == PetState.DEAD) pet.revivePet();
+            else TickRules.getActive().apply(random.nextInt(TickRules.ACTION_COUNT), pet);
+            if (step % 100 == 0) queue.advance(random.nextInt(50));
+            assertTrue(queue.getPendingCount() <= pets.length, "At most one wake-up per pet");
+        }
+
+        int pending = queue.getPendingCount();
+        Pet dead = queue.addPet("Dead", "cat");
+        queue.addPet("Removed", "owl");
+        assertEquals(pending + 2, queue.getPendingCount(), "New pets will fall asleep");
+        dead.setHealth(0);
+        dead.setState();
+        assertEquals(PetState.DEAD, dead.getPetState());
+        queue.remove(pets.length + 1);
+        assertEquals(pending, queue.getPendingCount(), "Dead and removed pets are not woken");
+        queue.advance(10_000);
+        assertEquals(PetState.DEAD, dead.getPetState());
+    }
+
+    /**
+     * Tests that the queue runs on the shared scheduler with one registration for all its
+     * pets, that game managers hand their queued pets to it, and that actions run on its
+     * wake-ups.
+     */
+    @Test
+    void testRunsOnScheduler() throws Exception {
+        SimulationScheduler scheduler = SimulationScheduler.getInstance();
+        TransitionQueue queue = new TransitionQueue(new PetStatTable(2));
+        Pet fox = queue.addPet("Rusty", "fox");
+        Pet owl = queue.addPet("Hoot", "owl");
+        GameManager foxManager = new GameManager(fox);
+        GameManager owlManager = new GameManager(owl);
+        int before = scheduler.getRegisteredCount();
+        queue.start(5);
+        try {
+            foxManager.periodicGameplay();
+            owlManager.periodicGameplay();
+            assertEquals(before + 1, scheduler.getRegisteredCount(), "One registration for the whole queue");
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (queue.getNow() < 40 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(queue.getNow() >= 40, "The scheduler advances the queue");
+            assertTrue(fox.getSleep() < 50, "Reading a pet brings it up to the queue's tick");
+            foxManager.playPet().get(5, TimeUnit.SECONDS);
+            foxManager.stopPeriodicGameplay();
+            assertTrue(queue.isRunning(), "The queue keeps running for its other pets");
+        } finally {
+            queue.stop();
+        }
+        assertEquals(before, scheduler.getRegisteredCount());
+        assertFalse(queue.isRunning());
+    }
+}
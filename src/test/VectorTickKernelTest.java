@@ -0,0 +1,70 @@
+package my_package;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the vectorized tick gives exactly the same results as the scalar kernel.
+ * When the jdk.incubator.vector module is missing, both tables run the scalar kernel.
+ */
+class VectorTickKernelTest {
+    private static final String[] TYPES = {"cat", "fox", "owl", null};
+    private static final String[] STATES = {"default", "asleep", "hungry", "angry", "dead"};
+
+    /**
+     * Tests both paths over random pets in every state, with a row count that leaves a
+     * scalar tail and rows whose decay phases differ.
+     */
+    @Test
+    void testVectorMatchesScalar() {
+        int count = 1003;
+        PetStatTable scalar = randomTable(count, 7);
+        PetStatTable vector = randomTable(count, 7);
+
+        for (int tick = 0; tick < 500; tick++) {
+            scalar.tick(0, count);
+            vector.tickVectorized(0, count);
+            for (int row = 0; row < count; row++) {
+                assertEquals(scalar.getHealth(row), vector.getHealth(row), "health of row " + row);
+                assertEquals(scalar.getHappiness(row), vector.getHappiness(row), "happiness of row " + row);
+                assertEquals(scalar.getFullness(row), vector.getFullness(row), "fullness of row " + row);
+                assertEquals(scalar.getSleep(row), vector.getSleep(row), "sleep of row " + row);
+                assertEquals(scalar.getScore(row), vector.getScore(row), "score of row " + row);
+                assertEquals(scalar.getState(row), vector.getState(row), "state of row " + row);
+            }
+        }
+    }
+
+    /**
+     * Tests that a sub-range is ticked without touching the rows around it.
+     */
+    @Test
+    void testVectorTicksOnlyRange() {
+        PetStatTable table = randomTable(100, 3);
+        int before = table.getSleep(0);
+        int[] ticksBefore = table.ticks.clone();
+        table.tickVectorized(10, 90);
+        assertEquals(before, table.getSleep(0));
+        assertEquals(ticksBefore[9], table.ticks[9]);
+        assertEquals(ticksBefore[10] + 1, table.ticks[10]);
+        assertEquals(ticksBefore[89] + 1, table.ticks[89]);
+        assertEquals(ticksBefore[90], table.ticks[90]);
+    }
+
+    private static PetStatTable randomTable(int count, long seed) {
+        Random random = new Random(seed);
+        PetStatTable table = new PetStatTable(count);
+        for (int i = 0; i < count; i++) {
+            int row = table.addRow(TYPES[random.nextInt(TYPES.length)]);
+            table.health[row] = random.nextInt(110) - 5;
+            table.happiness[row] = random.nextInt(110) - 5;
+            table.fullness[row] = random.nextInt(110) - 5;
+            table.sleep[row] = random.nextInt(110) - 5;
+            table.score[row] = random.nextInt(100) - 5;
+            table.state[row] = PetStatTable.stateCode(STATES[random.nextInt(STATES.length)]);
+            table.ticks[row] = random.nextInt(5);
+        }
+        return table;
+    }
+}